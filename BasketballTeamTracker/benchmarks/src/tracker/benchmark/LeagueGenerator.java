@@ -0,0 +1,433 @@
+package tracker.benchmark;
+
+/**
+ * The LeagueGenerator class is designed to write made up but realistic data for load testing:
+ * a roster file in the layout read by Team.loadRosterStatistics and match files in the layout
+ * read by Team.loadMatchStatistics. Every player gets a skill level, so their box scores vary
+ * around their own averages rather than being uniform noise. The same seed always writes the
+ * same files, so benchmarks and stress tests can be repeated exactly.
+ *
+ * The number of players, coaches and games, the share of playoff games, the number of players
+ * per box score and the share of box score lines naming players who are not on the roster can
+ * all be changed. Regular season games use the header "regular,opponent,us,them" with three
+ * stats per player; playoff games add the bracket stage to the header and the field goal and
+ * three point percentages to every player line.
+ *
+ * Build the benchmarks from the project folder with "mvn -B package -DskipTests", then run it to
+ * write a league into a folder:
+ *   java -cp benchmarks/target/benchmarks.jar tracker.benchmark.LeagueGenerator folder [players=N] [coaches=N] [games=N]
+ *        [seed=N] [playoffRatio=R] [unknownShare=R] [playersPerGame=N]
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class LeagueGenerator {
+    // CONSTANTS //
+    private static final String[] FIRST_NAMES = {
+            "Immanuel", "Scottie", "Pascal", "Jakob", "Gary", "Chris", "Kyle", "Fred", "Vince", "Tracy",
+            "Kawhi", "Serge", "Marc", "OG", "Jonas", "DeMar", "Jalen", "Gradey", "Ochai", "Kelly",
+            "Precious", "Chris", "Thaddeus", "Delon", "Norman", "Terence", "Patrick", "Malachi", "Bruce", "Khem"
+    };
+    private static final String[] LAST_NAMES = {
+            "Quickley", "Barnes", "Siakam", "Poeltl", "Trent", "Boucher", "Lowry", "VanVleet", "Carter", "McGrady",
+            "Leonard", "Ibaka", "Gasol", "Anunoby", "Valanciunas", "DeRozan", "Dick", "Agbaji", "Olynyk", "Achiuwa",
+            "Young", "Powell", "Ross", "Patterson", "Flynn", "Brown", "Birch", "Koloko", "Watson", "Mamukelashvili"
+    };
+    private static final String[] OPPONENTS = {
+            "Atlanta Hawks", "Boston Celtics", "Brooklyn Nets", "Charlotte Hornets", "Chicago Bulls",
+            "Cleveland Cavaliers", "Dallas Mavericks", "Denver Nuggets", "Detroit Pistons", "Golden State Warriors",
+            "Houston Rockets", "Indiana Pacers", "Los Angeles Clippers", "Los Angeles Lakers", "Memphis Grizzlies",
+            "Miami Heat", "Milwaukee Bucks", "Minnesota Timberwolves", "New Orleans Pelicans", "New York Knicks",
+            "Oklahoma City Thunder", "Orlando Magic", "Philadelphia 76ers", "Phoenix Suns", "Portland Trail Blazers",
+            "Sacramento Kings", "San Antonio Spurs", "Utah Jazz", "Washington Wizards"
+    };
+    private static final String[] STAGES = {"First Round", "Conference Semifinals", "Conference Finals", "NBA Finals"};
+
+
+    // FIELDS //
+    private final long seed;
+    private int players;
+    private int coaches;
+    private int games;
+    private double playoffRatio;
+    private double unknownShare;
+    private int playersPerGame;
+    private String filePrefix;
+
+    private String[] names;
+    private Random matchRandom;
+    private double[][] skills;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a generator with a seed and the default league: 15 players, 2 coaches, 82 games,
+     * one playoff game in five, no unknown players and 10 players per box score.
+     *
+     * @param seed
+     */
+    public LeagueGenerator(long seed) {
+        this.seed = seed;
+        players = 15;
+        coaches = 2;
+        games = 82;
+        playoffRatio = 0.2;
+        unknownShare = 0;
+        playersPerGame = 10;
+        filePrefix = "Game";
+    }
+
+
+    // ACCESSORS AND MUTATORS //
+
+    /**
+     * Sets the number of players on the roster.
+     *
+     * @param players
+     * @return this generator
+     */
+    public LeagueGenerator setPlayers(int players) {
+        this.players = players;
+        names = null;
+        return this;
+    }
+
+    /**
+     * Sets the number of coaches on the roster.
+     *
+     * @param coaches
+     * @return this generator
+     */
+    public LeagueGenerator setCoaches(int coaches) {
+        this.coaches = coaches;
+        return this;
+    }
+
+    /**
+     * Sets the number of match files to write.
+     *
+     * @param games
+     * @return this generator
+     */
+    public LeagueGenerator setGames(int games) {
+        this.games = games;
+        return this;
+    }
+
+    /**
+     * Sets the share of games that are playoff games, between 0 and 1.
+     *
+     * @param playoffRatio
+     * @return this generator
+     */
+    public LeagueGenerator setPlayoffRatio(double playoffRatio) {
+        this.playoffRatio = playoffRatio;
+        return this;
+    }
+
+    /**
+     * Sets the share of box score lines that name a player who is not on the roster, between 0 and 1.
+     *
+     * @param unknownShare
+     * @return this generator
+     */
+    public LeagueGenerator setUnknownShare(double unknownShare) {
+        this.unknownShare = unknownShare;
+        return this;
+    }
+
+    /**
+     * Sets the number of player lines in every box score.
+     *
+     * @param playersPerGame
+     * @return this generator
+     */
+    public LeagueGenerator setPlayersPerGame(int playersPerGame) {
+        this.playersPerGame = playersPerGame;
+        return this;
+    }
+
+    /**
+     * Sets the start of every match file's name, before the game number.
+     *
+     * @param filePrefix
+     * @return this generator
+     */
+    public LeagueGenerator setFilePrefix(String filePrefix) {
+        this.filePrefix = filePrefix;
+        return this;
+    }
+
+    /**
+     * Accesses the name of a generated player.
+     *
+     * @param index the player's position on the generated roster
+     * @return the name
+     */
+    public String getPlayerName(int index) {
+        createPlayers();
+        return names[index];
+    }
+
+    /**
+     * Accesses the number of players on the roster.
+     *
+     * @return the number of players
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Writes the roster file: every coach followed by every player, with their season so far.
+     *
+     * @param rosterFilePath the roster file's location
+     * @throws IOException if the file could not be written
+     */
+    public void writeRoster(String rosterFilePath) throws IOException {
+        createPlayers();
+        Random random = new Random(seed);
+        StringBuilder line = new StringBuilder(128);
+
+        try (Writer writer = open(new File(rosterFilePath))) {
+            for (int i = 0; i < coaches; i++) {
+                int matches = random.nextInt(83);
+                int playoffMatches = random.nextInt(Math.min(matches, 16) + 1);
+                line.setLength(0);
+                line.append("Coach_").append(LAST_NAMES[i % LAST_NAMES.length]).append('_').append(i)
+                        .append(',').append(40 + random.nextInt(35))
+                        .append(',').append(matches).append(',').append(playoffMatches).append(",coach,")
+                        .append(tenths(20 + random.nextDouble() * 60)).append(',')
+                        .append(playoffMatches == 0 ? 0.0 : tenths(random.nextDouble() * 100)).append('\n');
+                writer.append(line);
+            }
+
+            for (int i = 0; i < players; i++) {
+                double[] skill = skills[i];
+                int matches = random.nextInt(83);
+                int playoffMatches = random.nextInt(Math.min(matches, 16) + 1);
+                line.setLength(0);
+                line.append(names[i]).append(',').append(19 + random.nextInt(20))
+                        .append(',').append(matches).append(',').append(playoffMatches).append(",player,")
+                        .append(i % 100).append(',')
+                        .append(average(skill[0], matches)).append(',')
+                        .append(average(skill[1], matches)).append(',')
+                        .append(average(skill[2], matches)).append(',')
+                        .append(average(skill[0], playoffMatches)).append(',')
+                        .append(average(skill[1], playoffMatches)).append(',')
+                        .append(average(skill[2], playoffMatches)).append(',')
+                        .append(average(skill[3], playoffMatches)).append(',')
+                        .append(average(skill[4], playoffMatches)).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    /**
+     * Writes the match files into a folder, named Game0000001.csv and so on so they load in order.
+     * Calling it again writes the next games of the same season rather than repeating the first ones.
+     *
+     * @param matchFolderPath the folder to write into
+     * @return the number of rows written over every file
+     * @throws IOException if a file could not be written
+     */
+    public long writeMatches(String matchFolderPath) throws IOException {
+        createPlayers();
+        File folder = new File(matchFolderPath);
+        folder.mkdirs();
+
+        // a separate stream from the roster, so changing the roster size does not change every game
+        if(matchRandom == null) {
+            matchRandom = new Random(seed * 31 + 7);
+        }
+        Random random = matchRandom;
+        StringBuilder file = new StringBuilder(1024);
+        int[] order = new int[players];
+        for (int i = 0; i < players; i++) {
+            order[i] = i;
+        }
+        int[] lineup = new int[Math.min(playersPerGame, players)];
+        long rows = 0;
+
+        for (int game = 1; game <= games; game++) {
+            boolean isPlayoff = random.nextDouble() < playoffRatio;
+            file.setLength(0);
+
+            // nobody plays twice in one game: shuffle just enough of the roster to fill the lineup
+            for (int i = 0; i < lineup.length; i++) {
+                int pick = i + random.nextInt(players - i);
+                int swap = order[i];
+                order[i] = order[pick];
+                order[pick] = swap;
+                lineup[i] = order[i];
+            }
+
+            int yourScore = 85 + random.nextInt(50);
+            int opponentScore = 85 + random.nextInt(50);
+            if(yourScore == opponentScore) {
+                opponentScore++; // no ties in basketball
+            }
+
+            file.append(isPlayoff ? "playoff," : "regular,").append(OPPONENTS[random.nextInt(OPPONENTS.length)])
+                    .append(',').append(yourScore).append(',').append(opponentScore);
+            if(isPlayoff) {
+                file.append(',').append(STAGES[random.nextInt(STAGES.length)]);
+            }
+            file.append('\n');
+
+            for (int index : lineup) {
+                if(random.nextDouble() < unknownShare) {
+                    file.append("Unknown_Player_").append(random.nextInt(1_000_000));
+                } else {
+                    file.append(names[index]);
+                }
+
+                double[] skill = skills[index];
+                file.append(',').append(statLine(random, skill[0]))
+                        .append(',').append(statLine(random, skill[1]))
+                        .append(',').append(statLine(random, skill[2]));
+                if(isPlayoff) {
+                    file.append(',').append(percentage(random, skill[3]))
+                            .append(',').append(percentage(random, skill[4]));
+                }
+                file.append('\n');
+                rows++;
+            }
+            rows++;
+
+            try (Writer writer = open(new File(folder, filePrefix + String.format("%07d.csv", game)))) {
+                writer.append(file);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Creates the names and skill levels of every player, the same way every time for a given seed.
+     */
+    private void createPlayers() {
+        if(names != null) {
+            return;
+        }
+
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        names = new String[players];
+        skills = new double[players][];
+        for (int i = 0; i < players; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + "_" + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "_" + i;
+
+            // a few stars, plenty of role players: points follow a skewed distribution
+            double scoring = 4 + 26 * Math.pow(random.nextDouble(), 1.8);
+            skills[i] = new double[] {
+                    scoring,
+                    1 + random.nextDouble() * 8,
+                    2 + random.nextDouble() * 10,
+                    38 + random.nextDouble() * 20,
+                    25 + random.nextDouble() * 20
+            };
+        }
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Creates one game's count for a stat around a player's average, never below zero.
+     */
+    private static int statLine(Random random, double mean) {
+        return (int) Math.max(0, Math.round(mean + random.nextGaussian() * Math.sqrt(mean) * 1.5));
+    }
+
+    /**
+     * Creates one game's shooting percentage around a player's average, between 0 and 100.
+     */
+    private static double percentage(Random random, double mean) {
+        return tenths(Math.min(100, Math.max(0, mean + random.nextGaussian() * 12)));
+    }
+
+    /**
+     * Creates a season average that is 0 when no games were played.
+     */
+    private static double average(double skill, int games) {
+        return games == 0 ? 0.0 : Math.round(skill * 10) / 10.0;
+    }
+
+    /**
+     * Rounds a number to one decimal place.
+     */
+    private static double tenths(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Opens a buffered file writer.
+     */
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+
+    // MAIN METHOD //
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.out.println("Usage: LeagueGenerator folder [players=N] [coaches=N] [games=N] [seed=N] [playoffRatio=R] [unknownShare=R] [playersPerGame=N]");
+            System.exit(2);
+        }
+
+        long seed = 1;
+        for (int i = 1; i < args.length; i++) {
+            if(args[i].startsWith("seed=")) {
+                seed = Long.parseLong(args[i].substring(5));
+            }
+        }
+
+        LeagueGenerator generator = new LeagueGenerator(seed);
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            switch(option[0]) {
+                case "players":
+                    generator.setPlayers(Integer.parseInt(option[1]));
+                    break;
+                case "coaches":
+                    generator.setCoaches(Integer.parseInt(option[1]));
+                    break;
+                case "games":
+                    generator.setGames(Integer.parseInt(option[1]));
+                    break;
+                case "playoffRatio":
+                    generator.setPlayoffRatio(Double.parseDouble(option[1]));
+                    break;
+                case "unknownShare":
+                    generator.setUnknownShare(Double.parseDouble(option[1]));
+                    break;
+                case "playersPerGame":
+                    generator.setPlayersPerGame(Integer.parseInt(option[1]));
+                    break;
+                case "seed":
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File folder = new File(args[0]);
+        folder.mkdirs();
+        long start = System.nanoTime();
+        generator.writeRoster(new File(folder, "Roster.csv").getPath());
+        long rows = generator.writeMatches(new File(folder, "matches").getPath());
+        System.out.printf("Wrote %d roster rows and %d games (%d rows) to %s in %.1f s%n",
+                generator.coaches + generator.players, generator.games, rows, folder, (System.nanoTime() - start) / 1e9);
+    }
+}
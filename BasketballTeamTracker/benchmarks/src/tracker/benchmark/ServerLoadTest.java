@@ -0,0 +1,179 @@
+package tracker.benchmark;
+
+/**
+ * The ServerLoadTest class measures how quickly the StatsServer answers many clients at once. It
+ * generates a league, serves it on a local port and has every client thread request the roster,
+ * single roster members, the matches and the leaderboards as fast as it can. Half of the requests
+ * send back the ETag of the last response, the way a polling dashboard would, so both full
+ * responses and 304s are measured. While the clients run, a writer keeps loading matches so the
+ * ETags keep changing.
+ *
+ * Build the benchmarks from the project folder with "mvn -B package -DskipTests", then run it with:
+ *   java -cp benchmarks/target/benchmarks.jar tracker.benchmark.ServerLoadTest [clients] [seconds] [players]
+ * The defaults are 200 clients for 10 seconds against 1000 players.
+ */
+
+import tracker.BoxScore;
+import tracker.StatsServer;
+import tracker.Team;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ServerLoadTest {
+    // CONSTANTS //
+    private static final int DEFAULT_CLIENTS = 200;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_PLAYERS = 1_000;
+
+    // matches the writer loads per second while the clients run
+    private static final int WRITES_PER_SECOND = 100;
+
+
+    // STATIC METHODS //
+
+    /**
+     * Sends requests until told to stop, recording the latency of every one.
+     *
+     * @return the latencies in nanoseconds
+     */
+    private static long[] client(String base, String[] paths, long seed, AtomicBoolean running, AtomicLong notModified, AtomicLong failed) {
+        Random random = new Random(seed);
+        long[] latencies = new long[1 << 12];
+        int count = 0;
+        String etag = null;
+        byte[] buffer = new byte[8192];
+
+        while(running.get()) {
+            String path = paths[random.nextInt(paths.length)];
+            long start = System.nanoTime();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+                if(etag != null && random.nextBoolean()) {
+                    connection.setRequestProperty("If-None-Match", etag);
+                }
+                int status = connection.getResponseCode();
+                if(status == 304) {
+                    notModified.incrementAndGet();
+                } else if(status != 200 && status != 404) {
+                    failed.incrementAndGet();
+                }
+                etag = connection.getHeaderField("ETag");
+                // read the whole body so the connection can be kept alive and reused
+                InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+                if(body != null) {
+                    try (InputStream in = body) {
+                        while(in.read(buffer) != -1) {
+                            // discard
+                        }
+                    }
+                }
+            } catch (IOException iox) {
+                failed.incrementAndGet();
+                continue;
+            }
+
+            if(count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+
+    // MAIN METHOD //
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLAYERS;
+
+        // keep one connection per client alive instead of the default five
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+        // answer small responses without waiting on the client's ACK, as Main does when serving
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        Path folder = Files.createTempDirectory("server-load-");
+        String rosterFilePath = folder.resolve("Roster.csv").toString();
+        LeagueGenerator generator = new LeagueGenerator(players).setPlayers(players).setCoaches(2);
+        generator.writeRoster(rosterFilePath);
+        Team team = new Team("Load Test");
+        team.loadRosterStatistics(rosterFilePath);
+        Files.delete(folder.resolve("Roster.csv"));
+        Files.delete(folder);
+
+        StatsServer server = new StatsServer(team, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+
+        String[] paths = new String[64];
+        for (int i = 0; i < paths.length; i++) {
+            switch(i % 4) {
+                case 0:
+                    paths[i] = "/roster/" + URLEncoder.encode(generator.getPlayerName(i % players), "UTF-8");
+                    break;
+                case 1:
+                    paths[i] = "/leaders/" + (i % 8 == 1 ? "ppg" : "win%25") + "?n=10";
+                    break;
+                case 2:
+                    paths[i] = "/matches";
+                    break;
+                default:
+                    paths[i] = players <= 1_000 ? "/roster" : "/leaders/rpg?n=50";
+            }
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong notModified = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<long[]> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            Thread thread = new Thread(() -> {
+                long[] latencies = client(base, paths, seed, running, notModified, failed);
+                synchronized (results) {
+                    results.add(latencies);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // keep the team changing so the ETags do not stay the same for the whole test
+        Random random = new Random(1);
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        while(System.nanoTime() < end) {
+            String[] names = {generator.getPlayerName(random.nextInt(players))};
+            double[] stats = {random.nextInt(40), random.nextInt(12), random.nextInt(15), 0, 0};
+            team.applyBoxScore(new BoxScore(false, "Boston Celtics", 100 + random.nextInt(20), 100 + random.nextInt(20), null, names, stats, 1));
+            Thread.sleep(1000 / WRITES_PER_SECOND);
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.stop();
+
+        long[] all = results.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if(all.length == 0) {
+            System.out.println("No requests completed");
+            return;
+        }
+        System.out.printf("%d clients, %d s, %d players%n", clients, seconds, players);
+        System.out.printf("requests: %,d (%,.0f/s), 304s: %,d, failed: %,d%n", all.length, all.length / (double) seconds, notModified.get(), failed.get());
+        System.out.printf("latency us: p50 %,.1f  p90 %,.1f  p99 %,.1f  max %,.1f%n",
+                all[all.length / 2] / 1e3, all[(int) (all.length * 0.9)] / 1e3, all[(int) (all.length * 0.99)] / 1e3, all[all.length - 1] / 1e3);
+    }
+}
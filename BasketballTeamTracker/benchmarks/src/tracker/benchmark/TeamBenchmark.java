@@ -0,0 +1,358 @@
+package tracker.benchmark;
+
+/**
+ * The TeamBenchmark class measures the Team paths that grow with the size of a league: loading
+ * the roster file, loading match files, organizing the roster and matches, saving the roster and
+ * finding roster members. It also compares reading the roster file with Scanner and split against
+ * the CsvTokenizer. Every benchmark runs against generated leagues of several sizes.
+ *
+ * The benchmarks run under JMH, which handles warm-up, forking and keeping results alive. Every
+ * benchmark that loads matches gets a team and a batch of match files of its own before each
+ * iteration, so nothing a team loaded in one iteration is still there in the next. All files,
+ * including the trash loaded matches are moved to, are written to a temporary folder and removed
+ * afterwards. Allocation is measured by JMH's gc profiler, which on Java 14 and later counts the
+ * bytes allocated by every thread, including the threads that parse match files in parallel.
+ *
+ * Build and run it from the project folder:
+ *   mvn -B package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar TeamBenchmark -prof gc [-p size=10,1000,100000,1000000]
+ * The default sizes are 10, 1000 and 100000 roster rows and match files.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tracker.CsvTokenizer;
+import tracker.Team;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamBenchmark {
+    // CONSTANTS //
+
+    // how many names one findRoster invocation looks up
+    private static final int LOOKUPS = 1024;
+
+    // how many match files one loadMatchStatistics invocation loads
+    private static final int MATCH_FILES = 1_000;
+
+    private static final PrintStream SILENT = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+
+    // INSTANCE METHODS //
+
+    @Benchmark
+    public Team loadRosterStatistics(League league) {
+        Team team = league.newTeam();
+        team.loadRosterStatistics(league.rosterFilePath);
+        return team;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void findRoster(Lookups lookups, Blackhole blackhole) {
+        for (String name : lookups.names) {
+            blackhole.consume(lookups.team.findRoster(name));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    @OperationsPerInvocation(MATCH_FILES)
+    public Team loadMatchStatistics(MatchBatch batch) {
+        for (String fileName : batch.fileNames) {
+            batch.team.loadMatchStatistics(batch.matchFolderPath, fileName);
+        }
+        return batch.team;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public boolean loadAllMatchStatistics(MatchFolder folder) {
+        return folder.team.loadAllMatchStatistics(folder.matchFolderPath, folder.savedFilePath);
+    }
+
+    @Benchmark
+    public Team organizeRoster(Season season) {
+        season.team.organizeRoster();
+        return season.team;
+    }
+
+    @Benchmark
+    public Team organizeMatches(Season season) {
+        season.team.organizeMatches();
+        return season.team;
+    }
+
+    @Benchmark
+    public boolean saveRosterStatistics(Season season) {
+        return season.team.saveRosterStatistics(season.savedFilePath);
+    }
+
+    @Benchmark
+    public double rosterViaScanner(League league) throws IOException {
+        double sum = 0;
+        try (Scanner scan = new Scanner(new File(league.rosterFilePath))) {
+            while(scan.hasNext()) {
+                String[] arr = scan.nextLine().split(",");
+                sum += Double.parseDouble(arr[5]);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double rosterViaCsvTokenizer(League league) throws IOException {
+        double sum = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(league.rosterFilePath))) {
+            while(csv.nextLine()) {
+                for (int i = 0; i < 5; i++) {
+                    csv.skipField();
+                }
+                sum += csv.nextDouble();
+            }
+        }
+        return sum;
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Deletes a folder and everything in it.
+     */
+    private static void deleteAll(Path path) throws IOException {
+        File[] children = path.toFile().listFiles();
+        if(children != null) {
+            for (File child : children) {
+                deleteAll(child.toPath());
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+
+    // MAIN METHOD //
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(TeamBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class);
+        if(args.length > 0) {
+            options.param("size", args);
+        }
+        new Runner(options.build()).run();
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * A generated league: its roster file and a temporary folder for everything else. The team's
+     * messages are silenced while the league is in use.
+     */
+    @State(Scope.Benchmark)
+    public static class League {
+        // a million rows takes minutes per iteration to set up, so it is left to "-p size=1000000"
+        @Param({"10", "1000", "100000"})
+        int size;
+
+        Path folder;
+        String rosterFilePath;
+        String trashFilePath;
+        LeagueGenerator generator;
+        private PrintStream console;
+        private int batch;
+
+        @Setup(Level.Trial)
+        public void writeRoster() throws IOException {
+            folder = Files.createTempDirectory("team-benchmark-" + size + "-");
+            rosterFilePath = folder.resolve("Roster.csv").toString();
+            trashFilePath = folder.resolve("trash").toString() + File.separator;
+            generator = new LeagueGenerator(size).setPlayers(size).setCoaches(1).setPlayersPerGame(12);
+            generator.writeRoster(rosterFilePath);
+
+            console = System.out;
+            System.setOut(SILENT);
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteFiles() throws IOException {
+            System.setOut(console);
+            deleteAll(folder);
+        }
+
+        /**
+         * Makes an empty team that moves loaded files into the league's own trash folder.
+         *
+         * @return the team
+         */
+        Team newTeam() {
+            Team team = new Team("Benchmark");
+            team.setTrashFilePath(trashFilePath);
+            return team;
+        }
+
+        /**
+         * Makes a team with the league's roster loaded.
+         *
+         * @return the team
+         */
+        Team newRosterTeam() {
+            Team team = newTeam();
+            team.loadRosterStatistics(rosterFilePath);
+            return team;
+        }
+
+        /**
+         * Writes a new folder of match files with a mix of regular season and playoff matches.
+         *
+         * @param count the number of files
+         * @return the folder, ending in a separator
+         * @throws IOException if a file could not be written
+         */
+        String writeMatches(int count) throws IOException {
+            String matchFolderPath = folder.resolve("matches-" + (++batch)).toString() + File.separator;
+            new File(matchFolderPath).mkdirs();
+            generator.setGames(count).setFilePrefix("bench-" + batch + "-").writeMatches(matchFolderPath);
+            return matchFolderPath;
+        }
+
+        /**
+         * Empties the trash folder, so the trash does not keep growing from one iteration to the next.
+         *
+         * @throws IOException if a file could not be deleted
+         */
+        void emptyTrash() throws IOException {
+            deleteAll(new File(trashFilePath).toPath());
+        }
+    }
+
+    /**
+     * A team with the roster loaded and the names to look up in it, which are not changed by the lookups.
+     */
+    @State(Scope.Benchmark)
+    public static class Lookups {
+        Team team;
+        String[] names;
+
+        @Setup(Level.Trial)
+        public void pickNames(League league) {
+            team = league.newRosterTeam();
+            Random random = new Random(league.size);
+            names = new String[LOOKUPS];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = league.generator.getPlayerName(random.nextInt(league.size));
+            }
+        }
+    }
+
+    /**
+     * A new team with the roster loaded and a batch of match files for it, made before every iteration.
+     */
+    @State(Scope.Thread)
+    public static class MatchBatch {
+        Team team;
+        String matchFolderPath;
+        String[] fileNames;
+
+        @Setup(Level.Iteration)
+        public void writeMatches(League league) throws IOException {
+            team = league.newRosterTeam();
+            matchFolderPath = league.writeMatches(MATCH_FILES);
+            fileNames = new File(matchFolderPath).list((dir, fileName) -> fileName.endsWith(".csv"));
+        }
+
+        @TearDown(Level.Iteration)
+        public void deleteMatches(League league) throws IOException {
+            deleteAll(new File(matchFolderPath).toPath());
+            league.emptyTrash();
+        }
+    }
+
+    /**
+     * A new team with the roster loaded and a folder holding as many match files as the league size,
+     * made before every iteration.
+     */
+    @State(Scope.Thread)
+    public static class MatchFolder {
+        Team team;
+        String matchFolderPath;
+        String savedFilePath;
+
+        @Setup(Level.Iteration)
+        public void writeMatches(League league) throws IOException {
+            team = league.newRosterTeam();
+            matchFolderPath = league.writeMatches(league.size);
+            savedFilePath = league.folder.resolve("Saved.csv").toString();
+        }
+
+        @TearDown(Level.Iteration)
+        public void deleteMatches(League league) throws IOException {
+            deleteAll(new File(matchFolderPath).toPath());
+            league.emptyTrash();
+        }
+    }
+
+    /**
+     * A team that has played a season as long as the league size, for the benchmarks that go over
+     * every match without adding any.
+     */
+    @State(Scope.Benchmark)
+    public static class Season {
+        Team team;
+        String savedFilePath;
+
+        @Setup(Level.Trial)
+        public void playSeason(League league) throws IOException {
+            team = league.newRosterTeam();
+            String matchFolderPath = league.writeMatches(league.size);
+            savedFilePath = league.folder.resolve("Season.csv").toString();
+            team.loadAllMatchStatistics(matchFolderPath, savedFilePath);
+            league.emptyTrash();
+        }
+    }
+}
@@ -1,5 +1,29 @@
+import tracker.League;
+import tracker.MatchWatcher;
 import tracker.Team;
 
+import tracker.Category;
+import tracker.GameLog;
+import tracker.Player;
+import tracker.Roster;
+import tracker.RosterExporter;
+import tracker.RosterTransaction;
+import tracker.StatsServer;
+import tracker.TradeSearch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
@@ -7,7 +31,9 @@ public class Main {
 
     // GLOBAL INSTANCES //
     public static final Scanner scan = new Scanner(System.in);
-    public static final Team team = new Team("Toronto Raptors");
+    public static final League league = new League("NBA");
+    public static final Team team = league.addTeam("Toronto Raptors");
+    public static MatchWatcher watcher;
 
 
     // CONSTANTS //
@@ -20,6 +46,16 @@ public class Main {
 
     static final String MATCH_FILE_PATH = "src/tracker/matches/";
 
+    static final String SNAPSHOT_FILE_PATH = "src/tracker/Roster.snapshot";
+
+    static final String JOURNAL_FILE_PATH = "src/tracker/Roster.journal";
+
+    static final String CHECKPOINT_FILE_PATH = "src/tracker/matches.checkpoint";
+
+    static final String LEAGUE_FILE_PATH = "src/tracker/league/";
+
+    static final int SERVER_PORT = 8080;
+
 
     // METHODS //
 
@@ -47,6 +83,39 @@ public class Main {
         return n;
     }
 
+    /**
+     * Starts loading every match file dropped into the matches folder in the background.
+     */
+    public static void startWatching() {
+        if(watcher != null && watcher.isRunning()) {
+            System.out.println("Already watching " + MATCH_FILE_PATH);
+            return;
+        }
+        try {
+            watcher = new MatchWatcher(team, MATCH_FILE_PATH, CHECKPOINT_FILE_PATH);
+            watcher.start();
+            System.out.println("Watching " + MATCH_FILE_PATH + " for new matches");
+        } catch (IOException iox) {
+            System.out.println("Problem watching " + MATCH_FILE_PATH + ": " + iox.getMessage());
+        }
+    }
+
+    /**
+     * Stops loading match files in the background.
+     */
+    public static void stopWatching() {
+        if(watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+            System.out.println("Stopped watching after loading " + watcher.getFilesLoaded() + " matches");
+        } catch (IOException iox) {
+            System.out.println("Problem closing the watcher: " + iox.getMessage());
+        }
+        watcher = null;
+    }
+
     /**
      * The load / save menu is where you load and save information such as...
      * Match statistics.
@@ -60,13 +129,17 @@ public class Main {
             System.out.println("\t1. Load Match");
             System.out.println("\t2. Load Roster");
             System.out.println("\t3. Save Roster");
+            System.out.println("\t4. Load All Matches");
+            System.out.println("\t5. Load Snapshot");
+            System.out.println("\t6. Save Snapshot");
+            System.out.println("\t7. Watch Matches Folder");
             System.out.println("\t0. Go Back");
 
 
-            int option = getInput(0, 3, "Enter your option");
+            int option = getInput(0, 7, "Enter your option");
             if(option == 0) { // Go Back
                 System.out.println("Going back...\n");
-                mainMenu();
+                return;
             } else {
                 switch(option) {
                     case 1:
@@ -86,6 +159,24 @@ public class Main {
                             System.out.println("Successfully saved roster!");
                         }
                         break;
+                    case 4:
+                        if(team.loadAllMatchStatistics(MATCH_FILE_PATH, ROSTER_FILE_PATH)) {
+                            System.out.println("Successfully loaded every match in " + MATCH_FILE_PATH);
+                        }
+                        break;
+                    case 5:
+                        if(team.loadSnapshot(SNAPSHOT_FILE_PATH)) {
+                            System.out.println("Successfully loaded " + SNAPSHOT_FILE_PATH);
+                        }
+                        break;
+                    case 6:
+                        if(team.saveSnapshot(SNAPSHOT_FILE_PATH)) {
+                            System.out.println("Successfully saved snapshot!");
+                        }
+                        break;
+                    case 7:
+                        startWatching();
+                        break;
                 }
                 TimeUnit.SECONDS.sleep(1);
             }
@@ -118,7 +209,7 @@ public class Main {
             int option = getInput(0, 6, "Enter your option");
             if(option == 0) { // Go Back
                 System.out.println("Going back...\n");
-                mainMenu();
+                return;
             } else {
                 switch(option) {
                     case 1:
@@ -132,7 +223,6 @@ public class Main {
                         System.out.print("Please enter \"y\" if you confirm to reset, otherwise enter any key to go back\n> ");
                         if(scan.nextLine().equals("y")) {
                             team.resetStatistics();
-                            team.saveRosterStatistics(ROSTER_FILE_PATH);
                         } else {
                             System.out.println("Statistics were NOT reset");
                         }
@@ -170,12 +260,16 @@ public class Main {
             System.out.println("\t1. Particular Player / Coach");
             System.out.println("\t2. The Roster");
             System.out.println("\t3. All Matches");
+            System.out.println("\t4. Leaders");
+            System.out.println("\t5. Player Splits");
+            System.out.println("\t6. Metrics");
+            System.out.println("\t7. Season Record");
             System.out.println("\t0. Go Back");
 
-            int option = getInput(0, 4, "Enter your option");
+            int option = getInput(0, 7, "Enter your option");
             if(option == 0) { // Go Back
                 System.out.println("Going back...\n");
-                mainMenu();
+                return;
             } else {
                 switch(option) {
                     case 1:
@@ -190,6 +284,23 @@ public class Main {
                     case 3:
                         team.displayAllMatches();
                         break;
+                    case 4:
+                        team.displayLeaders(5);
+                        break;
+                    case 5:
+                        System.out.print("Enter the name of player\n> ");
+                        team.displaySplits(scan.nextLine());
+                        System.out.println();
+                        break;
+                    case 6:
+                        team.getMetrics().display();
+                        break;
+                    case 7:
+                        System.out.print("Enter the name of the opponent team, or nothing for the whole season\n> ");
+                        String opponent = scan.nextLine().trim();
+                        team.displaySeasonRecord(opponent.isEmpty() ? null : opponent);
+                        System.out.println();
+                        break;
                 }
                 TimeUnit.SECONDS.sleep(1);
             }
@@ -203,12 +314,12 @@ public class Main {
      * printMenu()
      */
     public static void mainMenu() throws InterruptedException {
-        System.out.println("Tracker for the " + team.getTeamName());
-        System.out.println("\t1. Load / save");
-        System.out.println("\t2. Manage");
-        System.out.println("\t3. Print");
-        System.out.println("\t0. Exit and save");
         while(true) {
+            System.out.println("Tracker for the " + team.getTeamName());
+            System.out.println("\t1. Load / save");
+            System.out.println("\t2. Manage");
+            System.out.println("\t3. Print");
+            System.out.println("\t0. Exit and save");
             int option = getInput(0, 3, "Enter your option");
             if(option == 0) {
 
@@ -220,6 +331,8 @@ public class Main {
                     TimeUnit.SECONDS.sleep(1);
                     System.out.println("Roster saved successfully!");
                 }
+                stopWatching();
+                team.compactJournal();
                 TimeUnit.SECONDS.sleep(1);
                 System.out.println("Exited program successfully!");
                 System.exit(0);
@@ -241,14 +354,509 @@ public class Main {
     }
 
 
+    /**
+     * Runs commands without any menus, prompts or pauses, so the tracker can be driven by scripts.
+     * Every change is recorded in the journal, so the next run picks up where this one stopped.
+     *
+     * @param args one command and its arguments
+     * @return the exit code of the command, or 1 if the journal could not be opened
+     */
+    public static int runHeadless(String[] args) {
+        // running without the journal would lose every change, and the next run could not tell
+        if(!team.openJournal(JOURNAL_FILE_PATH, SNAPSHOT_FILE_PATH)) {
+            return 1;
+        }
+        int code = runCommand(args);
+        stopWatching();
+        team.syncJournal();
+        return code;
+    }
+
+    /**
+     * Runs one headless command.
+     *
+     * @param words the command followed by its arguments
+     * @return 0 if the command worked, 1 if it failed and 2 if it was not understood
+     */
+    public static int runCommand(String[] words) {
+        if(words.length == 0) {
+            return 0;
+        }
+        String[] args = Arrays.copyOfRange(words, 1, words.length);
+
+        switch(words[0]) {
+            case "load-roster":
+                return status(team.loadRosterStatistics(argument(args, 0, ROSTER_FILE_PATH)));
+            case "save-roster":
+                return status(team.saveRosterStatistics(argument(args, 0, ROSTER_FILE_PATH)));
+            case "load-match":
+                if(args.length != 1) {
+                    return usage("load-match FILE");
+                }
+                int slash = Math.max(args[0].lastIndexOf('/'), args[0].lastIndexOf('\\')) + 1;
+                return status(team.loadMatchStatistics(args[0].substring(0, slash), args[0].substring(slash)));
+            case "load-matches":
+                String folder = argument(args, 0, MATCH_FILE_PATH);
+                if(!folder.endsWith("/")) {
+                    folder += "/";
+                }
+                return status(team.loadAllMatchStatistics(folder, argument(args, 1, ROSTER_FILE_PATH)));
+            case "load-snapshot":
+                return status(team.loadSnapshot(argument(args, 0, SNAPSHOT_FILE_PATH)));
+            case "save-snapshot":
+                return status(team.saveSnapshot(argument(args, 0, SNAPSHOT_FILE_PATH)));
+            case "export":
+                return export(args);
+            case "top":
+                return top(args);
+            case "show":
+                if(args.length != 1) {
+                    return usage("show NAME");
+                }
+                return show(args[0]);
+            case "splits":
+                return splits(args);
+            case "roster":
+                team.displayWholeRoster();
+                return 0;
+            case "matches":
+                if(args.length == 0) {
+                    team.displayAllMatches();
+                } else if(args.length == 2 && args[0].equals("vs")) {
+                    team.displayMatchesAgainst(args[1]);
+                } else if(args.length == 2 && args[0].equals("stage")) {
+                    team.displayPlayoffMatches(args[1]);
+                } else {
+                    return usage("matches [vs OPPONENT | stage BRACKET_STAGE]");
+                }
+                return 0;
+            case "record":
+                if(args.length > 1) {
+                    return usage("record [OPPONENT]");
+                }
+                team.displaySeasonRecord(args.length == 1 ? args[0] : null);
+                return 0;
+            case "leaders":
+                team.displayLeaders(args.length > 0 ? parseCount(args[0]) : 5);
+                return 0;
+            case "organize-roster":
+                team.organizeRoster();
+                return 0;
+            case "organize-matches":
+                team.organizeMatches();
+                return 0;
+            case "reset":
+                team.resetStatistics();
+                return 0;
+            case "trade":
+                if(args.length != 2) {
+                    return usage("trade GET_PLAYER GIVE_PLAYER");
+                }
+                return status(team.tradePlayer(EXTRA_PLAYER_FILE_PATH, args[0] + ".csv", args[1]));
+            case "hire":
+                if(args.length != 1) {
+                    return usage("hire COACH");
+                }
+                return status(team.hireCoach(EXTRA_COACH_FILE_PATH, args[0] + ".csv"));
+            case "fire":
+                if(args.length != 1) {
+                    return usage("fire COACH");
+                }
+                return status(team.fireCoach(args[0]));
+            case "what-if":
+                return whatIf(args);
+            case "best-trades":
+                return bestTrades(args);
+            case "league":
+                return league(args);
+            case "watch":
+                return watch(args);
+            case "serve":
+                return serve(args);
+            case "batch":
+                return batch(argument(args, 0, "-"));
+            case "metrics":
+                team.getMetrics().display();
+                return 0;
+            default:
+                System.out.println("Unknown command: " + words[0]);
+                return usage("load-roster|save-roster|load-match|load-matches|load-snapshot|save-snapshot|export|top|show|splits"
+                        + "|roster|matches|record|leaders|organize-roster|organize-matches|reset|trade|hire|fire|what-if|best-trades|league|watch|serve|batch|metrics");
+        }
+    }
+
+    /**
+     * Tries out trades, hires and fires together and prints what the team would look like, such as
+     * "what-if trade LeBron_James Nate_Johnson fire Joe_Smith". With --commit the changes are made.
+     */
+    private static int whatIf(String[] args) {
+        boolean commit = args.length > 0 && args[0].equals("--commit");
+        RosterTransaction tx = team.beginTransaction();
+        System.out.println("Before: " + tx.getProjection());
+
+        for (int i = commit ? 1 : 0; i < args.length; i++) {
+            boolean staged;
+            if(args[i].equals("trade") && i + 2 < args.length) {
+                staged = tx.trade(EXTRA_PLAYER_FILE_PATH, args[i + 1] + ".csv", args[i + 2]);
+                i += 2;
+            } else if(args[i].equals("hire") && i + 1 < args.length) {
+                staged = tx.hire(EXTRA_COACH_FILE_PATH, args[i + 1] + ".csv");
+                i++;
+            } else if(args[i].equals("fire") && i + 1 < args.length) {
+                staged = tx.fire(args[i + 1]);
+                i++;
+            } else {
+                tx.discard();
+                return usage("what-if [--commit] (trade GET_PLAYER GIVE_PLAYER | hire COACH | fire NAME)...");
+            }
+            if(!staged) {
+                tx.discard();
+                return 1;
+            }
+        }
+        System.out.println("After:  " + tx.getProjection());
+
+        if(!commit) {
+            tx.discard();
+            return 0;
+        }
+        return status(tx.commit());
+    }
+
+    /**
+     * Prints the single or double trades with the extraPlayers folder that add the most points plus
+     * rebounds per game, such as "best-trades 5 30" for the best 5 with nobody older than 30.
+     */
+    private static int bestTrades(String[] args) {
+        String usage = "best-trades [N [MAX_AGE [1|2]]]";
+        int n = args.length > 0 ? parseCount(args[0]) : 5;
+        int maxAge = args.length > 1 ? parseCount(args[1]) : Integer.MAX_VALUE;
+        int maxTrades = args.length > 2 ? parseCount(args[2]) : 2;
+        if(args.length > 3 || n < 0 || maxAge < 0 || maxTrades < 1 || maxTrades > 2) {
+            return usage(usage);
+        }
+
+        int place = 1;
+        for (TradeSearch.Trade trade : new TradeSearch(team, EXTRA_PLAYER_FILE_PATH, maxAge).search(n, maxTrades)) {
+            System.out.printf("%d,%+.1f,%.1f,%s\n", place++, Roster.round(trade.getGain()), Roster.round(trade.getProjected()), trade);
+        }
+        return 0;
+    }
+
+    /**
+     * Prints the leaders of one category, such as "top ppg 10".
+     */
+    private static int top(String[] args) {
+        if(args.length < 1 || args.length > 2) {
+            return usage("top CATEGORY [N]");
+        }
+        Category category = Category.find(args[0]);
+        int n = args.length == 2 ? parseCount(args[1]) : 10;
+        if(category == null || n < 0) {
+            return usage("top CATEGORY [N]");
+        }
+
+        int place = 1;
+        for (Roster r : team.getLeaders(category, n)) {
+            System.out.printf("%d,%s,%.1f\n", place++, r.getName(), Roster.round(category.score(r)));
+        }
+        return 0;
+    }
+
+    /**
+     * Prints one roster member.
+     */
+    private static int show(String name) {
+        if(team.getRoster(name) == null) {
+            System.out.println("Sorry, \"" + name + "\" does not exist!");
+            return 1;
+        }
+        team.displayRoster(name);
+        return 0;
+    }
+
+    /**
+     * Prints a player's split over their last N games or the games between two days, optionally
+     * only at home or away, such as "splits RJ_Barrett 10 home" or "splits RJ_Barrett 2024-01-01 2024-01-31".
+     * With only a name, every split is shown.
+     */
+    private static int splits(String[] args) {
+        String usage = "splits NAME [N | FROM TO] [home|away]";
+        if(args.length < 1 || args.length > 4) {
+            return usage(usage);
+        }
+        if(!(team.getRoster(args[0]) instanceof Player)) {
+            System.out.println("Sorry, \"" + args[0] + "\" is not a player!");
+            return 1;
+        }
+        if(args.length == 1) {
+            team.displaySplits(args[0]);
+            return 0;
+        }
+
+        int last = args.length - 1;
+        GameLog.Venue venue = GameLog.Venue.find(args[last]);
+        if(venue == GameLog.Venue.UNKNOWN) {
+            return usage(usage);
+        }
+        if(venue != null) {
+            last--;
+        }
+
+        GameLog.Split split;
+        try {
+            if(last == 0) {
+                split = team.getGameLog().getGamesBetween(args[0], null, null, venue);
+            } else if(last == 1 && parseCount(args[1]) >= 0) {
+                split = team.getGameLog().getLastGames(args[0], parseCount(args[1]), venue);
+            } else if(last == 2) {
+                split = team.getGameLog().getGamesBetween(args[0], LocalDate.parse(args[1]), LocalDate.parse(args[2]), venue);
+            } else {
+                return usage(usage);
+            }
+        } catch (DateTimeParseException ex) {
+            return usage(usage);
+        }
+        System.out.println(args[0] + ": " + split);
+        return 0;
+    }
+
+    /**
+     * Writes the roster as CSV, JSON, JSON lines or binary, to a file or to the console when the
+     * file is "-", such as "export jsonl league.jsonl".
+     */
+    private static int export(String[] args) {
+        RosterExporter.Format format = RosterExporter.Format.find(argument(args, 0, "csv"));
+        String filePath = argument(args, 1, "-");
+        if(format == null || args.length > 2) {
+            return usage("export [csv|json|jsonl|binary] [FILE|-]");
+        }
+
+        try {
+            if(filePath.equals("-")) {
+                team.exportRoster(System.out, format);
+            } else {
+                try (OutputStream out = new FileOutputStream(filePath)) {
+                    team.exportRoster(out, format);
+                }
+            }
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + filePath + ": " + iox.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Loads and shows the whole league, such as "league load" to load a league folder with one sub folder
+     * of match files per team, "league load-match TEAM FILE", "league standings" or "league leaders 3".
+     * Every sub folder of a loaded league folder joins the league as a team.
+     */
+    private static int league(String[] args) {
+        String usage = "league (load [FOLDER] | load-match TEAM FILE | standings | leaders [N])";
+        if(args.length == 0) {
+            return usage(usage);
+        }
+
+        switch(args[0]) {
+            case "load":
+                String folder = argument(args, 1, LEAGUE_FILE_PATH);
+                File[] teamFolders = new File(folder).listFiles(File::isDirectory);
+                if(teamFolders != null) {
+                    for (File teamFolder : teamFolders) {
+                        league.addTeam(teamFolder.getName());
+                    }
+                }
+                return status(league.loadAllMatchStatistics(folder) >= 0);
+            case "load-match":
+                if(args.length != 3) {
+                    return usage(usage);
+                }
+                int slash = Math.max(args[2].lastIndexOf('/'), args[2].lastIndexOf('\\')) + 1;
+                return status(league.loadMatchStatistics(args[1], args[2].substring(0, slash), args[2].substring(slash)));
+            case "standings":
+                league.displayStandings();
+                return 0;
+            case "leaders":
+                int n = args.length > 1 ? parseCount(args[1]) : 5;
+                if(n < 0) {
+                    return usage(usage);
+                }
+                league.displayLeaders(n);
+                return 0;
+            default:
+                return usage(usage);
+        }
+    }
+
+    /**
+     * Loads match files as they are dropped into the matches folder, for a number of seconds or
+     * until the program is stopped.
+     */
+    private static int watch(String[] args) {
+        long seconds = args.length > 0 ? parseCount(args[0]) : 0;
+        if(seconds < 0) {
+            return usage("watch [SECONDS]");
+        }
+
+        startWatching();
+        if(watcher == null) {
+            return 1;
+        }
+        // sync what was loaded if the program is stopped from outside
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stopWatching();
+            team.syncJournal();
+        }));
+
+        try {
+            if(seconds > 0) {
+                TimeUnit.SECONDS.sleep(seconds);
+            } else {
+                Thread.currentThread().join();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /**
+     * Serves the team's statistics over HTTP until the program is stopped, while loading match
+     * files dropped into the matches folder.
+     */
+    private static int serve(String[] args) {
+        int port = args.length > 0 ? parseCount(args[0]) : SERVER_PORT;
+        if(port < 0 || port > 65535) {
+            return usage("serve [PORT]");
+        }
+
+        // without this the JDK server holds small responses back waiting on the client's ACK, adding ~40 ms to every request
+        if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        StatsServer server;
+        try {
+            server = new StatsServer(team, port);
+        } catch (IOException iox) {
+            System.out.println("Problem opening port " + port + ": " + iox.getMessage());
+            return 1;
+        }
+        server.start();
+        System.out.println("Serving the " + team.getTeamName() + " on http://localhost:" + server.getPort() + "/roster");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        return watch(new String[0]);
+    }
+
+    /**
+     * Runs one command per line from a file, or from the console when the file is "-". Blank lines
+     * and lines starting with # are skipped, and arguments with spaces can be wrapped in quotes.
+     *
+     * @return 0 if every command worked, otherwise the exit code of the last command that did not
+     */
+    private static int batch(String filePath) {
+        int code = 0;
+        try (Reader source = filePath.equals("-") ? new InputStreamReader(System.in) : new FileReader(filePath);
+             BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] words = split(line);
+                if(words.length > 0 && words[0].equals("batch")) {
+                    System.out.println("Batches cannot run other batches");
+                    code = 2;
+                    continue;
+                }
+                int result = runCommand(words);
+                if(result != 0) {
+                    code = result;
+                }
+            }
+        } catch (IOException iox) {
+            System.out.println("Problem reading " + filePath + ": " + iox.getMessage());
+            return 1;
+        }
+        return code;
+    }
+
+    /**
+     * Splits a command line into words, keeping text in double quotes together.
+     */
+    private static String[] split(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        for (char c : line.toCharArray()) {
+            if(c == '"') {
+                quoted = !quoted;
+                started = true;
+            } else if(Character.isWhitespace(c) && !quoted) {
+                if(started) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    started = false;
+                }
+            } else {
+                word.append(c);
+                started = true;
+            }
+        }
+        if(started) {
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static String argument(String[] args, int index, String fallback) {
+        return index < args.length ? args[index] : fallback;
+    }
+
+    private static int parseCount(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static int status(boolean worked) {
+        return worked ? 0 : 1;
+    }
+
+    private static int usage(String usage) {
+        System.out.println("Usage: " + usage);
+        return 2;
+    }
+
+
     // MAIN METHOD //
     public static void main(String[] args) throws InterruptedException {
+        team.getMetrics().register(team.getTeamName());
+        if(args.length > 0) {
+            System.exit(runHeadless(args));
+        }
+
         System.out.println("NOTE: when you are inputting the name of a player, it is case sensitive and include the \"_\"\n");
-        System.out.println("Do you want to automatically load the roster for the " + team.getTeamName() + "?");
-        System.out.print("If yes please enter \"y\", otherwise enter any key to continue\n> ");
-        String input = scan.nextLine();
-        if(input.equals("y")) {
-            team.loadRosterStatistics(ROSTER_FILE_PATH);
+
+        // pick up where the last session left off, if it recorded anything
+        if(!team.openJournal(JOURNAL_FILE_PATH, SNAPSHOT_FILE_PATH)) {
+            System.out.println("Could not open the journal, exiting so nothing is lost");
+            System.exit(1);
+        }
+        if(team.getRoster().isEmpty()) {
+            System.out.println("Do you want to automatically load the roster for the " + team.getTeamName() + "?");
+            System.out.print("If yes please enter \"y\", otherwise enter any key to continue\n> ");
+            String input = scan.nextLine();
+            if(input.equals("y")) {
+                team.loadRosterStatistics(ROSTER_FILE_PATH);
+            }
+        } else {
+            System.out.println("Restored the roster for the " + team.getTeamName() + " from the last session");
         }
         mainMenu();
     }
@@ -0,0 +1,414 @@
+package tracker;
+
+/**
+ * The BoxScore class is designed to represent the parsed contents of one match file
+ * before it is applied to a team. It consists of the match header (regular season or
+ * playoff, the opponent, both scores and the bracket stage) and the stat line of every
+ * player listed in the file. Parsing a box score does not touch the team, so many files
+ * can be parsed at the same time and then applied one after another.
+ *
+ * The header may end with the day the match was played (such as 2024-01-31) and "home" or
+ * "away". A file without a day is taken to have been played on the day it was last changed.
+ * A box score parsed from a file remembers which file it came from, so the file can be recognized
+ * as already loaded if the program stops before it is moved to the trash.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+public class BoxScore {
+    // CONSTANTS //
+
+    // points, assists, rebounds, field goal % and three point %
+    public static final int STATS_PER_PLAYER = 5;
+
+    // each parsing thread keeps its own tokenizer so the buffer is reused between files
+    private static final ThreadLocal<CsvTokenizer> TOKENIZERS = ThreadLocal.withInitial(CsvTokenizer::new);
+
+
+    // FIELDS //
+    private final boolean isPlayoff;
+    private final String opponentTeam;
+    private final int yourScore;
+    private final int opponentScore;
+    private final String bracketStage;
+    private final LocalDate date;
+    private final boolean isDated;
+    private final GameLog.Venue venue;
+    private final String[] playerNames;
+    private final double[] playerStats;
+    private final int playerCount;
+    private final String source;
+    private final boolean isCounted;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a box score from a match header and the stat lines of the players. The stats of
+     * player i are stored at playerStats[i * STATS_PER_PLAYER] onwards, with zeros for the field goal
+     * and three point percentages in regular season lines.
+     *
+     * @param isPlayoff
+     * @param opponentTeam
+     * @param yourScore
+     * @param opponentScore
+     * @param bracketStage
+     * @param playerNames
+     * @param playerStats
+     * @param playerCount
+     */
+    public BoxScore(boolean isPlayoff, String opponentTeam, int yourScore, int opponentScore, String bracketStage, String[] playerNames, double[] playerStats, int playerCount) {
+        this(isPlayoff, opponentTeam, yourScore, opponentScore, bracketStage, playerNames, playerStats, playerCount, null, GameLog.Venue.UNKNOWN);
+    }
+
+    /**
+     * Constructs a box score from a match header, including the day and venue, and the stat lines of the players.
+     *
+     * @param isPlayoff
+     * @param opponentTeam
+     * @param yourScore
+     * @param opponentScore
+     * @param bracketStage
+     * @param playerNames
+     * @param playerStats
+     * @param playerCount
+     * @param date the day the match was played, or null if it is not known
+     * @param venue where the match was played
+     */
+    public BoxScore(boolean isPlayoff, String opponentTeam, int yourScore, int opponentScore, String bracketStage, String[] playerNames, double[] playerStats, int playerCount,
+                    LocalDate date, GameLog.Venue venue) {
+        this(isPlayoff, opponentTeam, yourScore, opponentScore, bracketStage, playerNames, playerStats, playerCount, date, venue, null);
+    }
+
+    /**
+     * Constructs a box score read from a match file.
+     *
+     * @param isPlayoff
+     * @param opponentTeam
+     * @param yourScore
+     * @param opponentScore
+     * @param bracketStage
+     * @param playerNames
+     * @param playerStats
+     * @param playerCount
+     * @param date the day the match was played, or null if it is not known
+     * @param venue where the match was played
+     * @param source the match file as given by sourceOf, or null if it did not come from a file
+     */
+    public BoxScore(boolean isPlayoff, String opponentTeam, int yourScore, int opponentScore, String bracketStage, String[] playerNames, double[] playerStats, int playerCount,
+                    LocalDate date, GameLog.Venue venue, String source) {
+        this(isPlayoff, opponentTeam, yourScore, opponentScore, bracketStage, playerNames, playerStats, playerCount, date, venue, source, true, date != null);
+    }
+
+    /**
+     * Constructs a box score whose match may already have been counted from the opponent's match
+     * file, and whose day may have been taken from when its file was last changed.
+     */
+    BoxScore(boolean isPlayoff, String opponentTeam, int yourScore, int opponentScore, String bracketStage, String[] playerNames, double[] playerStats, int playerCount,
+             LocalDate date, GameLog.Venue venue, String source, boolean isCounted, boolean isDated) {
+        this.isPlayoff = isPlayoff;
+        this.opponentTeam = opponentTeam;
+        this.yourScore = yourScore;
+        this.opponentScore = opponentScore;
+        this.bracketStage = bracketStage;
+        this.playerNames = playerNames;
+        this.playerStats = playerStats;
+        this.playerCount = playerCount;
+        this.date = date;
+        this.isDated = isDated;
+        this.venue = venue;
+        this.source = source;
+        this.isCounted = isCounted;
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access whether the match was a playoff match.
+     *
+     * @return true if the match was a playoff match
+     */
+    public boolean isPlayoff() {
+        return isPlayoff;
+    }
+
+    /**
+     * Access the name of the opponent team.
+     *
+     * @return the opponent team
+     */
+    public String getOpponentTeam() {
+        return opponentTeam;
+    }
+
+    /**
+     * Access the number of points your team scored.
+     *
+     * @return your score
+     */
+    public int getYourScore() {
+        return yourScore;
+    }
+
+    /**
+     * Access the number of points the opponent team scored.
+     *
+     * @return the opponent score
+     */
+    public int getOpponentScore() {
+        return opponentScore;
+    }
+
+    /**
+     * Access the stage of the playoff bracket the match was played in.
+     *
+     * @return the bracket stage, or null for a regular season match
+     */
+    public String getBracketStage() {
+        return bracketStage;
+    }
+
+    /**
+     * Access the day the match was played.
+     *
+     * @return the day, or null if it is not known
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Access whether the day the match was played was written in its match file, rather than
+     * taken from when the file was last changed.
+     *
+     * @return true if the match file gave the day
+     */
+    public boolean isDated() {
+        return isDated;
+    }
+
+    /**
+     * Access where the match was played.
+     *
+     * @return home, away or unknown
+     */
+    public GameLog.Venue getVenue() {
+        return venue;
+    }
+
+    /**
+     * Access the match file the box score was read from.
+     *
+     * @return the file as given by sourceOf, or null if it did not come from a file
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Access whether applying the box score counts the match itself, as well as the player lines.
+     *
+     * @return false if the match was already counted from the opponent's match file
+     */
+    public boolean isCounted() {
+        return isCounted;
+    }
+
+    /**
+     * Access whether your team won the match.
+     *
+     * @return true if your score was higher
+     */
+    public boolean isWin() {
+        return yourScore - opponentScore > 0;
+    }
+
+    /**
+     * Access the number of players listed in the match file.
+     *
+     * @return the number of players
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Access the name of a player listed in the match file.
+     *
+     * @param index the position of the player in the file
+     * @return the name
+     */
+    public String getPlayerName(int index) {
+        return playerNames[index];
+    }
+
+    /**
+     * Access one stat of a player listed in the match file.
+     *
+     * @param index the position of the player in the file
+     * @param stat 0 for points, 1 for assists, 2 for rebounds, 3 for field goal % and 4 for three point %
+     * @return the stat
+     */
+    public double getPlayerStat(int index, int stat) {
+        return playerStats[index * STATS_PER_PLAYER + stat];
+    }
+
+    /**
+     * Access the number of rows the match file had, including the header.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return playerCount + 1;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Creates the match this box score describes.
+     *
+     * @return a Match, or a PlayoffMatch if it was a playoff match
+     */
+    public Match toMatch() {
+        if(isPlayoff) {
+            return new PlayoffMatch(opponentTeam, yourScore, opponentScore, bracketStage, venue);
+        }
+        return new Match(opponentTeam, yourScore, opponentScore, venue);
+    }
+
+    /**
+     * Creates the same box score from the opponent's point of view: the opponent becomes the given
+     * team, the scores are swapped and home becomes away. It has no player lines, since the match file
+     * only lists the players of the team it was written for.
+     *
+     * @param teamName the team this box score was written for
+     * @return the opponent's box score
+     */
+    public BoxScore forOpponent(String teamName) {
+        return new BoxScore(isPlayoff, teamName, opponentScore, yourScore, bracketStage, new String[0], new double[0], 0, date, venue.opposite(), source, true, isDated);
+    }
+
+    /**
+     * Creates the same box score for a match that was already counted from the opponent's match file,
+     * so applying it only adds the player lines.
+     *
+     * @return the box score
+     */
+    public BoxScore withoutMatch() {
+        return new BoxScore(isPlayoff, opponentTeam, yourScore, opponentScore, bracketStage, playerNames, playerStats, playerCount, date, venue, source, false, isDated);
+    }
+
+    /**
+     * Works out a key that is the same for a match whichever team's match file it was read from.
+     * Only what is written in the file goes into it, so a day taken from when the file was last
+     * changed is left out.
+     *
+     * @param teamName the team this box score was written for
+     * @return the key
+     */
+    public String getGameKey(String teamName) {
+        boolean first = teamName.compareTo(opponentTeam) <= 0;
+        return (isDated ? date.toString() : "") + '|' + (first ? teamName : opponentTeam) + '|' + (first ? opponentTeam : teamName)
+                + '|' + (first ? yourScore : opponentScore) + '-' + (first ? opponentScore : yourScore) + '|' + (isPlayoff ? bracketStage : "");
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Parses a match file into a box score.
+     *
+     * @param file the match file
+     * @return the box score
+     * @throws IOException if the file could not be read
+     */
+    public static BoxScore parse(File file) throws IOException {
+        String source = sourceOf(file);
+        CsvTokenizer csv = TOKENIZERS.get();
+        csv.reset(file);
+        try {
+            if(!csv.nextLine()) {
+                throw new IOException(file.getName() + " is empty");
+            }
+            boolean isPlayoff = csv.nextFieldEquals("playoff");
+            String opponentTeam = csv.nextString();
+            int yourScore = csv.nextInt();
+            int opponentScore = csv.nextInt();
+            String bracketStage = isPlayoff ? csv.nextString() : null;
+            LocalDate date = csv.hasNextField() ? parseDate(csv.nextString(), file) : null;
+            boolean isDated = date != null;
+            GameLog.Venue venue = csv.hasNextField() ? GameLog.Venue.find(csv.nextString()) : GameLog.Venue.UNKNOWN;
+            if(venue == null) {
+                throw new IOException(file.getName() + " has a venue that is not home or away");
+            }
+            if(date == null) {
+                date = Instant.ofEpochMilli(file.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate();
+            }
+
+            String[] playerNames = new String[8];
+            double[] playerStats = new double[playerNames.length * STATS_PER_PLAYER];
+            int playerCount = 0;
+
+            while(csv.nextLine()) {
+                if(playerCount == playerNames.length) {
+                    playerNames = Arrays.copyOf(playerNames, playerCount * 2);
+                    playerStats = Arrays.copyOf(playerStats, playerNames.length * STATS_PER_PLAYER);
+                }
+
+                playerNames[playerCount] = csv.nextString();
+                int offset = playerCount * STATS_PER_PLAYER;
+                for (int i = 0; i < STATS_PER_PLAYER && csv.hasNextField(); i++) {
+                    playerStats[offset + i] = csv.nextDouble();
+                }
+                playerCount++;
+            }
+
+            return new BoxScore(isPlayoff, opponentTeam, yourScore, opponentScore, bracketStage, playerNames, playerStats, playerCount, date, venue, source, true, isDated);
+        } finally {
+            csv.close();
+        }
+    }
+
+    /**
+     * Describes a match file by its path, when it was last changed and its size, so a new file
+     * dropped in with the same name is not mistaken for one that was already loaded.
+     *
+     * @param file the match file
+     * @return the description
+     */
+    public static String sourceOf(File file) {
+        return file.getPath() + "@" + file.lastModified() + "+" + file.length();
+    }
+
+    /**
+     * Turns a description made by sourceOf back into the match file.
+     *
+     * @param source the description
+     * @return the match file
+     */
+    public static File fileOf(String source) {
+        return new File(source.substring(0, source.lastIndexOf('@')));
+    }
+
+    /**
+     * Parses the day in a match header, leaving it unknown when the field is empty.
+     */
+    private static LocalDate parseDate(String text, File file) throws IOException {
+        if(text.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException ex) {
+            throw new IOException(file.getName() + " has a date that is not written like 2024-01-31");
+        }
+    }
+}
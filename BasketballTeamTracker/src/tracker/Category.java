@@ -0,0 +1,123 @@
+package tracker;
+
+/**
+ * The Category enum lists the statistics the team keeps leaderboards for. Players are ranked
+ * by their points, assists and rebounds per game, their playoff shooting percentages and their
+ * form (the same three averages over their last 5 and last 10 games and weighted towards their
+ * latest games), and coaches are ranked by their win percentage. Scores are exact averages, not rounded ones, so
+ * two members who display the same rounded average are still told apart.
+ */
+
+public enum Category {
+    PPG("ppg", StatTable.POINTS),
+    APG("apg", StatTable.ASSISTS),
+    RPG("rpg", StatTable.REBOUNDS),
+    FIELD_GOAL("fg%", StatTable.PLAYOFF_FIELD_GOAL),
+    THREE_POINT("3p%", StatTable.PLAYOFF_THREE_POINT),
+    WIN_PERCENTAGE("win%", -1),
+    LAST_5_PPG("ppg-l5", 0, Form.SHORT_WINDOW),
+    LAST_5_APG("apg-l5", 1, Form.SHORT_WINDOW),
+    LAST_5_RPG("rpg-l5", 2, Form.SHORT_WINDOW),
+    LAST_10_PPG("ppg-l10", 0, Form.LONG_WINDOW),
+    LAST_10_APG("apg-l10", 1, Form.LONG_WINDOW),
+    LAST_10_RPG("rpg-l10", 2, Form.LONG_WINDOW),
+    WEIGHTED_PPG("ppg-ewma", 0, Form.WEIGHTED),
+    WEIGHTED_APG("apg-ewma", 1, Form.WEIGHTED),
+    WEIGHTED_RPG("rpg-ewma", 2, Form.WEIGHTED);
+
+    // FIELDS //
+    private final String label;
+    private final int column;
+    private final int window;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a category given its short label and the stat table column it ranks.
+     *
+     * @param label
+     * @param column the stat table column, or -1 for coaches
+     */
+    Category(String label, int column) {
+        this(label, column, -1);
+    }
+
+    /**
+     * Constructs a form category given its short label, the stat it ranks and how far back it looks.
+     *
+     * @param label
+     * @param column the stat table column, -1 for coaches, or the stat for a form category
+     * @param window the number of games, Form.WEIGHTED for the weighted average, or -1 for an all-time category
+     */
+    Category(String label, int column, int window) {
+        this.label = label;
+        this.column = column;
+        this.window = window;
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Accesses the short label of the category, such as "ppg".
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Checks if a roster member is ranked in this category.
+     *
+     * @param r the roster member
+     * @return true if players are ranked and r is a player, or coaches are ranked and r is a coach
+     */
+    public boolean ranks(Roster r) {
+        return column == -1 ? r instanceof Coach : r instanceof Player;
+    }
+
+    /**
+     * Works out the score a roster member is ranked by in this category.
+     *
+     * @param r the roster member, who must be ranked in this category
+     * @return the exact average
+     */
+    public double score(Roster r) {
+        if(column == -1) {
+            Coach coach = (Coach) r;
+            return coach.getMatchesAttended() == 0 ? 0 : coach.getWins() * 100.0 / coach.getMatchesAttended();
+        }
+        Player player = (Player) r;
+        if(window == Form.SHORT_WINDOW) {
+            return player.getForm().getLastFive(column);
+        } else if(window == Form.LONG_WINDOW) {
+            return player.getForm().getLastTen(column);
+        } else if(window == Form.WEIGHTED) {
+            return player.getForm().getWeighted(column);
+        }
+        return player.getAverage(column);
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Finds a category from its short label or its name, ignoring case.
+     *
+     * @param text the label or name, such as "ppg" or "WIN_PERCENTAGE"
+     * @return the category, or null if none matches
+     */
+    public static Category find(String text) {
+        for (Category category : values()) {
+            if(category.label.equalsIgnoreCase(text) || category.name().equalsIgnoreCase(text)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -2,16 +2,17 @@ package tracker;
 
 /**
  * The Coach class is inherited from the Roster class and is designed to represent a coach
- * on the team's roster, which consists of two unique fields: the coach's overall win percentage
- * and their playoff win percentage. This class inherits all methods from the Roster class.
+ * on the team's roster, which consists of two unique fields: the coach's overall number of wins
+ * and their number of playoff wins, from which their win percentages are worked out. This class
+ * inherits all methods from the Roster class.
  * It performs operations such as modifying the win percentage. It also implements the abstract
  * methods in the Roster class.
  */
 
 public class Coach extends Roster implements Comparable<Coach>{
     // FIELDS //
-    private double winPercentage;
-    private double playoffWinPercentage;
+    private int wins;
+    private int playoffWins;
 
 
     // CONSTRUCTORS //
@@ -29,6 +30,57 @@ public class Coach extends Roster implements Comparable<Coach>{
     }
 
 
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the coach's overall win percentage.
+     *
+     * @return the win percentage rounded to one decimal place
+     */
+    public double getWinPercentage() {
+        return average(wins * 100.0, matchesAttended);
+    }
+
+    /**
+     * Access the coach's playoff win percentage.
+     *
+     * @return the playoff win percentage rounded to one decimal place
+     */
+    public double getPlayoffWinPercentage() {
+        return average(playoffWins * 100.0, playoffMatchesAttended);
+    }
+
+
+    /**
+     * Access the number of matches the coach has won.
+     *
+     * @return the wins
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Access the number of playoff matches the coach has won.
+     *
+     * @return the playoff wins
+     */
+    public int getPlayoffWins() {
+        return playoffWins;
+    }
+
+    /**
+     * Sets the number of wins directly, such as when restoring a snapshot.
+     *
+     * @param wins the wins
+     * @param playoffWins the playoff wins
+     */
+    void setWins(int wins, int playoffWins) {
+        this.wins = wins;
+        this.playoffWins = playoffWins;
+    }
+
+
     // INSTANCE METHODS //
 
     /**
@@ -39,14 +91,9 @@ public class Coach extends Roster implements Comparable<Coach>{
      */
     public void modifyWinPercentage(boolean matchWon, boolean isPlayoff) {
         if(matchWon) {
-            winPercentage = round((100 + winPercentage * matchesAttended) / (1 + matchesAttended));
-            if(isPlayoff) {
-                playoffWinPercentage = round((100 + playoffWinPercentage * playoffMatchesAttended) / (1 + playoffMatchesAttended));
-            }
-        } else {
-            winPercentage = round((winPercentage * matchesAttended) / (1 + matchesAttended));
+            wins++;
             if(isPlayoff) {
-                playoffWinPercentage = round((playoffWinPercentage * playoffMatchesAttended) / (1 + playoffMatchesAttended));
+                playoffWins++;
             }
         }
     }
@@ -56,8 +103,8 @@ public class Coach extends Roster implements Comparable<Coach>{
      */
     public void resetStatistics() {
         super.resetStatistics();
-        winPercentage = 0;
-        playoffWinPercentage = 0;
+        wins = 0;
+        playoffWins = 0;
     }
 
     /**
@@ -66,8 +113,18 @@ public class Coach extends Roster implements Comparable<Coach>{
      * @param stats the list of all the stats
      */
     void saveStatistics(String[] stats) {
-        winPercentage = Double.parseDouble(stats[5]);
-        playoffWinPercentage = Double.parseDouble(stats[6]);
+        saveStatistics(Double.parseDouble(stats[5]), Double.parseDouble(stats[6]));
+    }
+
+    /**
+     * Saves the win percentages, which are turned back into numbers of wins using the number of matches coached.
+     *
+     * @param winPercentage the overall win percentage
+     * @param playoffWinPercentage the playoff win percentage
+     */
+    public void saveStatistics(double winPercentage, double playoffWinPercentage) {
+        wins = (int) Math.round(winPercentage * matchesAttended / 100);
+        playoffWins = (int) Math.round(playoffWinPercentage * playoffMatchesAttended / 100);
     }
 
     /**
@@ -76,7 +133,7 @@ public class Coach extends Roster implements Comparable<Coach>{
      * @return the stats
      */
     public String listOutStats() {
-        return winPercentage + "," + playoffWinPercentage;
+        return getWinPercentage() + "," + getPlayoffWinPercentage();
     }
 
     /**
@@ -89,7 +146,7 @@ public class Coach extends Roster implements Comparable<Coach>{
         System.out.printf("Regular Season Win (%%) | Playoff Season Win (%%) \n");
         System.out.printf("-----------------------|------------------------\n");
         System.out.printf("> %-20s | > %-21s\n", matchesAttended + " games", playoffMatchesAttended + " games");
-        System.out.printf("> %-20s | > %-21s\n", winPercentage + "%", playoffWinPercentage + "%");
+        System.out.printf("> %-20s | > %-21s\n", getWinPercentage() + "%", getPlayoffWinPercentage() + "%");
     }
 
 
@@ -100,7 +157,7 @@ public class Coach extends Roster implements Comparable<Coach>{
      */
     @Override
     public String toString() {
-        return super.toString() + "Win percentage (regular / playoff): " + winPercentage + "% / " + playoffWinPercentage + "%";
+        return super.toString() + "Win percentage (regular / playoff): " + getWinPercentage() + "% / " + getPlayoffWinPercentage() + "%";
     }
 
     /**
@@ -111,6 +168,6 @@ public class Coach extends Roster implements Comparable<Coach>{
      */
     @Override
     public int compareTo(Coach other) {
-        return Double.compare(other.winPercentage,  this.winPercentage);
+        return Double.compare(other.getWinPercentage(), this.getWinPercentage());
     }
 }
@@ -0,0 +1,359 @@
+package tracker;
+
+/**
+ * The CsvTokenizer class is designed to read the comma separated files used by the tracker
+ * (rosters, coaches and matches) straight from bytes. It keeps one reusable buffer and
+ * parses whole numbers and decimals directly from it, so only the fields that are really
+ * needed as text (such as names) ever become Strings. A tokenizer can be pointed at a new
+ * file with reset() and reused, which keeps the buffer around between files.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class CsvTokenizer implements Closeable {
+    // CONSTANTS //
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // exact powers of ten, any decimal with at most 15 digits divided by one of these rounds exactly like Double.parseDouble
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+
+
+    // FIELDS //
+    private InputStream in;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfFile;
+    private boolean endOfLine;
+    private int fieldStart;
+    private int fieldEnd;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a tokenizer that is not reading anything yet.
+     */
+    public CsvTokenizer() {
+        buffer = new byte[BUFFER_SIZE];
+        endOfFile = true;
+        endOfLine = true;
+    }
+
+    /**
+     * Constructs a tokenizer that reads from a stream.
+     *
+     * @param in the stream to read
+     */
+    public CsvTokenizer(InputStream in) {
+        this();
+        reset(in);
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Starts reading a new stream, reusing the buffer. The previous stream is not closed.
+     *
+     * @param in the stream to read
+     */
+    public void reset(InputStream in) {
+        this.in = in;
+        position = 0;
+        limit = 0;
+        endOfFile = false;
+        endOfLine = true;
+    }
+
+    /**
+     * Starts reading a new file, reusing the buffer. The previous stream is closed.
+     *
+     * @param file the file to read
+     * @throws IOException if the file could not be opened
+     */
+    public void reset(File file) throws IOException {
+        close();
+        reset(new FileInputStream(file));
+    }
+
+    /**
+     * Moves to the start of the next line that is not blank, skipping whatever is left of the current line.
+     *
+     * @return true if there is another line
+     * @throws IOException if the stream could not be read
+     */
+    public boolean nextLine() throws IOException {
+        while(!endOfLine) {
+            readField();
+        }
+
+        while(true) {
+            if(position == limit && !fill()) {
+                return false;
+            }
+            byte b = buffer[position];
+            if(b != '\n' && b != '\r') {
+                endOfLine = false;
+                return true;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Checks if the current line has another field.
+     *
+     * @return true if there is another field on this line
+     */
+    public boolean hasNextField() {
+        return !endOfLine;
+    }
+
+    /**
+     * Skips the next field on the current line.
+     *
+     * @throws IOException if the stream could not be read
+     */
+    public void skipField() throws IOException {
+        readField();
+    }
+
+    /**
+     * Reads the next field as text.
+     *
+     * @return the field
+     * @throws IOException if the stream could not be read
+     */
+    public String nextString() throws IOException {
+        readField();
+        return fieldText();
+    }
+
+    /**
+     * Reads the next field and checks if it is exactly the given text, without creating a String.
+     *
+     * @param text the expected text, made of ASCII characters
+     * @return true if the field matched
+     * @throws IOException if the stream could not be read
+     */
+    public boolean nextFieldEquals(String text) throws IOException {
+        readField();
+        return fieldEquals(text);
+    }
+
+    /**
+     * Checks if the field that was just read is exactly the given text, without creating a String.
+     *
+     * @param text the expected text, made of ASCII characters
+     * @return true if the field matched
+     */
+    public boolean fieldEquals(String text) {
+        if(fieldEnd - fieldStart != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if(buffer[fieldStart + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next field as a whole number.
+     *
+     * @return the number
+     * @throws IOException if the stream could not be read
+     * @throws NumberFormatException if the field is not a whole number
+     */
+    public int nextInt() throws IOException {
+        readField();
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && buffer[i] == '-';
+        if(negative || (i < fieldEnd && buffer[i] == '+')) {
+            i++;
+        }
+        if(i == fieldEnd) {
+            throw new NumberFormatException("For input string: \"" + fieldText() + "\"");
+        }
+
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = buffer[i] - '0';
+            if(digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                return Integer.parseInt(fieldText());
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+
+        if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(fieldText());
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the next field as a decimal number. Plain decimals such as "76.7" are read
+     * directly from the buffer and give exactly the same value as Double.parseDouble.
+     * Anything else (exponents, very long numbers) falls back to Double.parseDouble.
+     *
+     * @return the number
+     * @throws IOException if the stream could not be read
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double nextDouble() throws IOException {
+        readField();
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && buffer[i] == '-';
+        if(negative || (i < fieldEnd && buffer[i] == '+')) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean point = false;
+        boolean anyDigit = false;
+        for (; i < fieldEnd; i++) {
+            byte b = buffer[i];
+            if(b == '.' && !point) {
+                point = true;
+            } else if(b >= '0' && b <= '9') {
+                anyDigit = true;
+                // leading zeros do not count towards the precision limit
+                if(mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if(point) {
+                    decimals++;
+                }
+            } else {
+                return Double.parseDouble(fieldText());
+            }
+        }
+
+        if(digits > MAX_EXACT_DIGITS || decimals >= POWERS_OF_TEN.length || !anyDigit) {
+            return Double.parseDouble(fieldText());
+        }
+
+        double value = mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Closes the stream being read.
+     *
+     * @throws IOException if the stream could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if(in != null) {
+            in.close();
+            in = null;
+        }
+        endOfFile = true;
+        endOfLine = true;
+    }
+
+    /**
+     * Finds the bounds of the next field on the current line and moves past its comma or line break.
+     *
+     * @throws IOException if the stream could not be read
+     */
+    private void readField() throws IOException {
+        if(endOfLine) {
+            fieldStart = fieldEnd = position;
+            return;
+        }
+
+        fieldStart = position;
+        while(true) {
+            if(position == limit) {
+                // keep the part of the field read so far when refilling
+                int read = position - fieldStart;
+                boolean more = fill(fieldStart);
+                fieldStart = position - read;
+                if(!more) {
+                    fieldEnd = position;
+                    endOfLine = true;
+                    return;
+                }
+            }
+
+            byte b = buffer[position];
+            if(b == ',') {
+                fieldEnd = position++;
+                return;
+            }
+            if(b == '\n' || b == '\r') {
+                fieldEnd = position++;
+                endOfLine = true;
+                return;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Reads more bytes into the buffer once everything in it has been used.
+     *
+     * @return true if more bytes were read
+     * @throws IOException if the stream could not be read
+     */
+    private boolean fill() throws IOException {
+        return fill(position);
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping everything from a given index onwards.
+     * The kept bytes are moved to the start of the buffer, which grows if they fill it.
+     *
+     * @param keepFrom the first index to keep
+     * @return true if more bytes were read
+     * @throws IOException if the stream could not be read
+     */
+    private boolean fill(int keepFrom) throws IOException {
+        if(endOfFile) {
+            return false;
+        }
+
+        int kept = limit - keepFrom;
+        if(kept == buffer.length) {
+            byte[] bigger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, keepFrom, bigger, 0, kept);
+            buffer = bigger;
+        } else {
+            System.arraycopy(buffer, keepFrom, buffer, 0, kept);
+        }
+        position -= keepFrom;
+        limit = kept;
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if(read <= 0) {
+            endOfFile = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Creates a String from the current field.
+     *
+     * @return the field as text
+     */
+    private String fieldText() {
+        return new String(buffer, fieldStart, fieldEnd - fieldStart, StandardCharsets.UTF_8);
+    }
+}
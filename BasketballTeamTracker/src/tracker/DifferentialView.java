@@ -0,0 +1,64 @@
+package tracker;
+
+/**
+ * The DifferentialView class is designed to show a list of matches from the highest point
+ * differential to the lowest without reordering the list itself, which stays in the order the
+ * matches were played. Matches are only ever added to the end of that list, so the view keeps
+ * the matches it has already sorted and only sorts the ones added since, merging them in. Matches
+ * with the same differential stay in the order they were played.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class DifferentialView<M extends Match> {
+    // FIELDS //
+    private List<M> sorted;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a view that has not sorted any matches yet.
+     */
+    DifferentialView() {
+        sorted = Collections.emptyList();
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Sorts a list of matches by point differential.
+     *
+     * @param matches every match in the order they were played, which must start with the matches this view saw last time
+     * @return a read-only list from the highest differential to the lowest
+     */
+    synchronized List<M> of(List<M> matches) {
+        int seen = sorted.size();
+        if(matches.size() == seen) {
+            return sorted;
+        }
+
+        ArrayList<M> added = new ArrayList<>(matches.subList(seen, matches.size()));
+        Collections.sort(added);
+
+        // merge, taking the older match first when the differentials are the same
+        ArrayList<M> merged = new ArrayList<>(matches.size());
+        int i = 0;
+        int j = 0;
+        while(i < seen && j < added.size()) {
+            if(added.get(j).compareTo(sorted.get(i)) < 0) {
+                merged.add(added.get(j++));
+            } else {
+                merged.add(sorted.get(i++));
+            }
+        }
+        merged.addAll(sorted.subList(i, seen));
+        merged.addAll(added.subList(j, added.size()));
+
+        sorted = Collections.unmodifiableList(merged);
+        return sorted;
+    }
+}
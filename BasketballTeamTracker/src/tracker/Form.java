@@ -0,0 +1,153 @@
+package tracker;
+
+/**
+ * The Form class is designed to track how a player has been playing lately, next to their
+ * all-time averages: their points, assists and rebounds over the last 5 and last 10 games, and
+ * an exponentially weighted average in which every new game counts for a fifth and older games
+ * count for less and less.
+ *
+ * The last 10 games are kept in a ring of primitives, along with the running sums of the last 5
+ * and last 10. Adding a game adds it to the sums and takes away the games that have just dropped
+ * out of each window, so nothing is ever summed again no matter how many games were played.
+ * When a game arrives late the form is worked out again, but only from the last REPLAY games:
+ * the windows never look further back, and a game that many back counts for less than a
+ * billionth of the weighted average, so the games before it are only counted.
+ * Every method holds the form's lock, so the sums and the number of games are always read together.
+ */
+
+import java.util.Arrays;
+
+public class Form {
+    // CONSTANTS //
+    public static final int SHORT_WINDOW = 5;
+    public static final int LONG_WINDOW = 10;
+
+    // how much each new game counts for in the weighted average
+    public static final double WEIGHT = 0.2;
+
+    // points, assists and rebounds
+    public static final int STATS = 3;
+
+    // stands in for the window of the weighted average, which has no fixed number of games
+    public static final int WEIGHTED = 0;
+
+    // how many of the latest games are added again when the form is worked out again
+    public static final int REPLAY = 100;
+
+
+    // FIELDS //
+    private final double[] ring;
+    private final double[] shortSums;
+    private final double[] longSums;
+    private final double[] weighted;
+    private int games;
+    private int earlierGames;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs the form of a player who has not played yet.
+     */
+    public Form() {
+        ring = new double[LONG_WINDOW * STATS];
+        shortSums = new double[STATS];
+        longSums = new double[STATS];
+        weighted = new double[STATS];
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of games the form has seen.
+     *
+     * @return the number of games
+     */
+    public synchronized int getGames() {
+        return earlierGames + games;
+    }
+
+    /**
+     * Access an average over the last 5 games, or every game if there have been fewer.
+     *
+     * @param stat 0 for points, 1 for assists and 2 for rebounds
+     * @return the unrounded average, or 0 if no games were played
+     */
+    public synchronized double getLastFive(int stat) {
+        return games == 0 ? 0 : shortSums[stat] / Math.min(games, SHORT_WINDOW);
+    }
+
+    /**
+     * Access an average over the last 10 games, or every game if there have been fewer.
+     *
+     * @param stat 0 for points, 1 for assists and 2 for rebounds
+     * @return the unrounded average, or 0 if no games were played
+     */
+    public synchronized double getLastTen(int stat) {
+        return games == 0 ? 0 : longSums[stat] / Math.min(games, LONG_WINDOW);
+    }
+
+    /**
+     * Access the exponentially weighted average, which starts at the first game's stat.
+     *
+     * @param stat 0 for points, 1 for assists and 2 for rebounds
+     * @return the unrounded average, or 0 if no games were played
+     */
+    public synchronized double getWeighted(int stat) {
+        return weighted[stat];
+    }
+
+    /**
+     * Counts games played before the first game added since the form was cleared, which were left
+     * out because they are too far back to change it. They only add to the number of games.
+     *
+     * @param earlierGames the number of games left out
+     */
+    synchronized void setEarlierGames(int earlierGames) {
+        this.earlierGames = earlierGames;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds the player's stats from their latest game.
+     *
+     * @param points the points scored
+     * @param assists the assists made
+     * @param rebounds the rebounds grabbed
+     */
+    public synchronized void add(double points, double assists, double rebounds) {
+        int slot = (games % LONG_WINDOW) * STATS;
+        // the game 5 back leaves the short window; it is still in the ring since the ring holds 10
+        int shortSlot = ((games + LONG_WINDOW - SHORT_WINDOW) % LONG_WINDOW) * STATS;
+
+        for (int stat = 0; stat < STATS; stat++) {
+            double value = stat == 0 ? points : stat == 1 ? assists : rebounds;
+            if(games >= SHORT_WINDOW) {
+                shortSums[stat] -= ring[shortSlot + stat];
+            }
+            if(games >= LONG_WINDOW) {
+                longSums[stat] -= ring[slot + stat];
+            }
+            shortSums[stat] += value;
+            longSums[stat] += value;
+            ring[slot + stat] = value;
+            weighted[stat] = games == 0 ? value : weighted[stat] + WEIGHT * (value - weighted[stat]);
+        }
+        games++;
+    }
+
+    /**
+     * Forgets every game.
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, 0);
+        Arrays.fill(shortSums, 0);
+        Arrays.fill(longSums, 0);
+        Arrays.fill(weighted, 0);
+        games = 0;
+        earlierGames = 0;
+    }
+}
@@ -0,0 +1,298 @@
+package tracker;
+
+/**
+ * The FreeAgentPool class is designed to keep the players or coaches available in a folder such
+ * as extraPlayers or extraCoaches in memory, so trades and hires can be tried out again and again
+ * without reading their files every time. The folder is read once, the first time the pool is
+ * used, and every file after that is only read again if it has changed.
+ *
+ * The pool holds at most a fixed number of files and lets go of the one used longest ago when it
+ * is full. A pool made without a capacity grows to hold every file in the folder whenever the
+ * folder is listed, so going through the whole folder, as a trade search does, never throws out
+ * files it is about to read again. Each file is kept as snapshot records, so every lookup hands
+ * out brand new roster members that can join a team without changing what is cached. A cached
+ * file is trusted for a second after its modification time was last checked, so a burst of
+ * lookups never touches the disk, while a file that is edited or replaced is picked up within a
+ * second.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class FreeAgentPool {
+    // CONSTANTS //
+
+    // the most files kept in memory at once, unless the folder holds more
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // how long a cached file is used before checking whether it has changed
+    private static final long TRUST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+
+    // FIELDS //
+    private final String folderPath;
+    private final boolean fitsFolder;
+    private int capacity;
+    private final LinkedHashMap<String, CachedFile> cache;
+    private boolean scanned;
+    private long hits;
+    private long misses;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a pool for a folder that holds the default number of files.
+     *
+     * @param folderPath the folder, ending in a separator like the other file paths
+     */
+    public FreeAgentPool(String folderPath) {
+        this(folderPath, DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * Constructs a pool for a folder.
+     *
+     * @param folderPath the folder, ending in a separator like the other file paths
+     * @param capacity the most files kept in memory at once
+     */
+    public FreeAgentPool(String folderPath, int capacity) {
+        this(folderPath, capacity, false);
+    }
+
+    /**
+     * Constructs a pool for a folder.
+     *
+     * @param folderPath the folder, ending in a separator like the other file paths
+     * @param capacity the most files kept in memory at once
+     * @param fitsFolder true if the capacity grows to the number of files in the folder
+     */
+    private FreeAgentPool(String folderPath, int capacity, boolean fitsFolder) {
+        this.folderPath = folderPath;
+        this.capacity = capacity;
+        this.fitsFolder = fitsFolder;
+        // access order, so the first entry is always the one used longest ago
+        cache = new LinkedHashMap<String, CachedFile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+                return size() > FreeAgentPool.this.capacity;
+            }
+        };
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the folder the pool reads from.
+     *
+     * @return the folder
+     */
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    /**
+     * Access the number of files in memory.
+     *
+     * @return the number of files
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Access the most files kept in memory at once.
+     *
+     * @return the number of files
+     */
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Access the number of lookups answered from memory.
+     *
+     * @return the number of lookups
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Access the number of lookups that had to read a file.
+     *
+     * @return the number of lookups
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Lists the free agent files in the folder as it is now.
+     *
+     * @return the file names in order, or an empty list if the folder does not exist
+     */
+    public List<String> getFileNames() {
+        File[] files = new File(folderPath).listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+        ArrayList<String> names = new ArrayList<>(files == null ? 0 : files.length);
+        if(files != null) {
+            for (File file : files) {
+                names.add(file.getName());
+            }
+            Collections.sort(names);
+            fitFolder(files.length);
+        }
+        return names;
+    }
+
+    /**
+     * Finds the roster members in one file of the folder.
+     *
+     * @param fileName the name of the file, such as "LeBron_James.csv"
+     * @return new roster members, in the order the file lists them, or null if the file does not exist or could not be read
+     */
+    public synchronized List<Roster> get(String fileName) {
+        if(!scanned) {
+            scan();
+        }
+
+        long now = System.nanoTime();
+        CachedFile entry = cache.get(fileName);
+        if(entry != null && now - entry.checkedAt < TRUST_NANOS) {
+            hits++;
+            return entry.toRoster();
+        }
+
+        File file = new File(folderPath + fileName);
+        if(!file.isFile()) {
+            cache.remove(fileName);
+            return null;
+        }
+        if(entry != null && entry.modified == file.lastModified() && entry.length == file.length()) {
+            entry.checkedAt = now;
+            hits++;
+            return entry.toRoster();
+        }
+
+        misses++;
+        entry = load(file);
+        if(entry == null) {
+            cache.remove(fileName);
+            return null;
+        }
+        cache.put(fileName, entry);
+        return entry.toRoster();
+    }
+
+    /**
+     * Forgets one file, such as once it has been moved to the trash.
+     *
+     * @param fileName the name of the file
+     */
+    public synchronized void invalidate(String fileName) {
+        cache.remove(fileName);
+    }
+
+    /**
+     * Forgets every file, so the folder is read again the next time the pool is used.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        scanned = false;
+    }
+
+    /**
+     * Reads every file in the folder, up to the capacity of the pool.
+     */
+    private void scan() {
+        scanned = true;
+        File[] files = new File(folderPath).listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+        if(files == null) {
+            return;
+        }
+        fitFolder(files.length);
+        for (int i = 0; i < files.length && cache.size() < capacity; i++) {
+            CachedFile entry = load(files[i]);
+            if(entry != null) {
+                cache.put(files[i].getName(), entry);
+            }
+        }
+    }
+
+    /**
+     * Grows the capacity to the number of files in the folder, if the pool fits its folder.
+     *
+     * @param files the number of files in the folder
+     */
+    private synchronized void fitFolder(int files) {
+        if(fitsFolder && files > capacity) {
+            capacity = files;
+        }
+    }
+
+    /**
+     * Reads one file into snapshot records.
+     *
+     * @param file the file
+     * @return the cached file, or null if it could not be read
+     */
+    private CachedFile load(File file) {
+        // read the modification time first, so a change made while reading is caught next time
+        long modified = file.lastModified();
+        long length = file.length();
+        ArrayList<byte[]> records = new ArrayList<>(1);
+
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            while(csv.nextLine()) {
+                Roster r = Team.readRoster(csv, csv.nextString());
+                if(r != null) {
+                    records.add(Snapshot.toRecord(r));
+                }
+            }
+        } catch (IOException iox) {
+            System.out.println("Problem reading " + file.getName() + ": " + iox.getMessage());
+            return null;
+        }
+        return new CachedFile(modified, length, System.nanoTime(), records);
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * One cached file: when it was last changed and its roster members as snapshot records.
+     */
+    private static final class CachedFile {
+        final long modified;
+        final long length;
+        long checkedAt;
+        final List<byte[]> records;
+
+        CachedFile(long modified, long length, long checkedAt, List<byte[]> records) {
+            this.modified = modified;
+            this.length = length;
+            this.checkedAt = checkedAt;
+            this.records = records;
+        }
+
+        List<Roster> toRoster() {
+            ArrayList<Roster> roster = new ArrayList<>(records.size());
+            for (byte[] record : records) {
+                roster.add(Snapshot.getMember(ByteBuffer.wrap(record)));
+            }
+            return roster;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package tracker;
+
+/**
+ * The GameLog class is designed to keep every stat line a player has had, one per game, so
+ * splits can be worked out long after the match files have gone to the trash. Lines are only
+ * ever added, never changed, until a player's statistics are reset and all of their lines are forgotten.
+ *
+ * Each player's lines are kept in primitive arrays, one chunk per season, in order of the date
+ * the game was played: the day, whether the game was at home, away or unknown and a playoff game,
+ * then the points, assists, rebounds and shooting percentages. Games nearly always arrive in date
+ * order, so adding one is an append; a game that arrives late is slid back into place. Because
+ * every chunk is in date order, the games between two dates are found by a binary search and
+ * summed straight off the arrays.
+ *
+ * Shooting percentages are only recorded in the playoffs, the same as a player's averages, so
+ * they are averaged over the playoff games in a split.
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GameLog {
+    // CONSTANTS //
+
+    // games before July belong to the season that started the year before
+    private static final int SEASON_START_MONTH = 7;
+
+    // the day a game is kept on when nobody knows when it was played, so it always lands in the
+    // same place, before every dated game, however many times it is loaded or replayed
+    public static final LocalDate UNKNOWN_DAY = LocalDate.ofEpochDay(0);
+
+    private static final int VENUE_MASK = 3;
+    private static final int PLAYOFF = 4;
+    private static final int CHUNK_GAMES = 16;
+
+
+    // FIELDS //
+    private final ConcurrentHashMap<String, History> histories;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an empty game log.
+     */
+    public GameLog() {
+        histories = new ConcurrentHashMap<>();
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of games a player has a stat line for.
+     *
+     * @param name the name of the player
+     * @return the number of games
+     */
+    public int getGames(String name) {
+        History history = histories.get(name);
+        return history == null ? 0 : history.games();
+    }
+
+    /**
+     * Access the number of players with at least one stat line.
+     *
+     * @return the number of players
+     */
+    public int getPlayers() {
+        return histories.size();
+    }
+
+    /**
+     * Access the number of stat lines kept for every player together.
+     *
+     * @return the number of lines
+     */
+    public long getLines() {
+        long lines = 0;
+        for (History history : histories.values()) {
+            lines += history.games();
+        }
+        return lines;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds one player's stat line from one game.
+     *
+     * @param name the name of the player
+     * @param date the day the game was played
+     * @param venue where the game was played
+     * @param isPlayoff true if the game was a playoff game
+     * @param points the points scored
+     * @param assists the assists made
+     * @param rebounds the rebounds grabbed
+     * @param fieldGoalPercentage the field goal percentage (only kept for playoff games)
+     * @param threePointPercentage the three point percentage (only kept for playoff games)
+     * @return true if the game went after every game the player already had, false if it was slid back into place
+     */
+    public boolean record(String name, LocalDate date, Venue venue, boolean isPlayoff, double points, double assists, double rebounds,
+                          double fieldGoalPercentage, double threePointPercentage) {
+        int flags = venue.ordinal() | (isPlayoff ? PLAYOFF : 0);
+        if(!isPlayoff) {
+            fieldGoalPercentage = 0;
+            threePointPercentage = 0;
+        }
+        return histories.computeIfAbsent(name, key -> new History())
+                .add((int) date.toEpochDay(), (byte) flags, points, assists, rebounds, fieldGoalPercentage, threePointPercentage);
+    }
+
+    /**
+     * Forgets every stat line of a player, such as when their statistics are reset.
+     *
+     * @param name the name of the player
+     */
+    public void forget(String name) {
+        histories.remove(name);
+    }
+
+    /**
+     * Adds every stat line from another game log, such as one read from a snapshot.
+     *
+     * @param other the other game log
+     */
+    public void addAll(GameLog other) {
+        other.forEachLine(this::add);
+    }
+
+    /**
+     * Adds one stat line exactly as it was handed out by forEachLine.
+     *
+     * @param name the name of the player
+     * @param day the day, counted from 1970-01-01
+     * @param flags the venue and playoff flags
+     * @param line the five stats
+     */
+    void add(String name, int day, byte flags, double[] line) {
+        histories.computeIfAbsent(name, key -> new History()).add(day, flags, line[0], line[1], line[2], line[3], line[4]);
+    }
+
+    /**
+     * Works out a player's split over their most recent games.
+     *
+     * @param name the name of the player
+     * @param n how many games to include
+     * @param venue only count games played here, or null for every game
+     * @return the split, which is empty if the player has no games
+     */
+    public Split getLastGames(String name, int n, Venue venue) {
+        History history = histories.get(name);
+        return history == null ? new Split() : history.last(n, venue);
+    }
+
+    /**
+     * Works out a player's split over the games played between two days.
+     *
+     * @param name the name of the player
+     * @param from the first day to include, or null to start at the first game
+     * @param to the last day to include, or null to run to the last game
+     * @param venue only count games played here, or null for every game
+     * @return the split, which is empty if the player has no games
+     */
+    public Split getGamesBetween(String name, LocalDate from, LocalDate to, Venue venue) {
+        History history = histories.get(name);
+        if(history == null) {
+            return new Split();
+        }
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        return history.between(fromDay, toDay, venue);
+    }
+
+    /**
+     * Hands every stat line to a visitor, player by player and oldest game first.
+     *
+     * @param visitor the visitor
+     */
+    void forEachLine(LineVisitor visitor) {
+        double[] line = new double[BoxScore.STATS_PER_PLAYER];
+        for (Map.Entry<String, History> entry : histories.entrySet()) {
+            entry.getValue().forEachLine(entry.getKey(), line, visitor);
+        }
+    }
+
+    /**
+     * Hands every stat line of one player to a visitor, oldest game first.
+     *
+     * @param name the name of the player
+     * @param visitor the visitor
+     */
+    void forEachLine(String name, LineVisitor visitor) {
+        History history = histories.get(name);
+        if(history != null) {
+            history.forEachLine(name, new double[BoxScore.STATS_PER_PLAYER], visitor);
+        }
+    }
+
+    /**
+     * Hands a player's most recent stat lines to a visitor, oldest game first.
+     *
+     * @param name the name of the player
+     * @param n how many games to hand out
+     * @param visitor the visitor
+     * @return the number of earlier games that were not handed out
+     */
+    int forEachLine(String name, int n, LineVisitor visitor) {
+        History history = histories.get(name);
+        return history == null ? 0 : history.forEachLine(name, n, new double[BoxScore.STATS_PER_PLAYER], visitor);
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Works out which season a day belongs to.
+     *
+     * @param day the day, counted from 1970-01-01
+     * @return the year the season started in
+     */
+    static int seasonOf(int day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return date.getMonthValue() >= SEASON_START_MONTH ? date.getYear() : date.getYear() - 1;
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * Where a game was played, from the team's point of view.
+     */
+    public enum Venue {
+        UNKNOWN, HOME, AWAY;
+
+        /**
+         * Access the venue the other team played at.
+         *
+         * @return away for home, home for away and unknown for unknown
+         */
+        public Venue opposite() {
+            return this == HOME ? AWAY : this == AWAY ? HOME : UNKNOWN;
+        }
+
+        /**
+         * Finds a venue from its name, ignoring case.
+         *
+         * @param text the text, such as "home" or "away"
+         * @return the venue, or null if there is none by that name
+         */
+        public static Venue find(String text) {
+            for (Venue venue : values()) {
+                if(venue.name().equalsIgnoreCase(text.trim())) {
+                    return venue;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives stat lines from forEachLine. The line array is reused between calls.
+     */
+    interface LineVisitor {
+        void visit(String name, int day, byte flags, double[] line);
+    }
+
+    /**
+     * The totals over a number of games, which are turned into averages when asked for.
+     */
+    public static final class Split {
+        private int games;
+        private int playoffGames;
+        private final double[] totals = new double[BoxScore.STATS_PER_PLAYER];
+
+        /**
+         * Access the number of games in the split.
+         *
+         * @return the number of games
+         */
+        public int getGames() {
+            return games;
+        }
+
+        /**
+         * Access the number of playoff games in the split.
+         *
+         * @return the number of playoff games
+         */
+        public int getPlayoffGames() {
+            return playoffGames;
+        }
+
+        /**
+         * Access the average of one stat over the split.
+         *
+         * @param stat 0 for points, 1 for assists, 2 for rebounds, 3 for field goal % and 4 for three point %
+         * @return the unrounded average, or 0 if no games count towards it
+         */
+        public double getAverage(int stat) {
+            int count = stat < 3 ? games : playoffGames;
+            return count == 0 ? 0 : totals[stat] / count;
+        }
+
+        private void add(double[] lines, int at) {
+            for (int stat = 0; stat < totals.length; stat++) {
+                totals[stat] += lines[at + stat];
+            }
+        }
+
+        @Override
+        public String toString() {
+            String split = games + (games == 1 ? " game: " : " games: ") + Roster.round(getAverage(0)) + " ppg, "
+                    + Roster.round(getAverage(1)) + " apg, " + Roster.round(getAverage(2)) + " rpg";
+            if(playoffGames > 0) {
+                split += ", " + Roster.round(getAverage(3)) + " fg%, " + Roster.round(getAverage(4)) + " 3p% over " + playoffGames + (playoffGames == 1 ? " playoff game" : " playoff games");
+            }
+            return split;
+        }
+    }
+
+    /**
+     * One player's games, kept in one chunk per season, oldest season first.
+     */
+    private static final class History {
+        private final ArrayList<Season> seasons = new ArrayList<>();
+        private int games;
+
+        synchronized int games() {
+            return games;
+        }
+
+        synchronized boolean add(int day, byte flags, double points, double assists, double rebounds, double fieldGoalPercentage, double threePointPercentage) {
+            int year = seasonOf(day);
+            int index = seasons.size();
+            // games nearly always belong to the newest season, so look from the end
+            while(index > 0 && seasons.get(index - 1).year > year) {
+                index--;
+            }
+            boolean newest = index == seasons.size();
+            Season season;
+            if(index > 0 && seasons.get(index - 1).year == year) {
+                season = seasons.get(index - 1);
+            } else {
+                season = new Season(year);
+                seasons.add(index, season);
+            }
+            boolean last = season.add(day, flags, points, assists, rebounds, fieldGoalPercentage, threePointPercentage) && newest;
+            games++;
+            return last;
+        }
+
+        synchronized Split last(int n, Venue venue) {
+            Split split = new Split();
+            for (int s = seasons.size() - 1; s >= 0 && split.games < n; s--) {
+                Season season = seasons.get(s);
+                for (int i = season.size - 1; i >= 0 && split.games < n; i--) {
+                    season.addTo(split, i, venue);
+                }
+            }
+            return split;
+        }
+
+        synchronized Split between(int fromDay, int toDay, Venue venue) {
+            Split split = new Split();
+            if(fromDay > toDay) {
+                return split;
+            }
+            int firstYear = fromDay == Integer.MIN_VALUE ? Integer.MIN_VALUE : seasonOf(fromDay);
+            int lastYear = toDay == Integer.MAX_VALUE ? Integer.MAX_VALUE : seasonOf(toDay);
+            for (Season season : seasons) {
+                if(season.year < firstYear || season.year > lastYear) {
+                    continue;
+                }
+                int start = fromDay == Integer.MIN_VALUE ? 0 : season.firstAfter(fromDay - 1);
+                int end = season.firstAfter(toDay);
+                for (int i = start; i < end; i++) {
+                    season.addTo(split, i, venue);
+                }
+            }
+            return split;
+        }
+
+        synchronized void forEachLine(String name, double[] line, LineVisitor visitor) {
+            forEachLine(name, games, line, visitor);
+        }
+
+        synchronized int forEachLine(String name, int n, double[] line, LineVisitor visitor) {
+            int skipped = Math.max(0, games - n);
+            // step back over whole seasons first, so only the season the last n start in is skipped into
+            int s = 0;
+            int i = skipped;
+            while(s < seasons.size() && i >= seasons.get(s).size) {
+                i -= seasons.get(s).size;
+                s++;
+            }
+            for (; s < seasons.size(); s++, i = 0) {
+                Season season = seasons.get(s);
+                for (; i < season.size; i++) {
+                    System.arraycopy(season.lines, i * BoxScore.STATS_PER_PLAYER, line, 0, line.length);
+                    visitor.visit(name, season.days[i], season.flags[i], line);
+                }
+            }
+            return skipped;
+        }
+    }
+
+    /**
+     * One season of one player's games, in date order. Game i's stats are at lines[i * STATS_PER_PLAYER] onwards.
+     */
+    private static final class Season {
+        final int year;
+        int size;
+        int[] days = new int[CHUNK_GAMES];
+        byte[] flags = new byte[CHUNK_GAMES];
+        double[] lines = new double[CHUNK_GAMES * BoxScore.STATS_PER_PLAYER];
+
+        Season(int year) {
+            this.year = year;
+        }
+
+        /**
+         * Adds a game in date order.
+         *
+         * @return true if it went after every other game in the season
+         */
+        boolean add(int day, byte flag, double points, double assists, double rebounds, double fieldGoalPercentage, double threePointPercentage) {
+            if(size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+                lines = Arrays.copyOf(lines, size * 2 * BoxScore.STATS_PER_PLAYER);
+            }
+
+            // a game played before the latest one slides back past every later game
+            int at = firstAfter(day);
+            if(at < size) {
+                System.arraycopy(days, at, days, at + 1, size - at);
+                System.arraycopy(flags, at, flags, at + 1, size - at);
+                System.arraycopy(lines, at * BoxScore.STATS_PER_PLAYER, lines, (at + 1) * BoxScore.STATS_PER_PLAYER, (size - at) * BoxScore.STATS_PER_PLAYER);
+            }
+
+            days[at] = day;
+            flags[at] = flag;
+            int offset = at * BoxScore.STATS_PER_PLAYER;
+            lines[offset] = points;
+            lines[offset + 1] = assists;
+            lines[offset + 2] = rebounds;
+            lines[offset + 3] = fieldGoalPercentage;
+            lines[offset + 4] = threePointPercentage;
+            size++;
+            return at == size - 1;
+        }
+
+        /**
+         * Finds the first game played after a day.
+         *
+         * @return its position, or size if there is none
+         */
+        int firstAfter(int day) {
+            if(size == 0 || days[size - 1] <= day) {
+                return size;
+            }
+            int low = 0;
+            int high = size - 1;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(days[middle] <= day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        void addTo(Split split, int i, Venue venue) {
+            if(venue != null && (flags[i] & VENUE_MASK) != venue.ordinal()) {
+                return;
+            }
+            split.games++;
+            if((flags[i] & PLAYOFF) != 0) {
+                split.playoffGames++;
+            }
+            split.add(lines, i * BoxScore.STATS_PER_PLAYER);
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package tracker;
+
+/**
+ * The Journal class is designed to record every change made to a team as it happens, by
+ * appending one small record per change to the end of a file: a match being applied, a roster
+ * member joining (hired, traded for or loaded) or leaving (fired or traded away), and the
+ * statistics being reset. Saving a change therefore only writes that change instead of the whole
+ * roster. When the tracker starts, the latest snapshot is opened and the journal is replayed on
+ * top of it. Compacting writes a new snapshot and empties the journal.
+ *
+ * Every time the journal is emptied it starts a new generation, which is written as its first
+ * record. A snapshot remembers the generation it was taken at, and replaying skips a journal from
+ * an earlier generation, since its records are already in the snapshot; that happens when the
+ * program stopped after a compaction wrote the snapshot but before it emptied the journal.
+ *
+ * A match record also names the match file it was read from. The journal remembers those files
+ * for as long as they are still where they were read from, carrying them into the next generation
+ * when it is emptied, so a file that was loaded but not yet moved to the trash when the program
+ * stopped is recognized instead of loaded again.
+ *
+ * A committed transaction is one record holding everyone who left, everyone who joined and the
+ * free agent files they were signed from, and it is synced before anyone sees the new roster, so
+ * replaying brings back either the whole transaction or none of it. Files it names that are still
+ * in their folder are moved to the trash when it is replayed.
+ *
+ * A roster member joining is written as the snapshot writes them, with their name at its own
+ * length. Journals from before names could be any length hold them in the snapshot's old fixed
+ * width layout, under different record types, and still replay.
+ *
+ * Each record is: length of the body (int), type (byte), body, CRC32 of the type and body (int).
+ * A record that was only partly written when the program stopped fails its length or checksum
+ * check and is cut off the end of the file when the journal is replayed. Records may be written
+ * from several threads, so writing one record never overlaps another.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.io.File;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class Journal {
+    // CONSTANTS //
+    private static final byte MATCH = 1;
+    private static final byte REMOVE = 3;
+    private static final byte RESET = 4;
+    private static final byte GENERATION = 5;
+    private static final byte SOURCE = 6;
+    private static final byte ADD = 8;
+    private static final byte TRANSACTION = 9;
+
+    // the same records with roster members in the snapshot's old fixed width layout, still replayed from older journals
+    private static final byte FIXED_ADD = 2;
+    private static final byte FIXED_TRANSACTION = 7;
+
+    // set in the first byte of a match record whose match was already counted from the opponent's file
+    private static final byte UNCOUNTED = 2;
+
+    private static final int FRAME_BYTES = 4 + 1 + 4;
+    private static final int MAX_BODY_BYTES = 1 << 24;
+
+
+    // FIELDS //
+    private final String journalFilePath;
+    private final FileChannel channel;
+    private final CRC32 crc;
+    private final Metrics metrics;
+    private final HashSet<String> sources;
+    private ByteBuffer buffer;
+    private int records;
+    private long generation;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Opens a journal file for appending, creating it if it does not exist.
+     *
+     * @param journalFilePath the journal file's location
+     * @throws IOException if the file could not be opened
+     */
+    public Journal(String journalFilePath) throws IOException {
+        this(journalFilePath, null);
+    }
+
+    /**
+     * Opens a journal file for appending, creating it if it does not exist, and counts the bytes
+     * of every record written in a team's metrics.
+     *
+     * @param journalFilePath the journal file's location
+     * @param metrics the metrics to count in, or null
+     * @throws IOException if the file could not be opened
+     */
+    public Journal(String journalFilePath, Metrics metrics) throws IOException {
+        this.journalFilePath = journalFilePath;
+        this.metrics = metrics;
+        channel = FileChannel.open(Paths.get(journalFilePath), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        crc = new CRC32();
+        sources = new HashSet<>();
+        buffer = ByteBuffer.allocate(1024);
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of records in the journal since it was last emptied.
+     *
+     * @return the number of records
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * Access the generation of the journal, which goes up by one every time it is emptied.
+     *
+     * @return the generation, which is 0 for a journal written before generations were kept
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Access whether a match file was loaded, so it only still needs to be moved to the trash.
+     *
+     * @param source the match file as given by BoxScore.sourceOf
+     * @return true if a match was read from exactly that file
+     */
+    public synchronized boolean hasLoaded(String source) {
+        return sources.contains(source);
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Records a match being applied.
+     *
+     * @param boxScore the parsed match file
+     * @return true if the record was written
+     */
+    public synchronized boolean logMatch(BoxScore boxScore) {
+        try {
+            begin(MATCH);
+            buffer.put((byte) ((boxScore.isPlayoff() ? 1 : 0) | (boxScore.isCounted() ? 0 : UNCOUNTED)));
+            putText(boxScore.getOpponentTeam());
+            buffer.putInt(boxScore.getYourScore());
+            buffer.putInt(boxScore.getOpponentScore());
+            putText(boxScore.isPlayoff() ? boxScore.getBracketStage() : "");
+            buffer.putInt(boxScore.getPlayerCount());
+            for (int i = 0; i < boxScore.getPlayerCount(); i++) {
+                putText(boxScore.getPlayerName(i));
+                ensure(BoxScore.STATS_PER_PLAYER * 8);
+                for (int stat = 0; stat < BoxScore.STATS_PER_PLAYER; stat++) {
+                    buffer.putDouble(boxScore.getPlayerStat(i, stat));
+                }
+            }
+            // the day, venue and source come last, so records written before they were kept still replay
+            ensure(9);
+            buffer.putLong(boxScore.getDate() == null ? Long.MIN_VALUE : boxScore.getDate().toEpochDay());
+            buffer.put((byte) boxScore.getVenue().ordinal());
+            putText(boxScore.getSource() == null ? "" : boxScore.getSource());
+            end();
+            if(boxScore.getSource() != null) {
+                sources.add(boxScore.getSource());
+            }
+            return true;
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + journalFilePath + ": " + iox.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records a roster member joining the team, along with all of their statistics.
+     *
+     * @param r the roster member
+     * @return true if the record was written
+     */
+    public synchronized boolean logAdd(Roster r) {
+        try {
+            byte[] record = Snapshot.toRecord(r);
+            begin(ADD);
+            ensure(record.length);
+            buffer.put(record);
+            return end();
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + journalFilePath + ": " + iox.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records a roster member leaving the team.
+     *
+     * @param name the name of the roster member
+     * @return true if the record was written
+     */
+    public synchronized boolean logRemove(String name) {
+        try {
+            begin(REMOVE);
+            putText(name);
+            return end();
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + journalFilePath + ": " + iox.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records a transaction being committed, as a single record, and makes sure it is on the disk
+     * before returning.
+     *
+     * @param leaving the roster members leaving the team
+     * @param joining the roster members joining the team, along with all of their statistics
+     * @param files the free agent files that are moved to the trash, as folder and file name pairs
+     * @return true if the record was written and synced
+     */
+    public synchronized boolean logTransaction(List<Roster> leaving, List<Roster> joining, List<String[]> files) {
+        try {
+            begin(TRANSACTION);
+            ensure(4);
+            buffer.putInt(leaving.size());
+            for (Roster r : leaving) {
+                putText(r.getName());
+            }
+            ensure(4);
+            buffer.putInt(joining.size());
+            for (Roster r : joining) {
+                byte[] record = Snapshot.toRecord(r);
+                ensure(record.length);
+                buffer.put(record);
+            }
+            ensure(4);
+            buffer.putInt(files.size());
+            for (String[] file : files) {
+                putText(file[0]);
+                putText(file[1]);
+            }
+            end();
+            channel.force(false);
+            return true;
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + journalFilePath + ": " + iox.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Records the statistics of the whole roster being reset.
+     *
+     * @return true if the record was written
+     */
+    public synchronized boolean logReset() {
+        try {
+            begin(RESET);
+            return end();
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + journalFilePath + ": " + iox.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Applies every record in the journal to a team, in the order they were written. A record at the
+     * end of the file that was not completely written is cut off. A journal from before the snapshot
+     * the team was opened from is not applied but emptied, finishing the compaction that wrote it.
+     *
+     * @param team the team to apply the records to
+     * @param snapshotGeneration the generation of the snapshot the team was opened from, or 0
+     * @return the number of records applied
+     * @throws IOException if the file could not be read
+     */
+    public synchronized int replay(Team team, long snapshotGeneration) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer frame = ByteBuffer.allocate(5);
+        ByteBuffer checksum = ByteBuffer.allocate(4);
+        records = 0;
+        generation = 0;
+        sources.clear();
+        int skipped = 0;
+
+        while(position + FRAME_BYTES <= size) {
+            frame.clear();
+            channel.read(frame, position);
+            frame.flip();
+            int length = frame.getInt();
+            byte type = frame.get();
+            if(length < 0 || length > MAX_BODY_BYTES || position + FRAME_BYTES + length > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(length);
+            channel.read(body, position + 5);
+            body.flip();
+            checksum.clear();
+            channel.read(checksum, position + 5 + length);
+            checksum.flip();
+
+            crc.reset();
+            crc.update(type);
+            crc.update(body.array(), 0, length);
+            if((int) crc.getValue() != checksum.getInt()) {
+                break;
+            }
+
+            if(type == GENERATION) {
+                generation = body.getLong();
+            } else if(type == SOURCE) {
+                sources.add(getText(body));
+            } else if(generation < snapshotGeneration) {
+                // the snapshot already holds the match, but its file may still need moving to the trash
+                if(type == MATCH) {
+                    String source = getMatch(body).getSource();
+                    if(source != null) {
+                        sources.add(source);
+                    }
+                }
+                skipped++;
+            } else {
+                apply(team, type, body);
+                records++;
+            }
+            position += FRAME_BYTES + length;
+        }
+
+        if(position < size) {
+            System.out.println("Dropped " + (size - position) + " bytes of unfinished records from " + journalFilePath);
+            channel.truncate(position);
+        }
+        channel.position(position);
+
+        if(generation < snapshotGeneration) {
+            if(skipped > 0) {
+                System.out.println("Skipped " + skipped + " records of " + journalFilePath + " that were already in the snapshot");
+            }
+            clear(snapshotGeneration);
+        } else if(generation > snapshotGeneration) {
+            System.out.println(journalFilePath + " is newer than the snapshot, some changes may be missing");
+        }
+        return records;
+    }
+
+    /**
+     * Empties the journal, once everything in it has been saved in a snapshot, and starts a new generation.
+     * The match files that were loaded but are still where they were read from are named again.
+     *
+     * @param generation the new generation, which the snapshot was saved with
+     * @throws IOException if the file could not be emptied
+     */
+    public synchronized void clear(long generation) throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        begin(GENERATION);
+        buffer.putLong(generation);
+        end();
+
+        Iterator<String> iterator = sources.iterator();
+        while(iterator.hasNext()) {
+            String source = iterator.next();
+            if(!source.equals(BoxScore.sourceOf(BoxScore.fileOf(source)))) {
+                // moved to the trash or changed since
+                iterator.remove();
+                continue;
+            }
+            begin(SOURCE);
+            putText(source);
+            end();
+        }
+        channel.force(true);
+        this.generation = generation;
+        records = 0;
+    }
+
+    /**
+     * Makes sure every record written so far is on the disk.
+     *
+     * @throws IOException if the file could not be synced
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Applies one record to a team.
+     *
+     * @param team the team
+     * @param type the type of record
+     * @param body the body of the record
+     */
+    private void apply(Team team, byte type, ByteBuffer body) {
+        switch(type) {
+            case MATCH:
+                BoxScore boxScore = getMatch(body);
+                if(boxScore.getSource() != null) {
+                    sources.add(boxScore.getSource());
+                }
+                team.applyBoxScore(boxScore);
+                break;
+            case ADD:
+                team.addRoster(Snapshot.getMember(body));
+                break;
+            case FIXED_ADD:
+                team.addRoster(Snapshot.getRoster(body));
+                break;
+            case REMOVE:
+                int index = team.findRoster(getText(body));
+                if(index != -1) {
+                    team.removeRoster(index);
+                }
+                break;
+            case RESET:
+                team.resetStatistics();
+                break;
+            case TRANSACTION:
+            case FIXED_TRANSACTION:
+                applyTransaction(team, body, type == FIXED_TRANSACTION);
+                break;
+        }
+    }
+
+    /**
+     * Applies a transaction record written by logTransaction, moving any of its free agent files
+     * that did not make it to the trash before the program stopped.
+     *
+     * @param team the team
+     * @param body the body of the record
+     * @param fixedWidth whether the roster members joining are in the old fixed width layout
+     */
+    private static void applyTransaction(Team team, ByteBuffer body, boolean fixedWidth) {
+        int leaving = body.getInt();
+        for (int i = 0; i < leaving; i++) {
+            int index = team.findRoster(getText(body));
+            if(index != -1) {
+                team.removeRoster(index);
+            }
+        }
+        int joining = body.getInt();
+        for (int i = 0; i < joining; i++) {
+            team.addRoster(fixedWidth ? Snapshot.getRoster(body) : Snapshot.getMember(body));
+        }
+        int files = body.getInt();
+        for (int i = 0; i < files; i++) {
+            String filePath = getText(body);
+            String fileName = getText(body);
+            if(new File(filePath + fileName).exists()) {
+                team.getFreeAgents(filePath).invalidate(fileName);
+                team.moveToTrash(filePath, fileName);
+            }
+        }
+    }
+
+    /**
+     * Reads the body of a match record written by logMatch.
+     *
+     * @param body the record body
+     * @return the box score
+     */
+    private static BoxScore getMatch(ByteBuffer body) {
+        byte flags = body.get();
+        boolean isPlayoff = (flags & 1) == 1;
+        String opponentTeam = getText(body);
+        int yourScore = body.getInt();
+        int opponentScore = body.getInt();
+        String bracketStage = getText(body);
+        int playerCount = body.getInt();
+        String[] playerNames = new String[playerCount];
+        double[] playerStats = new double[playerCount * BoxScore.STATS_PER_PLAYER];
+        for (int i = 0; i < playerCount; i++) {
+            playerNames[i] = getText(body);
+            for (int stat = 0; stat < BoxScore.STATS_PER_PLAYER; stat++) {
+                playerStats[i * BoxScore.STATS_PER_PLAYER + stat] = body.getDouble();
+            }
+        }
+        LocalDate date = null;
+        GameLog.Venue venue = GameLog.Venue.UNKNOWN;
+        if(body.remaining() >= 9) {
+            long day = body.getLong();
+            date = day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+            venue = GameLog.Venue.values()[body.get()];
+        }
+        String source = null;
+        if(body.remaining() >= 4) {
+            source = getText(body);
+            if(source.isEmpty()) {
+                source = null;
+            }
+        }
+        return new BoxScore(isPlayoff, opponentTeam, yourScore, opponentScore, isPlayoff ? bracketStage : null, playerNames, playerStats, playerCount, date, venue, source,
+                (flags & UNCOUNTED) == 0, date != null);
+    }
+
+    /**
+     * Starts a new record in the buffer.
+     *
+     * @param type the type of record
+     */
+    private void begin(byte type) {
+        buffer.clear();
+        buffer.putInt(0); // filled in by end()
+        buffer.put(type);
+    }
+
+    /**
+     * Finishes the record in the buffer and appends it to the file.
+     *
+     * @return true once the record was written
+     * @throws IOException if the record could not be written
+     */
+    private boolean end() throws IOException {
+        ensure(4);
+        int length = buffer.position() - 5;
+        buffer.putInt(0, length);
+
+        crc.reset();
+        crc.update(buffer.array(), 4, length + 1);
+        buffer.putInt((int) crc.getValue());
+
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        records++;
+        if(metrics != null) {
+            metrics.bytesWritten(buffer.limit());
+        }
+        return true;
+    }
+
+    /**
+     * Writes a text field as a length followed by UTF-8 bytes.
+     *
+     * @param text the text
+     */
+    private void putText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a text field written by putText.
+     *
+     * @param body the record body
+     * @return the text
+     */
+    private static String getText(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure the buffer has room for a number of bytes, growing it if needed.
+     *
+     * @param bytes the number of bytes about to be written
+     */
+    private void ensure(int bytes) {
+        if(buffer.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+}
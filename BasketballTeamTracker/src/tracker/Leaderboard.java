@@ -0,0 +1,272 @@
+package tracker;
+
+/**
+ * The Leaderboard class is designed to keep roster members ranked by a score at all times.
+ * It is an order statistic tree (a treap where every node also knows the size of its subtree),
+ * so changing a member's score, finding the top members and finding a member's rank all take
+ * O(log n) instead of sorting the whole roster again. Members with equal scores are ranked in
+ * the order they first joined the leaderboard.
+ *
+ * The tree is never changed in place. A change copies the nodes on the path it touches and then
+ * publishes the new root, so readers walk whichever version of the tree was current when they
+ * started and never need a lock. Changes are made one at a time.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Leaderboard {
+    // FIELDS //
+    private volatile Node root;
+    private final ConcurrentHashMap<Roster, Node> nodes;
+    private long nextOrder;
+    private int seed;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an empty leaderboard.
+     */
+    public Leaderboard() {
+        nodes = new ConcurrentHashMap<>();
+        seed = 0x2545F491;
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of members on the leaderboard.
+     *
+     * @return the number of members
+     */
+    public int size() {
+        return size(root);
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds a member to the leaderboard or moves them to the place their new score belongs.
+     *
+     * @param r the roster member
+     * @param score their new score
+     */
+    public synchronized void update(Roster r, double score) {
+        Node old = nodes.get(r);
+        Node tree = root;
+        if(old != null) {
+            if(Double.compare(old.score, score) == 0) {
+                return;
+            }
+            tree = remove(tree, old);
+        }
+
+        Node node = new Node(r, score, old != null ? old.order : nextOrder++, nextPriority(), null, null);
+        root = insert(tree, node);
+        nodes.put(r, node);
+    }
+
+    /**
+     * Takes a member off the leaderboard.
+     *
+     * @param r the roster member
+     */
+    public synchronized void remove(Roster r) {
+        Node old = nodes.remove(r);
+        if(old != null) {
+            root = remove(root, old);
+        }
+    }
+
+    /**
+     * Finds the members with the highest scores.
+     *
+     * @param n how many members to return
+     * @return the members from highest to lowest score
+     */
+    public ArrayList<Roster> top(int n) {
+        Node current = root;
+        ArrayList<Roster> leaders = new ArrayList<>(Math.max(0, Math.min(n, size(current))));
+        ArrayDeque<Node> path = new ArrayDeque<>();
+
+        while((current != null || !path.isEmpty()) && leaders.size() < n) {
+            while(current != null) {
+                path.push(current);
+                current = current.left;
+            }
+            current = path.pop();
+            leaders.add(current.member);
+            current = current.right;
+        }
+        return leaders;
+    }
+
+    /**
+     * Finds the rank of a member, where the member with the highest score is ranked 1.
+     *
+     * @param r the roster member
+     * @return the rank, or -1 if they are not on the leaderboard
+     */
+    public int rank(Roster r) {
+        Node target = nodes.get(r);
+        if(target == null) {
+            return -1;
+        }
+
+        // count everyone ahead of the member in the current version of the tree
+        int before = 0;
+        Node current = root;
+        while(current != null) {
+            if(compare(target, current) <= 0) {
+                current = current.left;
+            } else {
+                before += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return before + 1;
+    }
+
+    /**
+     * Finds the score a member is ranked by.
+     *
+     * @param r the roster member
+     * @return the score, or NaN if they are not on the leaderboard
+     */
+    public double score(Roster r) {
+        Node node = nodes.get(r);
+        return node == null ? Double.NaN : node.score;
+    }
+
+    /**
+     * Creates a random priority that keeps the tree balanced on average.
+     *
+     * @return the priority
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Inserts a node into a tree by splitting the tree where the node belongs.
+     *
+     * @return the root of the new tree
+     */
+    private static Node insert(Node tree, Node node) {
+        Node[] parts = split(tree, node);
+        return merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Removes a node from a tree.
+     *
+     * @return the root of the new tree
+     */
+    private static Node remove(Node tree, Node node) {
+        Node[] parts = split(tree, node);
+        return merge(parts[0], removeFirst(parts[1]));
+    }
+
+    /**
+     * Splits a tree into the nodes that come before a key node and the rest, copying only the
+     * nodes on the path to where the key belongs.
+     *
+     * @return the two trees
+     */
+    private static Node[] split(Node tree, Node key) {
+        if(tree == null) {
+            return new Node[2];
+        }
+        if(compare(tree, key) < 0) {
+            Node[] parts = split(tree.right, key);
+            parts[0] = tree.with(tree.left, parts[0]);
+            return parts;
+        }
+        Node[] parts = split(tree.left, key);
+        parts[1] = tree.with(parts[1], tree.right);
+        return parts;
+    }
+
+    /**
+     * Joins two trees where every node on the left comes before every node on the right.
+     *
+     * @return the root of the joined tree
+     */
+    private static Node merge(Node left, Node right) {
+        if(left == null) {
+            return right;
+        }
+        if(right == null) {
+            return left;
+        }
+        if(left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    /**
+     * Removes the first node of a tree.
+     *
+     * @return the root of the new tree
+     */
+    private static Node removeFirst(Node tree) {
+        if(tree.left == null) {
+            return tree.right;
+        }
+        return tree.with(removeFirst(tree.left), tree.right);
+    }
+
+    /**
+     * Orders nodes by highest score first, then by who joined the leaderboard first.
+     */
+    private static int compare(Node a, Node b) {
+        int byScore = Double.compare(b.score, a.score);
+        return byScore != 0 ? byScore : Long.compare(a.order, b.order);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * One member on the leaderboard, along with the size of the subtree below them. Nodes never
+     * change once they are made.
+     */
+    private static final class Node {
+        final Roster member;
+        final double score;
+        final long order;
+        final int priority;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(Roster member, double score, long order, int priority, Node left, Node right) {
+            this.member = member;
+            this.score = score;
+            this.order = order;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            size = 1 + Leaderboard.size(left) + Leaderboard.size(right);
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(member, score, order, priority, left, right);
+        }
+    }
+}
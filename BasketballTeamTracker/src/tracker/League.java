@@ -0,0 +1,448 @@
+package tracker;
+
+/**
+ * The League class is designed to hold every team in a league, keyed by team name. A match
+ * file is written from one team's point of view, so when it is applied to a league it updates
+ * that team and, if the opponent is also in the league, the opponent with the scores swapped. The
+ * opponent gets no player lines from it, since the file only lists the players of its own team.
+ * Both teams may have a file for the same match; the league knows the match by its day, teams and
+ * score, so it is only counted once for each team, and the second file only adds its player lines.
+ * Only a day written in the file counts, so two files without one are matched up by their teams,
+ * score and bracket stage alone, whenever they were written; two undated games between the same
+ * teams that ended with the same score are therefore taken for one. The league only remembers the
+ * latest MAX_COUNTED_MATCHES matches it counted and forgets them when the program stops, so a
+ * match whose second file arrives after that is counted again for that team.
+ *
+ * Each team has its own lock, so matches between unrelated teams are applied at the same time
+ * without waiting on each other. When a match needs two teams, their locks are always taken in
+ * team name order so two matches can never wait on each other forever. Standings and leaders are
+ * read without any lock.
+ *
+ * League match folders have one sub folder per team, named after the team, holding that team's
+ * match files in the loadMatchStatistics layout. Loaded files go to a trash folder of their team, so
+ * files of the same name from different teams do not collide.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+public class League {
+    // CONSTANTS //
+
+    // the most matches remembered while waiting for the other team's file
+    public static final int MAX_COUNTED_MATCHES = 1 << 16;
+
+
+    // FIELDS //
+    private final String leagueName;
+    private final ConcurrentHashMap<String, Team> teams;
+    private final ConcurrentHashMap<String, ReentrantLock> locks;
+
+    // for every team and match counted, whether the team's player lines were counted as well, oldest first
+    private final Map<String, Boolean> counted;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an empty league given its name.
+     *
+     * @param leagueName
+     */
+    public League(String leagueName) {
+        this.leagueName = leagueName;
+        teams = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
+        counted = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                // each match takes an entry for both teams
+                return size() > MAX_COUNTED_MATCHES * 2;
+            }
+        });
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the name of the league.
+     *
+     * @return the league name
+     */
+    public String getLeagueName() {
+        return leagueName;
+    }
+
+    /**
+     * Access a team in the league.
+     *
+     * @param teamName the name of the team
+     * @return the team, or null if it is not in the league
+     */
+    public Team getTeam(String teamName) {
+        return teams.get(teamName);
+    }
+
+    /**
+     * Access every team in the league, in no particular order.
+     *
+     * @return a read-only view of the teams
+     */
+    public Collection<Team> getTeams() {
+        return Collections.unmodifiableCollection(teams.values());
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds a new team to the league, or finds the team already using that name.
+     *
+     * @param teamName the name of the team
+     * @return the team
+     */
+    public Team addTeam(String teamName) {
+        return teams.computeIfAbsent(teamName, name -> {
+            locks.put(name, new ReentrantLock());
+            return new Team(name);
+        });
+    }
+
+    /**
+     * Adds an existing team to the league.
+     *
+     * @param team the team
+     * @return false if another team already uses that name
+     */
+    public boolean addTeam(Team team) {
+        locks.putIfAbsent(team.getTeamName(), new ReentrantLock());
+        return teams.putIfAbsent(team.getTeamName(), team) == null;
+    }
+
+    /**
+     * Applies a match to the team whose point of view it was written from and, if the opponent
+     * is in the league, to the opponent with the scores swapped. A match already counted from the
+     * opponent's file only adds the team's player lines, and a match already loaded for the team is skipped.
+     *
+     * @param teamName the team the box score was written for
+     * @param boxScore the parsed match file
+     * @return the number of rows in the match file, or -1 if the team is not in the league or the match could not be saved
+     */
+    public int applyBoxScore(String teamName, BoxScore boxScore) {
+        Team team = teams.get(teamName);
+        if(team == null) {
+            System.out.println(teamName + " is not in the " + leagueName);
+            return -1;
+        }
+        Team opponent = teams.get(boxScore.getOpponentTeam());
+        if(opponent == team) {
+            opponent = null;
+        }
+        String gameKey = boxScore.getGameKey(teamName);
+
+        // always lock in name order, so two matches between the same teams cannot deadlock
+        String first = opponent == null || teamName.compareTo(opponent.getTeamName()) < 0 ? teamName : opponent.getTeamName();
+        String second = opponent == null ? null : first.equals(teamName) ? opponent.getTeamName() : teamName;
+        lock(first);
+        if(second != null) {
+            lock(second);
+        }
+        try {
+            Boolean linesCounted = counted.get(teamName + '|' + gameKey);
+            if(linesCounted != null && linesCounted) {
+                System.out.println("The match against the " + boxScore.getOpponentTeam() + " was already loaded for the " + teamName);
+                return boxScore.getRows();
+            }
+            int rows = team.applyBoxScore(linesCounted == null ? boxScore : boxScore.withoutMatch());
+            if(rows == -1) {
+                return -1;
+            }
+            counted.put(teamName + '|' + gameKey, true);
+
+            // if the opponent's side could not be saved, it is counted from their own file instead
+            if(opponent != null && !counted.containsKey(opponent.getTeamName() + '|' + gameKey)
+                    && opponent.applyBoxScore(boxScore.forOpponent(teamName)) != -1) {
+                counted.put(opponent.getTeamName() + '|' + gameKey, false);
+            }
+            return rows;
+        } finally {
+            if(second != null) {
+                unlock(second);
+            }
+            unlock(first);
+        }
+    }
+
+    /**
+     * Loads one match file written from a team's point of view and moves it to the trash folder.
+     *
+     * @param teamName the team the match file was written for
+     * @param matchFilePath the path where the file is located
+     * @param matchFileName the name of the file
+     * @return true if the loading was successful
+     */
+    public boolean loadMatchStatistics(String teamName, String matchFilePath, String matchFileName) {
+        File file = new File(matchFilePath + matchFileName);
+        Team team = teams.get(teamName);
+
+        if(team == null) {
+            System.out.println(teamName + " is not in the " + leagueName);
+            return false;
+        }
+        if(!file.exists()) {
+            System.out.println(matchFilePath + matchFileName + " does not exist!");
+            return false;
+        }
+
+        try {
+            if(applyBoxScore(teamName, team.parseMatchFile(file)) == -1) {
+                System.out.println(matchFileName + " could not be saved, so it was not loaded");
+                return false;
+            }
+        } catch (IOException iox) {
+            System.out.println(iox.getMessage());
+        }
+
+        team.moveToTrash(matchFilePath, matchFileName, trashFilePath(teamName));
+        return true;
+    }
+
+    /**
+     * Loads every match file in a league folder, which has one sub folder of match files per team.
+     * Each team's files are applied in file name order, while different teams are loaded at the
+     * same time. Sub folders for teams that are not in the league are skipped. Every loaded match
+     * is moved to its team's trash folder.
+     *
+     * @param leagueFilePath the league folder
+     * @return the number of match files loaded, or -1 if the folder does not exist
+     */
+    public int loadAllMatchStatistics(String leagueFilePath) {
+        File[] folders = new File(leagueFilePath).listFiles(File::isDirectory);
+
+        if(folders == null) {
+            System.out.println(leagueFilePath + " is not a folder!");
+            return -1;
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger filesLoaded = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(Math.max(folders.length, 1), Runtime.getRuntime().availableProcessors()));
+
+        try {
+            for (File folder : folders) {
+                String teamName = folder.getName();
+                if(!teams.containsKey(teamName)) {
+                    System.out.println("Skipped " + folder + ": " + teamName + " is not in the " + leagueName);
+                    continue;
+                }
+
+                Team team = teams.get(teamName);
+                pool.execute(() -> {
+                    File[] files = folder.listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+                    if(files == null) {
+                        return;
+                    }
+                    Arrays.sort(files);
+                    for (File file : files) {
+                        try {
+                            if(applyBoxScore(teamName, team.parseMatchFile(file)) == -1) {
+                                System.out.println("Skipped " + file.getName() + ": the match could not be saved");
+                                continue;
+                            }
+                            team.moveToTrash(folder.getPath() + File.separator, file.getName(), trashFilePath(teamName));
+                            filesLoaded.incrementAndGet();
+                        } catch (IOException iox) {
+                            System.out.println("Skipped " + file.getName() + ": " + iox.getMessage());
+                        }
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            System.out.println("Loading was interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        System.out.printf("Loaded %d matches for %d teams in %.3f s: %.1f files/sec\n",
+                filesLoaded.get(), folders.length, seconds, filesLoaded.get() / seconds);
+        return filesLoaded.get();
+    }
+
+    /**
+     * Works out the standings of every team, checking the teams in parallel. Nothing is locked, so
+     * the standings never wait for matches being loaded.
+     *
+     * @return the standings from best to worst regular season win percentage
+     */
+    public List<Standing> getStandings() {
+        return teams.values().parallelStream()
+                .map(Standing::new)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the roster members leading a category across the whole league. Every team finds its own
+     * leaders in parallel, then the lists are merged. Nothing is locked, so the leaders never wait
+     * for matches being loaded.
+     *
+     * @param category the category
+     * @param n how many roster members to return
+     * @return the roster members from first to last place, along with their team and score
+     */
+    public List<Leader> getLeaders(Category category, int n) {
+        return teams.values().parallelStream()
+                .flatMap(team -> {
+                    ArrayList<Leader> leaders = new ArrayList<>();
+                    for (Roster r : team.getLeaders(category, n)) {
+                        leaders.add(new Leader(team.getTeamName(), r, category.score(r)));
+                    }
+                    return leaders.stream();
+                })
+                .sorted(Comparator.comparingDouble(Leader::getScore).reversed()
+                        .thenComparing(Leader::getTeamName)
+                        .thenComparing(leader -> leader.getMember().getName()))
+                .limit(n)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Nicely displays the standings of every team.
+     */
+    public void displayStandings() {
+        System.out.println();
+        System.out.println("Standings for the " + leagueName + ":");
+        int place = 1;
+        for (Standing standing : getStandings()) {
+            System.out.printf("\t%d. %-25s %d-%d (%.1f%%)\n", place++, standing.getTeamName(),
+                    standing.getWins(), standing.getLosses(), standing.getWinPercentage());
+        }
+    }
+
+    /**
+     * Nicely displays the league leaders of every category.
+     *
+     * @param n how many roster members to show per category
+     */
+    public void displayLeaders(int n) {
+        System.out.println();
+        for (Category category : Category.values()) {
+            System.out.println("League leaders in " + category.getLabel() + ":");
+            int place = 1;
+            for (Leader leader : getLeaders(category, n)) {
+                System.out.printf("\t%d. %-25s %-25s %.1f\n", place++, leader.getMember().getName(), leader.getTeamName(), leader.getScore());
+            }
+        }
+    }
+
+    /**
+     * Finds the trash folder for a team's match files.
+     *
+     * @param teamName the name of the team
+     * @return the folder, inside the trash folder
+     */
+    private static String trashFilePath(String teamName) {
+        return Team.TRASH_FILE_PATH + teamName + "/";
+    }
+
+    private void lock(String teamName) {
+        locks.get(teamName).lock();
+    }
+
+    private void unlock(String teamName) {
+        locks.get(teamName).unlock();
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * The regular season record of one team at the moment the standings were worked out.
+     */
+    public static final class Standing implements Comparable<Standing> {
+        private final String teamName;
+        private final int wins;
+        private final int losses;
+
+        Standing(Team team) {
+            teamName = team.getTeamName();
+            SeasonRecord.Record record = team.getSeasonRecord().getRegularSeason();
+            wins = record.getWins();
+            losses = record.getLosses();
+        }
+
+        public String getTeamName() {
+            return teamName;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        public double getWinPercentage() {
+            return wins + losses == 0 ? 0 : Roster.round(wins * 100.0 / (wins + losses));
+        }
+
+        @Override
+        public int compareTo(Standing other) {
+            int byPercentage = Double.compare(other.getWinPercentage(), getWinPercentage());
+            if(byPercentage != 0) {
+                return byPercentage;
+            }
+            int byWins = Integer.compare(other.wins, wins);
+            return byWins != 0 ? byWins : teamName.compareTo(other.teamName);
+        }
+    }
+
+    /**
+     * One roster member on a league leaderboard, along with their team and score.
+     */
+    public static final class Leader {
+        private final String teamName;
+        private final Roster member;
+        private final double score;
+
+        Leader(String teamName, Roster member, double score) {
+            this.teamName = teamName;
+            this.member = member;
+            this.score = score;
+        }
+
+        public String getTeamName() {
+            return teamName;
+        }
+
+        public Roster getMember() {
+            return member;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
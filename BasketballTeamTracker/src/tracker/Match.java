@@ -3,7 +3,8 @@ package tracker;
 /**
  * The Match class is designed to represent a match played by the team consisting
  * of three fields: the name of the opponent team, the number of points your team
- * has scored, and the number of points the opponent team has scored. Each match
+ * has scored, and the number of points the opponent team has scored, along with
+ * whether it was played at home or away when the match file says so. Each match
  * looks at three stats for every player who has played: their points per game,
  * assists per game, and rebounds per game.
  */
@@ -13,6 +14,7 @@ public class Match implements Comparable<Match> {
     private String opponentTeam;
     private int yourScore;
     private int opponentScore;
+    private GameLog.Venue venue;
 
 
     // CONSTRUCTORS //
@@ -25,11 +27,72 @@ public class Match implements Comparable<Match> {
      * @param opponentScore
      */
     public Match(String opponentTeam, int yourScore,  int opponentScore) {
+        this(opponentTeam, yourScore, opponentScore, GameLog.Venue.UNKNOWN);
+    }
+
+    /**
+     * Constructs a match object given the name of the opponent team, your score, the opponent score and where it was played
+     *
+     * @param opponentTeam
+     * @param yourScore
+     * @param opponentScore
+     * @param venue home, away or unknown
+     */
+    public Match(String opponentTeam, int yourScore,  int opponentScore, GameLog.Venue venue) {
         this.opponentTeam = opponentTeam;
         this.yourScore = yourScore;
         this.opponentScore = opponentScore;
+        this.venue = venue;
+    }
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Accesses the name of the opponent team.
+     *
+     * @return the opponent team
+     */
+    public String getOpponentTeam() {
+        return opponentTeam;
     }
 
+    /**
+     * Accesses the number of points your team scored.
+     *
+     * @return your score
+     */
+    public int getYourScore() {
+        return yourScore;
+    }
+
+    /**
+     * Accesses the number of points the opponent team scored.
+     *
+     * @return the opponent score
+     */
+    public int getOpponentScore() {
+        return opponentScore;
+    }
+
+    /**
+     * Accesses where the match was played.
+     *
+     * @return home, away or unknown
+     */
+    public GameLog.Venue getVenue() {
+        return venue;
+    }
+
+    /**
+     * Accesses whether your team won the match.
+     *
+     * @return true if your team scored more points
+     */
+    public boolean isWin() {
+        return yourScore > opponentScore;
+    }
+
+
     // INSTANCE METHODS //
 
     /**
@@ -0,0 +1,389 @@
+package tracker;
+
+/**
+ * The MatchWatcher class is designed to load match files into a team as soon as they are dropped
+ * into the matches folder, without anyone typing in a file name. It runs in the background and
+ * listens to the folder through a WatchService.
+ *
+ * A file is only loaded once it has stopped changing: its size and modification time must stay
+ * the same for a short quiet period, so a file that is still being copied in is never read half
+ * written. Files are loaded in the order they arrived, in batches, so a burst of files is loaded
+ * together. A file that cannot be read as a match is renamed to end in .rejected, so it is left
+ * for someone to fix instead of stopping the watcher or being tried again and again. After every batch the journal is synced and a checkpoint file records which files
+ * the batch loaded, before they are moved to the trash folder; the checkpoint is deleted once they
+ * have been moved. If the program stops before a file is moved, the checkpoint or the journal,
+ * which names the file every match was read from, stops it being loaded twice. Files are told
+ * apart by when they were last changed and their size as well as their name, so a new file with
+ * the name of one that was already loaded is still loaded.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MatchWatcher implements Closeable {
+    // CONSTANTS //
+
+    // how long a file must stay the same before it is treated as fully written
+    private static final long DEFAULT_QUIET_MILLIS = 25;
+
+    // the most files loaded between two checkpoints
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    // how long to wait for events when nothing is waiting to be loaded
+    private static final long IDLE_MILLIS = 1000;
+
+    // added to the name of a match file that could not be loaded
+    private static final String REJECTED_SUFFIX = ".rejected";
+
+
+    // FIELDS //
+    private final Team team;
+    private final Path folder;
+    private final Path checkpointFile;
+    private final long quietNanos;
+    private final int batchSize;
+    private final WatchService watchService;
+    private final LinkedHashMap<Path, Pending> pending;
+    private final AtomicLong filesLoaded;
+    private final AtomicLong filesRejected;
+    private volatile boolean running;
+    private Thread thread;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a watcher for a matches folder with the default quiet period and batch size.
+     *
+     * @param team the team to load matches into
+     * @param matchFilePath the folder to watch
+     * @param checkpointFilePath the checkpoint file's location
+     * @throws IOException if the folder could not be watched
+     */
+    public MatchWatcher(Team team, String matchFilePath, String checkpointFilePath) throws IOException {
+        this(team, matchFilePath, checkpointFilePath, DEFAULT_QUIET_MILLIS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a watcher for a matches folder.
+     *
+     * @param team the team to load matches into
+     * @param matchFilePath the folder to watch
+     * @param checkpointFilePath the checkpoint file's location
+     * @param quietMillis how long a file must stay the same before it is loaded
+     * @param batchSize the most files loaded between two checkpoints
+     * @throws IOException if the folder could not be watched
+     */
+    public MatchWatcher(Team team, String matchFilePath, String checkpointFilePath, long quietMillis, int batchSize) throws IOException {
+        this.team = team;
+        folder = Paths.get(matchFilePath);
+        checkpointFile = Paths.get(checkpointFilePath);
+        quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.batchSize = batchSize;
+        pending = new LinkedHashMap<>();
+        filesLoaded = new AtomicLong();
+        filesRejected = new AtomicLong();
+
+        watchService = folder.getFileSystem().newWatchService();
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of match files loaded since the watcher started.
+     *
+     * @return the number of files
+     */
+    public long getFilesLoaded() {
+        return filesLoaded.get();
+    }
+
+    /**
+     * Access the number of match files that could not be loaded since the watcher started.
+     *
+     * @return the number of files
+     */
+    public long getFilesRejected() {
+        return filesRejected.get();
+    }
+
+    /**
+     * Access whether the watcher is running.
+     *
+     * @return true if it is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Starts watching the folder on a background thread. Files already in the folder are loaded first.
+     */
+    public synchronized void start() {
+        if(running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watch, "match-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the folder, once the batch being loaded is finished.
+     *
+     * @throws IOException if the watch service could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        watchService.close();
+        Thread current = thread;
+        if(current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for files and loads them until the watcher is closed.
+     */
+    private void watch() {
+        try {
+            recover();
+            scanFolder();
+
+            while(running) {
+                WatchKey key = watchService.poll(pending.isEmpty() ? IDLE_MILLIS : TimeUnit.NANOSECONDS.toMillis(quietNanos), TimeUnit.MILLISECONDS);
+                // take every event that is already waiting, so a burst is handled in one go
+                while(key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanFolder();
+                        } else {
+                            seen(folder.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll();
+                }
+                loadReady();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // the watcher was closed while waiting
+        } catch (IOException iox) {
+            System.out.println("Stopped watching " + folder + ": " + iox.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Notes that a file was created or changed.
+     *
+     * @param file the file
+     */
+    private void seen(Path file) {
+        if(!file.getFileName().toString().endsWith(".csv")) {
+            return;
+        }
+        Pending entry = pending.get(file);
+        if(entry == null) {
+            pending.put(file, new Pending(System.nanoTime()));
+        } else {
+            entry.changedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Adds every match file already in the folder, oldest first.
+     *
+     * @throws IOException if the folder could not be read
+     */
+    private void scanFolder() throws IOException {
+        File[] files = folder.toFile().listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+        if(files == null) {
+            throw new IOException(folder + " is not a folder!");
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        for (File file : files) {
+            if(!pending.containsKey(file.toPath())) {
+                seen(file.toPath());
+            }
+        }
+    }
+
+    /**
+     * Loads the files that have stopped changing, in the order they arrived.
+     *
+     * @throws IOException if the checkpoint could not be written
+     */
+    private void loadReady() throws IOException {
+        long now = System.nanoTime();
+        ArrayList<Path> ready = new ArrayList<>();
+
+        Iterator<Map.Entry<Path, Pending>> entries = pending.entrySet().iterator();
+        while(entries.hasNext() && ready.size() < batchSize) {
+            Map.Entry<Path, Pending> entry = entries.next();
+            Path file = entry.getKey();
+            Pending state = entry.getValue();
+            long size;
+            long modified;
+            try {
+                size = Files.size(file);
+                modified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException iox) {
+                // deleted or moved away since it was seen
+                entries.remove();
+                continue;
+            }
+
+            if(size != state.size || modified != state.modified) {
+                state.size = size;
+                state.modified = modified;
+                state.changedAt = now;
+            } else if(size > 0 && now - state.changedAt >= quietNanos) {
+                ready.add(file);
+                entries.remove();
+            }
+        }
+
+        if(!ready.isEmpty()) {
+            loadBatch(ready);
+        }
+    }
+
+    /**
+     * Loads a batch of files, records them in the checkpoint and moves them to the trash folder.
+     *
+     * @param files the files, in the order to load them
+     * @throws IOException if the checkpoint could not be written
+     */
+    private void loadBatch(List<Path> files) throws IOException {
+        ArrayList<String> loaded = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                BoxScore boxScore = team.parseMatchFile(file.toFile());
+                if(team.applyBoxScore(boxScore) == -1) {
+                    // left where it is, to be loaded again once the journal can be written
+                    System.out.println(file.getFileName() + " could not be saved, so it was not loaded");
+                    continue;
+                }
+                loaded.add(boxScore.getSource());
+            } catch (IOException | RuntimeException ex) {
+                System.out.println("Skipped " + file.getFileName() + ": " + ex.getMessage());
+                reject(file);
+            }
+        }
+
+        // the matches must be safe in the journal before the checkpoint says they were loaded
+        team.syncJournal();
+        writeCheckpoint(loaded);
+        for (String source : loaded) {
+            team.moveToTrash(folder.toString() + File.separator, BoxScore.fileOf(source).getName());
+        }
+        Files.deleteIfExists(checkpointFile);
+        filesLoaded.addAndGet(loaded.size());
+    }
+
+    /**
+     * Renames a match file that could not be loaded, so it is not picked up again.
+     *
+     * @param file the match file
+     */
+    private void reject(Path file) {
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + REJECTED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            filesRejected.incrementAndGet();
+        } catch (IOException iox) {
+            System.out.println("Could not set aside " + file.getFileName() + ": " + iox.getMessage());
+        }
+    }
+
+    /**
+     * Moves the files in the folder that were loaded before the program stopped to the trash folder,
+     * going by the checkpoint and the journal, then deletes the checkpoint.
+     *
+     * @throws IOException if the checkpoint or the folder could not be read
+     */
+    private void recover() throws IOException {
+        HashSet<String> loaded = new HashSet<>();
+        if(Files.exists(checkpointFile)) {
+            loaded.addAll(Files.readAllLines(checkpointFile, StandardCharsets.UTF_8));
+        }
+
+        File[] files = folder.toFile().listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+        if(files == null) {
+            throw new IOException(folder + " is not a folder!");
+        }
+        for (File file : files) {
+            String source = BoxScore.sourceOf(file);
+            if(loaded.contains(source) || team.hasLoaded(source)) {
+                System.out.println(file.getName() + " was already loaded, moving it to the trash");
+                team.moveToTrash(folder.toString() + File.separator, file.getName());
+            }
+        }
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    /**
+     * Replaces the checkpoint with the files in the latest batch.
+     *
+     * @param loaded the files as given by BoxScore.sourceOf
+     * @throws IOException if the checkpoint could not be written
+     */
+    private void writeCheckpoint(List<String> loaded) throws IOException {
+        Path temporary = Paths.get(checkpointFile + ".tmp");
+        Files.write(temporary, loaded, StandardCharsets.UTF_8);
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * A file waiting to stop changing, along with what it looked like when it was last checked.
+     */
+    private static final class Pending {
+        long size;
+        long modified;
+        long changedAt;
+
+        Pending(long changedAt) {
+            size = -1;
+            modified = -1;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package tracker;
+
+/**
+ * The Metrics class is designed to show where the time goes when matches are loaded and the team
+ * is saved. It counts the match files loaded, the rows parsed, the players skipped because they
+ * are not on the roster and the bytes written, and keeps a latency histogram for every phase of
+ * loading and saving, so a slow load can be pinned on parsing, looking up players, updating
+ * statistics, the journal, moving files to the trash or saving.
+ *
+ * Counters are LongAdders and histograms are arrays of buckets that grow by a quarter at a time,
+ * so recording an event costs a few nanoseconds and never takes a lock. Starting the program
+ * with -Dtracker.metrics=false turns every recording call into nothing, since the flag is a
+ * constant the JIT can see through. The metrics can be read through JMX or printed.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class Metrics implements MetricsMXBean {
+    // CONSTANTS //
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("tracker.metrics"));
+
+
+    // FIELDS //
+    private final LongAdder filesLoaded;
+    private final LongAdder rowsParsed;
+    private final LongAdder unknownPlayers;
+    private final LongAdder bytesWritten;
+    private final EnumMap<Phase, Histogram> phases;
+    private ObjectName registeredAs;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs metrics with every counter and histogram at zero.
+     */
+    public Metrics() {
+        filesLoaded = new LongAdder();
+        rowsParsed = new LongAdder();
+        unknownPlayers = new LongAdder();
+        bytesWritten = new LongAdder();
+        phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Histogram());
+        }
+    }
+
+
+    // ACCESSOR METHODS //
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getFilesLoaded() {
+        return filesLoaded.sum();
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public long getUnknownPlayersSkipped() {
+        return unknownPlayers.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            counts.put(phase.getLabel(), phases.get(phase).getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseTotalNanos() {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            totals.put(phase.getLabel(), phases.get(phase).getTotal());
+        }
+        return totals;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP99Nanos() {
+        LinkedHashMap<String, Long> percentiles = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            percentiles.put(phase.getLabel(), phases.get(phase).getPercentile(0.99));
+        }
+        return percentiles;
+    }
+
+    /**
+     * Access the latency histogram of one phase.
+     *
+     * @param phase the phase
+     * @return the histogram
+     */
+    public Histogram getHistogram(Phase phase) {
+        return phases.get(phase);
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Reads the clock at the start of a phase.
+     *
+     * @return the time in nanoseconds, or 0 when metrics are off
+     */
+    public long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records how long a phase took.
+     *
+     * @param phase the phase
+     * @param start the time returned by start()
+     */
+    public void record(Phase phase, long start) {
+        if(ENABLED) {
+            phases.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a match file that was parsed.
+     *
+     * @param rows the number of rows in the file, including the header
+     */
+    public void fileLoaded(int rows) {
+        if(ENABLED) {
+            filesLoaded.increment();
+            rowsParsed.add(rows);
+        }
+    }
+
+    /**
+     * Counts a row for someone who is not a player on the roster.
+     */
+    public void unknownPlayer() {
+        if(ENABLED) {
+            unknownPlayers.increment();
+        }
+    }
+
+    /**
+     * Counts bytes written to the roster file, a snapshot or the journal.
+     *
+     * @param bytes the number of bytes
+     */
+    public void bytesWritten(long bytes) {
+        if(ENABLED) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    @Override
+    public void reset() {
+        filesLoaded.reset();
+        rowsParsed.reset();
+        unknownPlayers.reset();
+        bytesWritten.reset();
+        for (Histogram histogram : phases.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Makes the metrics readable through JMX as tracker:type=Metrics,name=teamName.
+     *
+     * @param name the name to register under, such as the team's name
+     * @return true if the metrics were registered
+     */
+    public synchronized boolean register(String name) {
+        if(registeredAs != null) {
+            return true;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("tracker:type=Metrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            registeredAs = objectName;
+        } catch (JMException ex) {
+            System.out.println("Problem registering metrics: " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the metrics being readable through JMX.
+     */
+    public synchronized void unregister() {
+        if(registeredAs == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredAs);
+        } catch (JMException ex) {
+            System.out.println("Problem unregistering metrics: " + ex.getMessage());
+        }
+        registeredAs = null;
+    }
+
+    /**
+     * Nicely displays every counter and the latency of every phase.
+     */
+    public void display() {
+        System.out.println();
+        if(!ENABLED) {
+            System.out.println("Metrics are turned off (-Dtracker.metrics=false)");
+            return;
+        }
+        System.out.printf("Files loaded: %d, rows parsed: %d, unknown players skipped: %d, bytes written: %d\n",
+                getFilesLoaded(), getRowsParsed(), getUnknownPlayersSkipped(), getBytesWritten());
+        System.out.printf("%-12s %10s %12s %10s %10s %10s %10s\n", "phase", "count", "total ms", "mean us", "p50 us", "p99 us", "max us");
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = phases.get(phase);
+            long count = histogram.getCount();
+            System.out.printf("%-12s %10d %12.3f %10.1f %10.1f %10.1f %10.1f\n", phase.getLabel(), count, histogram.getTotal() / 1e6,
+                    count == 0 ? 0 : histogram.getTotal() / 1e3 / count, histogram.getPercentile(0.5) / 1e3,
+                    histogram.getPercentile(0.99) / 1e3, histogram.getMax() / 1e3);
+        }
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * The phases of loading and saving that are timed.
+     */
+    public enum Phase {
+        PARSE("parse"),
+        FIND_ROSTER("findRoster"),
+        UPDATE("update"),
+        JOURNAL("journal"),
+        TRASH("moveToTrash"),
+        SAVE("save"),
+        SNAPSHOT("snapshot");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Access the short label of the phase, such as "parse".
+         *
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * A latency histogram in nanoseconds. Values below 4 have a bucket each, and every power of two
+     * above that is split into four buckets, so a value is never more than a quarter away from its
+     * bucket's bounds however large it is. Recording is a few atomic adds.
+     */
+    public static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 62 * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Records one value.
+         *
+         * @param nanos the value, which is treated as 0 if it is negative
+         */
+        public void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            buckets.incrementAndGet(bucketOf(value));
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Access the number of values recorded.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Access the sum of every value recorded.
+         *
+         * @return the sum in nanoseconds
+         */
+        public long getTotal() {
+            return total.sum();
+        }
+
+        /**
+         * Access the largest value recorded.
+         *
+         * @return the value in nanoseconds
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Finds the value that a share of the recorded values are at or below.
+         *
+         * @param quantile the share, such as 0.99
+         * @return the highest value in the bucket the quantile falls in, or 0 if nothing was recorded
+         */
+        public long getPercentile(double quantile) {
+            long recorded = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                recorded += buckets.get(i);
+            }
+            if(recorded == 0) {
+                return 0;
+            }
+            long wanted = Math.max(1, (long) Math.ceil(quantile * recorded));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if(seen >= wanted) {
+                    return Math.min(lowestOf(i + 1) - 1, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * Sets every bucket back to zero.
+         */
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            total.reset();
+            max.reset();
+        }
+
+        private static int bucketOf(long value) {
+            if(value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return (exponent - 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowestOf(int bucket) {
+            if(bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            if(bucket >= BUCKETS) {
+                return Long.MAX_VALUE;
+            }
+            int exponent = bucket / SUB_BUCKETS + 1;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 2);
+        }
+    }
+}
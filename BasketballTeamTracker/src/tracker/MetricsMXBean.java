@@ -0,0 +1,28 @@
+package tracker;
+
+/**
+ * The MetricsMXBean interface lists what a team's metrics show through JMX, such as in JConsole.
+ * Phase maps are keyed by the phase's label and hold nanoseconds.
+ */
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    long getFilesLoaded();
+
+    long getRowsParsed();
+
+    long getUnknownPlayersSkipped();
+
+    long getBytesWritten();
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Long> getPhaseTotalNanos();
+
+    Map<String, Long> getPhaseP99Nanos();
+
+    void reset();
+}
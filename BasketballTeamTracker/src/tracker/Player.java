@@ -2,17 +2,24 @@ package tracker;
 
 /**
  * The Player class is inherited from the Roster class and is designed to represent a player
- * on the team's roster, which consists of three unique fields: the player's jersey number,
- * a list of their overall stats, and a list of their playoff stats. This class inherits all
- * methods from the Roster class. It performs operations such as modifying statistics. It also
- * implements the abstract methods in the Roster class.
+ * on the team's roster, which consists of four unique fields: the player's jersey number,
+ * the stat table their totals are stored in, their row in that table, and their recent form. Only totals are
+ * kept, the per game averages are worked out when they are displayed or saved. A new player
+ * gets a table of their own and moves into the team's table once they join a team. This class
+ * inherits all methods from the Roster class. It performs operations such as modifying statistics.
+ * It also implements the abstract methods in the Roster class.
+ *
+ * A player's totals, matches played and row are only changed and read while holding the player's
+ * own lock, so a reader never sees a total from one match next to the matches played from before
+ * it, or a row the player has already moved out of.
  */
 
 public class Player extends Roster implements Comparable<Player> {
     // FIELDS //
     private final int jerseyNumber;
-    private double[] statistics;
-    private double[] playoffStatistics;
+    private StatTable table;
+    private int row;
+    private final Form form;
 
     // CONSTRUCTOR //
 
@@ -28,8 +35,118 @@ public class Player extends Roster implements Comparable<Player> {
     public Player(String name, int age, int jerseyNumber, int matchesAttended, int playoffMatchesAttended) {
         super(name, age, matchesAttended, playoffMatchesAttended);
         this.jerseyNumber = jerseyNumber;
-        statistics = new double[3];
-        playoffStatistics = new double[5];
+        table = new StatTable(1);
+        row = table.add(this);
+        table.setGames(row, matchesAttended, playoffMatchesAttended);
+        form = new Form();
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the jersey number of the player.
+     *
+     * @return the jersey number
+     */
+    public int getJerseyNumber() {
+        return jerseyNumber;
+    }
+
+    /**
+     * Access one of the player's regular season averages.
+     *
+     * @param index 0 for points, 1 for assists and 2 for rebounds per game
+     * @return the average rounded to one decimal place
+     */
+    public synchronized double getStatistic(int index) {
+        return average(table.getTotal(StatTable.POINTS + index, row), matchesAttended);
+    }
+
+    /**
+     * Access one of the player's playoff averages.
+     *
+     * @param index 0 for points, 1 for assists and 2 for rebounds per game, 3 for field goal % and 4 for three point %
+     * @return the average rounded to one decimal place
+     */
+    public synchronized double getPlayoffStatistic(int index) {
+        return average(table.getTotal(StatTable.PLAYOFF_POINTS + index, row), playoffMatchesAttended);
+    }
+
+    /**
+     * Access one of the player's stat totals.
+     *
+     * @param column the stat column
+     * @return the total
+     */
+    public synchronized double getTotal(int column) {
+        return table.getTotal(column, row);
+    }
+
+    /**
+     * Access the exact (not rounded) per game average of one of the player's stats.
+     *
+     * @param column the stat column
+     * @return the average, or 0 if no games were played
+     */
+    public synchronized double getAverage(int column) {
+        return table.getAverage(column, row);
+    }
+
+    /**
+     * Access the number of matches the player has played.
+     *
+     * @return the matches played
+     */
+    @Override
+    public synchronized int getMatchesAttended() {
+        return matchesAttended;
+    }
+
+    /**
+     * Access the number of playoff matches the player has played.
+     *
+     * @return the playoff matches played
+     */
+    @Override
+    public synchronized int getPlayoffMatchesAttended() {
+        return playoffMatchesAttended;
+    }
+
+    /**
+     * Access the stat table the player's totals are stored in.
+     *
+     * @return the stat table
+     */
+    public synchronized StatTable getTable() {
+        return table;
+    }
+
+    /**
+     * Access the player's row in their stat table.
+     *
+     * @return the row
+     */
+    public synchronized int getRow() {
+        return row;
+    }
+
+    /**
+     * Access the player's form over their most recent games.
+     *
+     * @return the form
+     */
+    public Form getForm() {
+        return form;
+    }
+
+    /**
+     * Changes the player's row after the table has moved it.
+     *
+     * @param row the new row
+     */
+    synchronized void setRow(int row) {
+        this.row = row;
     }
 
 
@@ -41,30 +158,96 @@ public class Player extends Roster implements Comparable<Player> {
      * @param stats the list of their stats from a match
      * @param isPlayoff true if the match was a playoff match
      */
-    public void modifyStatistic(String[] stats, boolean isPlayoff) {
-        for (int i = 0; i < 3; i++) {
-            statistics[i] = round((statistics[i] * matchesAttended + Double.parseDouble(stats[i + 1])) / (matchesAttended + 1));
+    public synchronized void modifyStatistic(String[] stats, boolean isPlayoff) {
+        modifyStatistic(Double.parseDouble(stats[1]), Double.parseDouble(stats[2]), Double.parseDouble(stats[3]),
+                isPlayoff ? Double.parseDouble(stats[4]) : 0, isPlayoff ? Double.parseDouble(stats[5]) : 0, isPlayoff);
+    }
 
-            if(isPlayoff) {
-                playoffStatistics[i] = round((playoffStatistics[i] * playoffMatchesAttended + Double.parseDouble(stats[i + 1])) / (playoffMatchesAttended + 1));
-            }
+    /**
+     * Modifies the statistics of a player based off of their stats from a match.
+     *
+     * @param points the points scored
+     * @param assists the assists made
+     * @param rebounds the rebounds grabbed
+     * @param fieldGoalPercentage the field goal percentage (only used in playoff matches)
+     * @param threePointPercentage the three point percentage (only used in playoff matches)
+     * @param isPlayoff true if the match was a playoff match
+     */
+    public synchronized void modifyStatistic(double points, double assists, double rebounds, double fieldGoalPercentage, double threePointPercentage, boolean isPlayoff) {
+        table.addTotal(StatTable.POINTS, row, points);
+        table.addTotal(StatTable.ASSISTS, row, assists);
+        table.addTotal(StatTable.REBOUNDS, row, rebounds);
+
+        if(isPlayoff) {
+            table.addTotal(StatTable.PLAYOFF_POINTS, row, points);
+            table.addTotal(StatTable.PLAYOFF_ASSISTS, row, assists);
+            table.addTotal(StatTable.PLAYOFF_REBOUNDS, row, rebounds);
+            table.addTotal(StatTable.PLAYOFF_FIELD_GOAL, row, fieldGoalPercentage);
+            table.addTotal(StatTable.PLAYOFF_THREE_POINT, row, threePointPercentage);
         }
+    }
 
+    /**
+     * Adds a match the player played: their stats and the match itself, all at once, so nobody
+     * reading the player sees the stats without the match or the match without the stats.
+     *
+     * @param points the points scored
+     * @param assists the assists made
+     * @param rebounds the rebounds grabbed
+     * @param fieldGoalPercentage the field goal percentage (only used in playoff matches)
+     * @param threePointPercentage the three point percentage (only used in playoff matches)
+     * @param isPlayoff true if the match was a playoff match
+     */
+    public synchronized void recordMatch(double points, double assists, double rebounds, double fieldGoalPercentage, double threePointPercentage, boolean isPlayoff) {
+        modifyStatistic(points, assists, rebounds, fieldGoalPercentage, threePointPercentage, isPlayoff);
+        super.addMatch();
         if(isPlayoff) {
-            for (int i = 3; i < 5; i++) {
-                playoffStatistics[i] = round((playoffStatistics[i] * playoffMatchesAttended + Double.parseDouble(stats[i + 1])) / (playoffMatchesAttended + 1));
-            }
+            super.addPlayoffMatch();
+        }
+        table.setGames(row, matchesAttended, playoffMatchesAttended);
+    }
+
+    /**
+     * Moves the player's row into another stat table, removing it from the one they were in.
+     *
+     * @param target the table to move into
+     */
+    public synchronized void moveTo(StatTable target) {
+        if(target == table) {
+            return;
         }
+        int newRow = target.add(this, table, row);
+        table.remove(row);
+        table = target;
+        row = newRow;
+    }
 
+    /**
+     * Increments the total matches played by one.
+     */
+    @Override
+    public synchronized void addMatch() {
+        super.addMatch();
+        table.setGames(row, matchesAttended, playoffMatchesAttended);
+    }
+
+    /**
+     * Increments the total playoff matches played by one.
+     */
+    @Override
+    public synchronized void addPlayoffMatch() {
+        super.addPlayoffMatch();
+        table.setGames(row, matchesAttended, playoffMatchesAttended);
     }
 
     /**
      * Sets the matches played all to zero and sets all of their stats to zero.
      */
-    public void resetStatistics() {
+    public synchronized void resetStatistics() {
         super.resetStatistics();
-        statistics = new double[3];
-        playoffStatistics = new double[5];
+        table.clearRow(row);
+        table.setGames(row, matchesAttended, playoffMatchesAttended);
+        form.clear();
     }
 
     /**
@@ -72,15 +255,34 @@ public class Player extends Roster implements Comparable<Player> {
      *
      * @param stats the list of all the stats
      */
-    public void saveStatistics(String[] stats) {
-        statistics[0] = Double.parseDouble(stats[6]);
-        statistics[1] = Double.parseDouble(stats[7]);
-        statistics[2] = Double.parseDouble(stats[8]);
-        playoffStatistics[0] = Double.parseDouble(stats[9]);
-        playoffStatistics[1] = Double.parseDouble(stats[10]);
-        playoffStatistics[2] = Double.parseDouble(stats[11]);
-        playoffStatistics[3] = Double.parseDouble(stats[12]);
-        playoffStatistics[4] = Double.parseDouble(stats[13]);
+    public synchronized void saveStatistics(String[] stats) {
+        saveStatistics(Double.parseDouble(stats[6]), Double.parseDouble(stats[7]), Double.parseDouble(stats[8]),
+                Double.parseDouble(stats[9]), Double.parseDouble(stats[10]), Double.parseDouble(stats[11]),
+                Double.parseDouble(stats[12]), Double.parseDouble(stats[13]));
+    }
+
+    /**
+     * Saves all the statistics from their per game averages, which are turned back into totals
+     * using the number of matches played.
+     *
+     * @param ppg points per game
+     * @param apg assists per game
+     * @param rpg rebounds per game
+     * @param playoffPpg playoff points per game
+     * @param playoffApg playoff assists per game
+     * @param playoffRpg playoff rebounds per game
+     * @param fieldGoalPercentage playoff field goal percentage
+     * @param threePointPercentage playoff three point percentage
+     */
+    public synchronized void saveStatistics(double ppg, double apg, double rpg, double playoffPpg, double playoffApg, double playoffRpg, double fieldGoalPercentage, double threePointPercentage) {
+        table.setTotal(StatTable.POINTS, row, ppg * matchesAttended);
+        table.setTotal(StatTable.ASSISTS, row, apg * matchesAttended);
+        table.setTotal(StatTable.REBOUNDS, row, rpg * matchesAttended);
+        table.setTotal(StatTable.PLAYOFF_POINTS, row, playoffPpg * playoffMatchesAttended);
+        table.setTotal(StatTable.PLAYOFF_ASSISTS, row, playoffApg * playoffMatchesAttended);
+        table.setTotal(StatTable.PLAYOFF_REBOUNDS, row, playoffRpg * playoffMatchesAttended);
+        table.setTotal(StatTable.PLAYOFF_FIELD_GOAL, row, fieldGoalPercentage * playoffMatchesAttended);
+        table.setTotal(StatTable.PLAYOFF_THREE_POINT, row, threePointPercentage * playoffMatchesAttended);
     }
 
     /**
@@ -88,26 +290,32 @@ public class Player extends Roster implements Comparable<Player> {
      *
      * @return the stats
      */
-    public String listOutStats() {
-        return jerseyNumber + "," + statistics[0] + "," + statistics[1] + "," + statistics[2] + "," + playoffStatistics[0] + "," + playoffStatistics[1] + "," + playoffStatistics[2] + "," + playoffStatistics[3] + "," + playoffStatistics[4];
+    public synchronized String listOutStats() {
+        return jerseyNumber + "," + getStatistic(0) + "," + getStatistic(1) + "," + getStatistic(2) + "," + getPlayoffStatistic(0) + "," + getPlayoffStatistic(1) + "," + getPlayoffStatistic(2) + "," + getPlayoffStatistic(3) + "," + getPlayoffStatistic(4);
 
     }
 
     /**
      * Nicely displays all the information about the player.
      */
-    public void display() {
+    public synchronized void display() {
         System.out.printf("\t   -----------------------------\n");
         System.out.printf("\t   | %-25s |\n", jerseyNumber + " - " + name);
         System.out.printf("\t   -----------------------------\n");
         System.out.printf("Regular Season Stats | Playoff Season Stats\n");
         System.out.printf("---------------------|---------------------\n");
         System.out.printf("> %-18s | > %-21s\n", matchesAttended + " games", playoffMatchesAttended + " games");
-        System.out.printf("> %-18s | > %-21s\n", statistics[0] + " ppg", playoffStatistics[0] + " ppg");
-        System.out.printf("> %-18s | > %-21s\n", statistics[1] + " apg", playoffStatistics[1] + " apg");
-        System.out.printf("> %-18s | > %-21s\n", statistics[2] + " rpg", playoffStatistics[2] + " rpg");
-        System.out.printf("> %-18s | > %-21s\n", "N/A", playoffStatistics[3] + "%");
-        System.out.printf("> %-18s | > %-21s\n", "N/A", playoffStatistics[4] + "%");
+        System.out.printf("> %-18s | > %-21s\n", getStatistic(0) + " ppg", getPlayoffStatistic(0) + " ppg");
+        System.out.printf("> %-18s | > %-21s\n", getStatistic(1) + " apg", getPlayoffStatistic(1) + " apg");
+        System.out.printf("> %-18s | > %-21s\n", getStatistic(2) + " rpg", getPlayoffStatistic(2) + " rpg");
+        System.out.printf("> %-18s | > %-21s\n", "N/A", getPlayoffStatistic(3) + "%");
+        System.out.printf("> %-18s | > %-21s\n", "N/A", getPlayoffStatistic(4) + "%");
+        if(form.getGames() > 0) {
+            System.out.printf("Form: last 5 %s ppg, %s apg, %s rpg | last 10 %s ppg, %s apg, %s rpg | weighted %s ppg, %s apg, %s rpg\n",
+                    round(form.getLastFive(0)), round(form.getLastFive(1)), round(form.getLastFive(2)),
+                    round(form.getLastTen(0)), round(form.getLastTen(1)), round(form.getLastTen(2)),
+                    round(form.getWeighted(0)), round(form.getWeighted(1)), round(form.getWeighted(2)));
+        }
 
     }
 
@@ -118,10 +326,10 @@ public class Player extends Roster implements Comparable<Player> {
      * @return the nicely formatted String
      */
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return super.toString() + "Jersey number: " + jerseyNumber + "\n"+
-                "Statistics: " + statistics[0] + "ppg, " + statistics[1] + "apg, " + statistics[2] + "rpg"  + "\n" +
-                "Playoff statistics: " + playoffStatistics[0] + "ppg, " + playoffStatistics[1] + "apg, " + playoffStatistics[2] + "rpg, " + playoffStatistics[3] + "%, " + playoffStatistics[4] + "%";
+                "Statistics: " + getStatistic(0) + "ppg, " + getStatistic(1) + "apg, " + getStatistic(2) + "rpg"  + "\n" +
+                "Playoff statistics: " + getPlayoffStatistic(0) + "ppg, " + getPlayoffStatistic(1) + "apg, " + getPlayoffStatistic(2) + "rpg, " + getPlayoffStatistic(3) + "%, " + getPlayoffStatistic(4) + "%";
     }
 
     /**
@@ -132,6 +340,6 @@ public class Player extends Roster implements Comparable<Player> {
      */
     @Override
     public int compareTo(Player other) {
-        return Double.compare(other.statistics[0], this.statistics[0]);
+        return Double.compare(other.getStatistic(0), this.getStatistic(0));
     }
 }
@@ -24,11 +24,38 @@ public class PlayoffMatch extends Match {
      * @param bracketStage
      */
     public PlayoffMatch(String opponentTeam, int yourScore,  int opponentScore, String bracketStage) {
-        super(opponentTeam,  yourScore, opponentScore);
+        this(opponentTeam, yourScore, opponentScore, bracketStage, GameLog.Venue.UNKNOWN);
+    }
+
+    /**
+     * Constructs a match object given the name of the opponent team, your score, the opponent score, the bracket stage and where it was played.
+     *
+     * @param opponentTeam
+     * @param yourScore
+     * @param opponentScore
+     * @param bracketStage
+     * @param venue home, away or unknown
+     */
+    public PlayoffMatch(String opponentTeam, int yourScore,  int opponentScore, String bracketStage, GameLog.Venue venue) {
+        super(opponentTeam,  yourScore, opponentScore, venue);
         this.bracketStage = bracketStage;
     }
 
 
+    // ACCESSOR METHODS //
+
+    /**
+     * Accesses the stage of the playoff bracket the match was played in.
+     *
+     * @return the bracket stage
+     */
+    public String getBracketStage() {
+        return bracketStage;
+    }
+
+
+    // INSTANCE METHODS //
+
     /**
      * Returns a nicely formatted String with all the necessary information.
      *
@@ -0,0 +1,129 @@
+package tracker;
+
+/**
+ * The PublishedList class is designed to let one thread change a list while any number of other
+ * threads read it without locking. Every change publishes a new read-only snapshot of the list,
+ * and readers always get the latest snapshot, which never changes after it is handed out.
+ *
+ * Adding to the end does not copy the list: the new element goes into a free slot past the end
+ * of every snapshot already handed out, so adding stays O(1) on average. Removing or replacing
+ * elements copies the list. Only one thread may change the list at a time, so the owner must
+ * hold a lock while changing it.
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+class PublishedList<E> {
+    // FIELDS //
+    private volatile View<E> view;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an empty list.
+     */
+    PublishedList() {
+        view = new View<>(new Object[8], 0);
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the latest snapshot of the list.
+     *
+     * @return a read-only list that will never change
+     */
+    List<E> snapshot() {
+        return view;
+    }
+
+    /**
+     * Access the number of elements in the latest snapshot.
+     *
+     * @return the number of elements
+     */
+    int size() {
+        return view.size;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds an element to the end of the list.
+     *
+     * @param element the element
+     */
+    void add(E element) {
+        View<E> current = view;
+        Object[] elements = current.elements;
+        if(current.size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        // older snapshots are shorter, so they never see this slot
+        elements[current.size] = element;
+        view = new View<>(elements, current.size + 1);
+    }
+
+    /**
+     * Removes the element at a position, moving every later element back by one.
+     *
+     * @param index the position
+     * @return the removed element
+     */
+    E remove(int index) {
+        View<E> current = view;
+        E removed = current.get(index);
+        Object[] elements = new Object[Math.max(current.elements.length, 8)];
+        System.arraycopy(current.elements, 0, elements, 0, index);
+        System.arraycopy(current.elements, index + 1, elements, index, current.size - index - 1);
+        view = new View<>(elements, current.size - 1);
+        return removed;
+    }
+
+    /**
+     * Replaces every element of the list.
+     *
+     * @param elements the new elements, in order
+     */
+    void replaceAll(Collection<? extends E> elements) {
+        Object[] copy = elements.toArray();
+        view = new View<>(Arrays.copyOf(copy, Math.max(copy.length, 8)), copy.length);
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * One read-only snapshot: the first size slots of an array that are never written again.
+     */
+    private static final class View<E> extends AbstractList<E> implements RandomAccess {
+        final Object[] elements;
+        final int size;
+
+        View(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -45,6 +45,33 @@ public abstract class Roster {
         return name;
     }
 
+    /**
+     * Access the age of the roster member.
+     *
+     * @return the age
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * Access the number of matches the roster member has played.
+     *
+     * @return the matches played
+     */
+    public int getMatchesAttended() {
+        return matchesAttended;
+    }
+
+    /**
+     * Access the number of playoff matches the roster member has played.
+     *
+     * @return the playoff matches played
+     */
+    public int getPlayoffMatchesAttended() {
+        return playoffMatchesAttended;
+    }
+
     // INSTANCE METHODS //
 
     /**
@@ -57,6 +84,17 @@ public abstract class Roster {
         return Math.round(d * 10.0) / 10.0;
     }
 
+    /**
+     * Works out a per game average from a total, rounded to one decimal place.
+     *
+     * @param total the total over every game
+     * @param games the number of games
+     * @return the rounded average, or 0 if no games were played
+     */
+    public static double average(double total, int games) {
+        return games == 0 ? 0 : round(total / games);
+    }
+
     /**
      * Increments the total matches played by one.
      */
@@ -0,0 +1,587 @@
+package tracker;
+
+/**
+ * The RosterExporter class is designed to write roster members and matches out as CSV, JSON, JSON
+ * lines or a compact binary form without building a String for every member. Every field is
+ * written straight into one reusable byte buffer, which is handed to the output stream whenever
+ * it fills up, so exporting a million members takes as much memory as exporting one. Each
+ * member's fields are first copied together while holding a lock, by default the member
+ * themselves, so a member whose statistics change during an export is written as they were at
+ * one moment, and nothing is written to the output stream while the lock is held.
+ *
+ * Averages and percentages are written the same way Double.toString writes a number rounded to
+ * one decimal place ("30.4", "0.0"), so CSV exports match the roster file layout exactly.
+ *
+ * The binary form starts with the magic number 0x42545458 ("BTTX") and a version, then one record
+ * per member, all big endian: type (byte, 1 for a player and 2 for a coach), name (unsigned short
+ * length and UTF-8 bytes), age, matches and playoff matches (ints). A player then has their jersey
+ * number and their eight averages, and a coach their two win percentages, each average stored as
+ * an int number of tenths.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+public class RosterExporter implements Closeable {
+    // CONSTANTS //
+    public static final int MAGIC = 0x42545458;
+    public static final int VERSION = 1;
+
+    private static final byte PLAYER = 1;
+    private static final byte COACH = 2;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // numbers this large are written by Double.toString in scientific notation
+    private static final long PLAIN_TENTHS_LIMIT = 100_000_000L;
+
+
+    // FIELDS //
+    private final OutputStream out;
+    private final Format format;
+    private final byte[] buffer;
+    private final Row row;
+    private int position;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an exporter writing to an output stream.
+     *
+     * @param out where to write
+     * @param format the format to write in
+     */
+    public RosterExporter(OutputStream out, Format format) {
+        this.out = out;
+        this.format = format;
+        buffer = new byte[BUFFER_BYTES];
+        row = new Row();
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the format the exporter writes in.
+     *
+     * @return the format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Writes a whole roster: one line per member for CSV and JSON lines, an array for JSON, and a
+     * header followed by one record per member for binary.
+     *
+     * @param roster the roster members
+     * @throws IOException if the roster could not be written
+     */
+    public void writeRoster(List<? extends Roster> roster) throws IOException {
+        writeRoster(roster, r -> r);
+    }
+
+    /**
+     * Writes a whole roster, copying each member's fields while holding the lock their changes are made under.
+     *
+     * @param roster the roster members
+     * @param lockOf finds the lock for a member
+     * @throws IOException if the roster could not be written
+     */
+    public void writeRoster(List<? extends Roster> roster, Function<Roster, Object> lockOf) throws IOException {
+        if(format == Format.BINARY) {
+            writeInt(MAGIC);
+            writeInt(VERSION);
+        } else if(format == Format.JSON) {
+            writeByte('[');
+        }
+
+        for (int i = 0; i < roster.size(); i++) {
+            if(format == Format.JSON && i > 0) {
+                writeByte(',');
+            }
+            Roster r = roster.get(i);
+            synchronized (lockOf.apply(r)) {
+                row.copy(r);
+            }
+            writeRow();
+            if(format == Format.CSV || format == Format.JSON_LINES) {
+                writeByte('\n');
+            }
+        }
+
+        if(format == Format.JSON) {
+            writeByte(']');
+        }
+    }
+
+    /**
+     * Writes a list of matches: one line per match for CSV and JSON lines and an array for JSON.
+     * Matches have no binary form.
+     *
+     * @param matches the matches
+     * @throws IOException if the matches could not be written
+     */
+    public void writeMatches(List<? extends Match> matches) throws IOException {
+        if(format == Format.JSON) {
+            writeByte('[');
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            if(format == Format.JSON && i > 0) {
+                writeByte(',');
+            }
+            writeMatch(matches.get(i));
+            if(format != Format.JSON) {
+                writeByte('\n');
+            }
+        }
+        if(format == Format.JSON) {
+            writeByte(']');
+        }
+    }
+
+    /**
+     * Writes one roster member, without anything after it.
+     *
+     * @param r the roster member
+     * @throws IOException if the member could not be written
+     */
+    public void writeMember(Roster r) throws IOException {
+        synchronized (r) {
+            row.copy(r);
+        }
+        writeRow();
+    }
+
+    /**
+     * Writes one match, without anything after it. A CSV match is written like a match file header.
+     *
+     * @param m the match
+     * @throws IOException if the match could not be written
+     */
+    public void writeMatch(Match m) throws IOException {
+        boolean isPlayoff = m instanceof PlayoffMatch;
+        if(format == Format.CSV) {
+            writeText(isPlayoff ? "playoff," : "regular,");
+            writeText(m.getOpponentTeam());
+            writeByte(',');
+            writeLong(m.getYourScore());
+            writeByte(',');
+            writeLong(m.getOpponentScore());
+            if(isPlayoff) {
+                writeByte(',');
+                writeText(((PlayoffMatch) m).getBracketStage());
+            }
+            return;
+        }
+        if(format == Format.BINARY) {
+            throw new IOException("Matches have no binary export");
+        }
+
+        writeText("{\"opponent\":");
+        writeString(m.getOpponentTeam());
+        writeText(",\"us\":");
+        writeLong(m.getYourScore());
+        writeText(",\"them\":");
+        writeLong(m.getOpponentScore());
+        if(isPlayoff) {
+            writeText(",\"stage\":");
+            writeString(((PlayoffMatch) m).getBracketStage());
+        }
+        writeByte('}');
+    }
+
+    /**
+     * Writes text as it is, encoded as UTF-8.
+     *
+     * @param text the text
+     * @throws IOException if the text could not be written
+     */
+    public void writeText(String text) throws IOException {
+        writeText(text, 0, text.length());
+    }
+
+    /**
+     * Writes part of a text as it is, encoded as UTF-8.
+     *
+     * @param text the text
+     * @param from the first character to write
+     * @param to the character after the last one to write
+     * @throws IOException if the text could not be written
+     */
+    public void writeText(String text, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if(c < 0x80) {
+                writeByte(c);
+            } else if(c < 0x800) {
+                ensure(2);
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if(Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensure(4);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                ensure(3);
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Writes text as a JSON string, in quotes, escaping quotes, backslashes and control characters.
+     *
+     * @param text the text
+     * @throws IOException if the text could not be written
+     */
+    public void writeString(String text) throws IOException {
+        writeByte('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '"' || c == '\\' || c < 0x20) {
+                writeText(text, start, i);
+                writeByte('\\');
+                if(c < 0x20) {
+                    writeText("u00");
+                    writeByte(Character.forDigit(c >> 4, 16));
+                    writeByte(Character.forDigit(c & 0xF, 16));
+                } else {
+                    writeByte(c);
+                }
+                start = i + 1;
+            }
+        }
+        writeText(text, start, text.length());
+        writeByte('"');
+    }
+
+    /**
+     * Writes a whole number in decimal.
+     *
+     * @param value the number
+     * @throws IOException if the number could not be written
+     */
+    public void writeLong(long value) throws IOException {
+        if(value == Long.MIN_VALUE) {
+            writeText(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if(value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int end = position + digits(value);
+        int at = end;
+        do {
+            buffer[--at] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while(value != 0);
+        position = end;
+    }
+
+    /**
+     * Writes a number rounded to one decimal place, the way Double.toString writes it.
+     *
+     * @param value the number
+     * @throws IOException if the number could not be written
+     */
+    public void writeTenths(double value) throws IOException {
+        long tenths = Math.round(value * 10.0);
+        if(Double.isNaN(value) || Double.isInfinite(value) || Math.abs(tenths) >= PLAIN_TENTHS_LIMIT) {
+            writeText(Double.toString(Roster.round(value)));
+            return;
+        }
+        if(tenths < 0) {
+            writeByte('-');
+            tenths = -tenths;
+        }
+        writeLong(tenths / 10);
+        writeByte('.');
+        writeByte((char) ('0' + tenths % 10));
+    }
+
+    /**
+     * Writes a single ASCII character.
+     *
+     * @param c the character
+     * @throws IOException if the character could not be written
+     */
+    public void writeByte(char c) throws IOException {
+        if(position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    /**
+     * Hands everything written so far to the output stream and flushes it.
+     *
+     * @throws IOException if the output stream could not be written
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Flushes everything written so far and closes the output stream.
+     *
+     * @throws IOException if the output stream could not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the member copied into the row, without anything after it.
+     */
+    private void writeRow() throws IOException {
+        switch(format) {
+            case CSV:
+                writeCsvRow();
+                break;
+            case JSON:
+            case JSON_LINES:
+                writeJsonRow();
+                break;
+            case BINARY:
+                writeBinaryRow();
+                break;
+        }
+    }
+
+    private void writeCsvRow() throws IOException {
+        writeText(row.name);
+        writeByte(',');
+        writeLong(row.age);
+        writeByte(',');
+        writeLong(row.matches);
+        writeByte(',');
+        writeLong(row.playoffMatches);
+        if(row.kind == PLAYER) {
+            writeText(",player,");
+            writeLong(row.jerseyNumber);
+            for (int i = 0; i < 8; i++) {
+                writeByte(',');
+                writeTenths(row.values[i]);
+            }
+        } else if(row.kind == COACH) {
+            writeText(",coach,");
+            writeTenths(row.values[0]);
+            writeByte(',');
+            writeTenths(row.values[1]);
+        }
+    }
+
+    private void writeJsonRow() throws IOException {
+        writeText("{\"name\":");
+        writeString(row.name);
+        writeText(",\"age\":");
+        writeLong(row.age);
+        writeText(",\"matches\":");
+        writeLong(row.matches);
+        writeText(",\"playoffMatches\":");
+        writeLong(row.playoffMatches);
+        if(row.kind == PLAYER) {
+            writeText(",\"type\":\"player\",\"jersey\":");
+            writeLong(row.jerseyNumber);
+            writeText(",\"ppg\":");
+            writeTenths(row.values[0]);
+            writeText(",\"apg\":");
+            writeTenths(row.values[1]);
+            writeText(",\"rpg\":");
+            writeTenths(row.values[2]);
+            writeText(",\"playoffPpg\":");
+            writeTenths(row.values[3]);
+            writeText(",\"playoffApg\":");
+            writeTenths(row.values[4]);
+            writeText(",\"playoffRpg\":");
+            writeTenths(row.values[5]);
+            writeText(",\"fieldGoal\":");
+            writeTenths(row.values[6]);
+            writeText(",\"threePoint\":");
+            writeTenths(row.values[7]);
+        } else if(row.kind == COACH) {
+            writeText(",\"type\":\"coach\",\"winPercentage\":");
+            writeTenths(row.values[0]);
+            writeText(",\"playoffWinPercentage\":");
+            writeTenths(row.values[1]);
+        }
+        writeByte('}');
+    }
+
+    private void writeBinaryRow() throws IOException {
+        writeByte((char) (row.kind == PLAYER ? PLAYER : COACH));
+
+        int length = utf8Length(row.name);
+        if(length > 0xFFFF) {
+            throw new IOException("Name too long to export: " + row.name);
+        }
+        ensure(2);
+        buffer[position++] = (byte) (length >> 8);
+        buffer[position++] = (byte) length;
+        writeText(row.name);
+
+        writeInt(row.age);
+        writeInt(row.matches);
+        writeInt(row.playoffMatches);
+        if(row.kind == PLAYER) {
+            writeInt(row.jerseyNumber);
+            for (int i = 0; i < 8; i++) {
+                writeInt((int) Math.round(row.values[i] * 10));
+            }
+        } else if(row.kind == COACH) {
+            writeInt((int) Math.round(row.values[0] * 10));
+            writeInt((int) Math.round(row.values[1] * 10));
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Makes sure the buffer has room for a number of bytes, flushing it if needed.
+     */
+    private void ensure(int bytes) throws IOException {
+        if(buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if(position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Counts the bytes a text takes up in UTF-8, the same way writeText encodes it.
+     */
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c < 0x80) {
+                length++;
+            } else if(c < 0x800) {
+                length += 2;
+            } else if(Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Counts the decimal digits of a number that is not negative.
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        while(value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * One roster member's fields, copied together and reused for every member. A player's values
+     * are their three averages and then their five playoff statistics, and a coach's their two win
+     * percentages.
+     */
+    private static final class Row {
+        final double[] values = new double[8];
+        String name;
+        int age;
+        int matches;
+        int playoffMatches;
+        int jerseyNumber;
+        byte kind;
+
+        void copy(Roster r) {
+            name = r.getName();
+            age = r.getAge();
+            matches = r.getMatchesAttended();
+            playoffMatches = r.getPlayoffMatchesAttended();
+            kind = 0;
+            if(r instanceof Player) {
+                Player player = (Player) r;
+                kind = PLAYER;
+                jerseyNumber = player.getJerseyNumber();
+                for (int i = 0; i < 3; i++) {
+                    values[i] = player.getStatistic(i);
+                }
+                for (int i = 0; i < 5; i++) {
+                    values[3 + i] = player.getPlayoffStatistic(i);
+                }
+            } else if(r instanceof Coach) {
+                Coach coach = (Coach) r;
+                kind = COACH;
+                values[0] = coach.getWinPercentage();
+                values[1] = coach.getPlayoffWinPercentage();
+            }
+        }
+    }
+
+
+    // NESTED ENUMS //
+
+    /**
+     * The formats an exporter can write in.
+     */
+    public enum Format {
+        CSV, JSON, JSON_LINES, BINARY;
+
+        /**
+         * Finds a format from its name, such as "csv", "json", "jsonl" or "binary", ignoring case.
+         *
+         * @param text the name
+         * @return the format, or null if none matches
+         */
+        public static Format find(String text) {
+            if(text.equalsIgnoreCase("jsonl") || text.equalsIgnoreCase("json-lines")) {
+                return JSON_LINES;
+            }
+            for (Format format : values()) {
+                if(format.name().equalsIgnoreCase(text)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+}
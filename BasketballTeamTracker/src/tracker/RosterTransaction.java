@@ -0,0 +1,408 @@
+package tracker;
+
+/**
+ * The RosterTransaction class is designed to try out a package of trades, hires and fires before
+ * any of them happen. Changes are staged against a snapshot of the roster taken when the
+ * transaction began, which is never copied: the transaction only remembers who would leave and
+ * who would join. The team's projected totals (points, assists and rebounds per game added up
+ * over the players, and the coaches' win percentage) are kept up to date as every change is
+ * staged or undone, so each one costs a few additions and the projection is always ready.
+ *
+ * Committing makes every staged change at once, and only if nobody joined or left the team since
+ * the transaction began. Discarding, or simply dropping the transaction, changes nothing. The free
+ * agents staged are read from the team's free agent pools, so evaluating a trade never touches
+ * the disk. A transaction belongs to one thread.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class RosterTransaction {
+    // FIELDS //
+    private final Team team;
+    private final long rosterVersion;
+    private final HashMap<String, Roster> base;
+    private final LinkedHashMap<String, Roster> leaving;
+    private final LinkedHashMap<String, Roster> joining;
+    private final HashSet<String> files;
+    private final ArrayDeque<Change> changes;
+    private double points;
+    private double assists;
+    private double rebounds;
+    private long coachWins;
+    private long coachMatches;
+    private int players;
+    private int coaches;
+    private boolean finished;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a transaction against a snapshot of a team's roster. Use Team.beginTransaction().
+     *
+     * @param team the team
+     * @param roster the roster snapshot
+     * @param rosterVersion the team's roster version when the snapshot was taken
+     */
+    RosterTransaction(Team team, List<Roster> roster, long rosterVersion) {
+        this.team = team;
+        this.rosterVersion = rosterVersion;
+        base = new HashMap<>(roster.size() * 2);
+        leaving = new LinkedHashMap<>();
+        joining = new LinkedHashMap<>();
+        files = new HashSet<>();
+        changes = new ArrayDeque<>();
+        for (Roster r : roster) {
+            base.put(r.getName(), r);
+            count(r, 1);
+        }
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access what the team would look like if the transaction were committed now.
+     *
+     * @return the projection
+     */
+    public Projection getProjection() {
+        return new Projection(points, assists, rebounds, coachMatches == 0 ? 0 : coachWins * 100.0 / coachMatches, players, coaches);
+    }
+
+    /**
+     * Access the number of changes staged.
+     *
+     * @return the number of changes
+     */
+    public int getChanges() {
+        return changes.size();
+    }
+
+    /**
+     * Access whether a roster member would be on the team if the transaction were committed now.
+     *
+     * @param name the name of the roster member
+     * @return true if they would be on the team
+     */
+    public boolean isOnRoster(String name) {
+        return joining.containsKey(name) || (base.containsKey(name) && !leaving.containsKey(name));
+    }
+
+    /**
+     * Access the team's roster version the transaction began at.
+     *
+     * @return the roster version
+     */
+    long getRosterVersion() {
+        return rosterVersion;
+    }
+
+    /**
+     * Access the roster members who would leave, in the order they were staged.
+     *
+     * @return the roster members
+     */
+    List<Roster> getLeaving() {
+        return new ArrayList<>(leaving.values());
+    }
+
+    /**
+     * Access the roster members who would join, in the order they were staged.
+     *
+     * @return the roster members
+     */
+    List<Roster> getJoining() {
+        return new ArrayList<>(joining.values());
+    }
+
+    /**
+     * Access the free agent files that would be moved to the trash, as folder and file name pairs.
+     *
+     * @return the files
+     */
+    List<String[]> getFiles() {
+        ArrayList<String[]> staged = new ArrayList<>();
+        changes.descendingIterator().forEachRemaining(change -> {
+            if(change.fileName != null) {
+                staged.add(new String[] {change.filePath, change.fileName});
+            }
+        });
+        return staged;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Stages trading a roster member for the free agents in a file.
+     *
+     * @param obtainPlayerPath the folder of the player you are obtaining
+     * @param obtainPlayerName the file name of the player you are obtaining
+     * @param losePlayerName the name of the player you are losing
+     * @return true if the trade was staged
+     */
+    public boolean trade(String obtainPlayerPath, String obtainPlayerName, String losePlayerName) {
+        if(!isOnRoster(losePlayerName)) {
+            System.out.println("Player " + losePlayerName + " doesn't exist");
+            return false;
+        }
+        return stage(obtainPlayerPath, obtainPlayerName, losePlayerName);
+    }
+
+    /**
+     * Stages hiring the coach in a file.
+     *
+     * @param coachFilePath the folder of the coach you are hiring
+     * @param coachName the file name of the coach you are hiring
+     * @return true if the hire was staged
+     */
+    public boolean hire(String coachFilePath, String coachName) {
+        return stage(coachFilePath, coachName, null);
+    }
+
+    /**
+     * Stages firing a roster member.
+     *
+     * @param coachName the name of the roster member
+     * @return true if the fire was staged
+     */
+    public boolean fire(String coachName) {
+        if(!isOnRoster(coachName)) {
+            System.out.println("Player " + coachName + " doesn't exist");
+            return false;
+        }
+        return stage(null, null, coachName);
+    }
+
+    /**
+     * Takes back the latest staged change.
+     *
+     * @return true if there was a change to take back
+     */
+    public boolean undo() {
+        Change change = changes.pollFirst();
+        if(change == null) {
+            return false;
+        }
+        for (Roster r : change.joining) {
+            joining.remove(r.getName());
+            count(r, -1);
+        }
+        if(change.leaving != null) {
+            if(change.leaverWasJoining) {
+                joining.put(change.leaving.getName(), change.leaving);
+            } else {
+                leaving.remove(change.leaving.getName());
+            }
+            count(change.leaving, 1);
+        }
+        if(change.fileName != null) {
+            files.remove(change.filePath + change.fileName);
+        }
+        return true;
+    }
+
+    /**
+     * Makes every staged change on the team at once.
+     *
+     * @return true if the changes were made; false if someone joined or left the team since the transaction began
+     */
+    public boolean commit() {
+        checkOpen();
+        finished = true;
+        return team.commitTransaction(this);
+    }
+
+    /**
+     * Drops every staged change without making any of them.
+     */
+    public void discard() {
+        checkOpen();
+        finished = true;
+    }
+
+    /**
+     * Stages free agents joining, someone leaving, or both.
+     *
+     * @param filePath the folder of the free agent file, or null if nobody joins
+     * @param fileName the free agent file, or null if nobody joins
+     * @param leaverName the name of whoever leaves, or null if nobody leaves
+     * @return true if the change was staged
+     */
+    private boolean stage(String filePath, String fileName, String leaverName) {
+        checkOpen();
+        List<Roster> signed = new ArrayList<>(0);
+        if(fileName != null) {
+            if(files.contains(filePath + fileName)) {
+                System.out.println(fileName + " is already part of this transaction");
+                return false;
+            }
+            signed = team.getFreeAgents(filePath).get(fileName);
+            if(signed == null) {
+                System.out.println("Problem reading file");
+                return false;
+            }
+            for (Roster r : signed) {
+                // check if player already exists
+                if(isOnRoster(r.getName()) && !r.getName().equals(leaverName)) {
+                    System.out.println("This player already exists!");
+                    return false;
+                }
+            }
+            files.add(filePath + fileName);
+        }
+
+        Roster leaver = null;
+        boolean leaverWasJoining = false;
+        if(leaverName != null) {
+            // someone staged to join earlier can be staged to leave again
+            leaver = joining.remove(leaverName);
+            leaverWasJoining = leaver != null;
+            if(leaver == null) {
+                leaver = base.get(leaverName);
+                leaving.put(leaverName, leaver);
+            }
+            count(leaver, -1);
+        }
+        for (Roster r : signed) {
+            joining.put(r.getName(), r);
+            count(r, 1);
+        }
+        changes.addFirst(new Change(leaver, leaverWasJoining, signed, filePath, fileName));
+        return true;
+    }
+
+    /**
+     * Adds a roster member to the projection, or takes them away.
+     *
+     * @param r the roster member
+     * @param sign 1 to add them and -1 to take them away
+     */
+    private void count(Roster r, int sign) {
+        if(r instanceof Player) {
+            points += sign * Category.PPG.score(r);
+            assists += sign * Category.APG.score(r);
+            rebounds += sign * Category.RPG.score(r);
+            players += sign;
+        } else if(r instanceof Coach) {
+            coachWins += sign * ((Coach) r).getWins();
+            coachMatches += sign * r.getMatchesAttended();
+            coaches += sign;
+        }
+    }
+
+    private void checkOpen() {
+        if(finished) {
+            throw new IllegalStateException("The transaction was already committed or discarded");
+        }
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * What a team would look like after a transaction.
+     */
+    public static final class Projection {
+        private final double points;
+        private final double assists;
+        private final double rebounds;
+        private final double winPercentage;
+        private final int players;
+        private final int coaches;
+
+        Projection(double points, double assists, double rebounds, double winPercentage, int players, int coaches) {
+            this.points = points;
+            this.assists = assists;
+            this.rebounds = rebounds;
+            this.winPercentage = winPercentage;
+            this.players = players;
+            this.coaches = coaches;
+        }
+
+        /**
+         * Access the players' points per game added up.
+         *
+         * @return the unrounded total
+         */
+        public double getPoints() {
+            return points;
+        }
+
+        /**
+         * Access the players' assists per game added up.
+         *
+         * @return the unrounded total
+         */
+        public double getAssists() {
+            return assists;
+        }
+
+        /**
+         * Access the players' rebounds per game added up.
+         *
+         * @return the unrounded total
+         */
+        public double getRebounds() {
+            return rebounds;
+        }
+
+        /**
+         * Access the coaches' win percentage over every match they have coached.
+         *
+         * @return the unrounded percentage, or 0 if they have not coached any matches
+         */
+        public double getWinPercentage() {
+            return winPercentage;
+        }
+
+        /**
+         * Access the number of players.
+         *
+         * @return the number of players
+         */
+        public int getPlayers() {
+            return players;
+        }
+
+        /**
+         * Access the number of coaches.
+         *
+         * @return the number of coaches
+         */
+        public int getCoaches() {
+            return coaches;
+        }
+
+        @Override
+        public String toString() {
+            return players + " players: " + Roster.round(points) + " ppg, " + Roster.round(assists) + " apg, " + Roster.round(rebounds) + " rpg; "
+                    + coaches + " coaches: " + Roster.round(winPercentage) + "% wins";
+        }
+    }
+
+    /**
+     * One staged change: who leaves, who joins and the free agent file they came from.
+     */
+    private static final class Change {
+        final Roster leaving;
+        final boolean leaverWasJoining;
+        final List<Roster> joining;
+        final String filePath;
+        final String fileName;
+
+        Change(Roster leaving, boolean leaverWasJoining, List<Roster> joining, String filePath, String fileName) {
+            this.leaving = leaving;
+            this.leaverWasJoining = leaverWasJoining;
+            this.joining = joining;
+            this.filePath = filePath;
+            this.fileName = fileName;
+        }
+    }
+}
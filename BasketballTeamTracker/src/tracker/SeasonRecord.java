@@ -0,0 +1,327 @@
+package tracker;
+
+/**
+ * The SeasonRecord class is designed to keep a team's record up to date as every match is
+ * played: wins and losses, points for and against and the average margin for the regular season,
+ * its home and away games and the playoffs, the record against every opponent, and the current
+ * and longest winning and losing streaks.
+ *
+ * Every total is a running count that a match adds to, so recording a match and asking for any
+ * record both take the same few steps whether the team has played ten games or tens of thousands.
+ * Records that are asked for are copies, so they never change while they are being looked at.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+public class SeasonRecord {
+    // FIELDS //
+    private final Record regularSeason;
+    private final Record home;
+    private final Record away;
+    private final Record playoffs;
+    private final HashMap<String, Record> opponents;
+    private int streak;
+    private int longestWinStreak;
+    private int longestLosingStreak;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs the record of a team that has not played yet.
+     */
+    public SeasonRecord() {
+        regularSeason = new Record();
+        home = new Record();
+        away = new Record();
+        playoffs = new Record();
+        opponents = new HashMap<>();
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the regular season record.
+     *
+     * @return a copy of the record
+     */
+    public synchronized Record getRegularSeason() {
+        return regularSeason.copy();
+    }
+
+    /**
+     * Access the record of the regular season matches played at home.
+     *
+     * @return a copy of the record
+     */
+    public synchronized Record getHome() {
+        return home.copy();
+    }
+
+    /**
+     * Access the record of the regular season matches played away.
+     *
+     * @return a copy of the record
+     */
+    public synchronized Record getAway() {
+        return away.copy();
+    }
+
+    /**
+     * Access the playoff record.
+     *
+     * @return a copy of the record
+     */
+    public synchronized Record getPlayoffs() {
+        return playoffs.copy();
+    }
+
+    /**
+     * Access the record against one opponent, over both the regular season and the playoffs.
+     *
+     * @param opponentTeam the name of the opponent team
+     * @return a copy of the record, which is empty if they have never played
+     */
+    public synchronized Record getHeadToHead(String opponentTeam) {
+        Record record = opponents.get(opponentTeam);
+        return record == null ? new Record() : record.copy();
+    }
+
+    /**
+     * Access the name of every opponent the team has played.
+     *
+     * @return the names in alphabetical order
+     */
+    public synchronized List<String> getOpponents() {
+        ArrayList<String> names = new ArrayList<>(opponents.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Access the current streak over every match, regular season and playoffs, in the order played.
+     *
+     * @return the number of wins in a row, or minus the number of losses in a row, or 0 before the first match
+     */
+    public synchronized int getStreak() {
+        return streak;
+    }
+
+    /**
+     * Access the most wins the team has had in a row.
+     *
+     * @return the number of wins
+     */
+    public synchronized int getLongestWinStreak() {
+        return longestWinStreak;
+    }
+
+    /**
+     * Access the most losses the team has had in a row.
+     *
+     * @return the number of losses
+     */
+    public synchronized int getLongestLosingStreak() {
+        return longestLosingStreak;
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds a match that was just played.
+     *
+     * @param m the match, which counts for the playoffs if it is a PlayoffMatch
+     */
+    public synchronized void add(Match m) {
+        boolean isWin = m.isWin();
+        if(m instanceof PlayoffMatch) {
+            playoffs.add(m);
+        } else {
+            regularSeason.add(m);
+            if(m.getVenue() == GameLog.Venue.HOME) {
+                home.add(m);
+            } else if(m.getVenue() == GameLog.Venue.AWAY) {
+                away.add(m);
+            }
+        }
+        opponents.computeIfAbsent(m.getOpponentTeam(), name -> new Record()).add(m);
+
+        if(isWin) {
+            streak = streak > 0 ? streak + 1 : 1;
+            longestWinStreak = Math.max(longestWinStreak, streak);
+        } else {
+            streak = streak < 0 ? streak - 1 : -1;
+            longestLosingStreak = Math.max(longestLosingStreak, -streak);
+        }
+    }
+
+    /**
+     * Puts back the streaks saved with the matches, once the matches have been added again. Adding
+     * them again only gets the totals right, since they are not added in the order they were played.
+     *
+     * @param streak the current streak
+     * @param longestWinStreak the most wins in a row
+     * @param longestLosingStreak the most losses in a row
+     */
+    synchronized void restoreStreaks(int streak, int longestWinStreak, int longestLosingStreak) {
+        this.streak = streak;
+        this.longestWinStreak = longestWinStreak;
+        this.longestLosingStreak = longestLosingStreak;
+    }
+
+    /**
+     * Forgets every match.
+     */
+    public synchronized void clear() {
+        regularSeason.clear();
+        home.clear();
+        away.clear();
+        playoffs.clear();
+        opponents.clear();
+        streak = 0;
+        longestWinStreak = 0;
+        longestLosingStreak = 0;
+    }
+
+    /**
+     * Nicely displays the team's records and streaks.
+     */
+    public void display() {
+        Record regular;
+        Record atHome;
+        Record onTheRoad;
+        Record playoff;
+        int current;
+        int longestWins;
+        int longestLosses;
+        synchronized (this) {
+            regular = regularSeason.copy();
+            atHome = home.copy();
+            onTheRoad = away.copy();
+            playoff = playoffs.copy();
+            current = streak;
+            longestWins = longestWinStreak;
+            longestLosses = longestLosingStreak;
+        }
+        System.out.println("Regular season: " + regular);
+        System.out.println("\tHome: " + atHome);
+        System.out.println("\tAway: " + onTheRoad);
+        System.out.println("Playoffs: " + playoff);
+        System.out.println("Streak: " + (current == 0 ? "-" : current > 0 ? "W" + current : "L" + -current)
+                + " (longest W" + longestWins + ", L" + longestLosses + ")");
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * Wins, losses and points over some matches.
+     */
+    public static final class Record {
+        private int wins;
+        private int losses;
+        private long pointsFor;
+        private long pointsAgainst;
+
+        /**
+         * Access the number of matches won.
+         *
+         * @return the number of wins
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * Access the number of matches lost.
+         *
+         * @return the number of losses
+         */
+        public int getLosses() {
+            return losses;
+        }
+
+        /**
+         * Access the number of matches played.
+         *
+         * @return the number of matches
+         */
+        public int getGames() {
+            return wins + losses;
+        }
+
+        /**
+         * Access the points scored over every match.
+         *
+         * @return the total
+         */
+        public long getPointsFor() {
+            return pointsFor;
+        }
+
+        /**
+         * Access the points let in over every match.
+         *
+         * @return the total
+         */
+        public long getPointsAgainst() {
+            return pointsAgainst;
+        }
+
+        /**
+         * Access the share of matches won.
+         *
+         * @return the unrounded percentage, or 0 if no matches were played
+         */
+        public double getWinPercentage() {
+            return getGames() == 0 ? 0 : wins * 100.0 / getGames();
+        }
+
+        /**
+         * Access the average number of points the team won or lost by.
+         *
+         * @return the unrounded margin, which is negative if the team was outscored, or 0 if no matches were played
+         */
+        public double getAverageMargin() {
+            return getGames() == 0 ? 0 : (double) (pointsFor - pointsAgainst) / getGames();
+        }
+
+        void add(Match m) {
+            if(m.isWin()) {
+                wins++;
+            } else {
+                losses++;
+            }
+            pointsFor += m.getYourScore();
+            pointsAgainst += m.getOpponentScore();
+        }
+
+        void clear() {
+            wins = 0;
+            losses = 0;
+            pointsFor = 0;
+            pointsAgainst = 0;
+        }
+
+        Record copy() {
+            Record copy = new Record();
+            copy.wins = wins;
+            copy.losses = losses;
+            copy.pointsFor = pointsFor;
+            copy.pointsAgainst = pointsAgainst;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d-%d (%.1f%%), %.1f - %.1f points per game, %+.1f margin", wins, losses, Roster.round(getWinPercentage()),
+                    getGames() == 0 ? 0 : Roster.round((double) pointsFor / getGames()),
+                    getGames() == 0 ? 0 : Roster.round((double) pointsAgainst / getGames()), Roster.round(getAverageMargin()));
+        }
+    }
+}
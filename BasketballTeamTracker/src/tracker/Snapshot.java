@@ -0,0 +1,673 @@
+package tracker;
+
+/**
+ * The Snapshot class is designed to save and open a whole team (the roster, the regular season
+ * matches and the playoff matches) as a binary file. Every text field is written as its length
+ * followed by its bytes, and everything else in a record has a fixed size, so opening a snapshot
+ * only reads the fields at known positions; nothing has to be split or parsed, and a name can be
+ * as long as it likes. The file is read and written through one 64 KiB buffer at a time rather
+ * than mapped, so a snapshot can be replaced while the program runs (Windows refuses to replace a
+ * mapped file) and its size is not limited to what one mapping can hold. The file starts with a
+ * header holding a magic number, the format version, the number of records of each kind and the
+ * journal generation the snapshot was taken at: every journal record written before that
+ * generation is already in the snapshot, so a journal left behind by a compaction that stopped
+ * halfway is not applied a second time.
+ *
+ * Layout (version 7, big endian):
+ *   header:        magic (int), version (int), roster count (int), match count (int), playoff match count (int),
+ *                  journal generation (long)
+ *   roster member: name (text), kind (byte), age (int), matches (int), playoff matches (int),
+ *                  jersey number (int), eight totals (double), padding to 88 bytes after the name
+ *                  (a coach's jersey number is 0 and the first two totals hold their wins and playoff wins)
+ *   match:         opponent (text), your score (int), opponent score (int)
+ *   playoff match: opponent (text), your score (int), opponent score (int), bracket stage (text)
+ *   game log:      player count (int), then for each player their name (text) and line count (int),
+ *                  followed by one line per game they played: day (int), venue and playoff flags (byte),
+ *                  five stats (double), padding to 48 bytes
+ *   venues:        one byte per match and then per playoff match, in the same order
+ *   streaks:       current streak (int), longest winning streak (int), longest losing streak (int)
+ * Text fields hold a four byte length followed by that many UTF-8 bytes. Before version 7 they had
+ * a fixed width instead, a two byte length followed by UTF-8 bytes padded with zeros to 64 bytes
+ * (32 for a bracket stage), so a roster member took 152 bytes. Version 1 snapshots have no game log, version 1 and 2 snapshots have no venues, snapshots before version 4 have no
+ * journal generation (it is read as 0) and snapshots before version 5 repeat the player's name on
+ * every game log line (a line count, then lines of name, day, flags and stats padded to 112 bytes).
+ * Snapshots before version 6 have no streaks, so they are worked out again from the matches, in the
+ * order they are listed. All of them can still be opened.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Snapshot {
+    // CONSTANTS //
+    public static final int MAGIC = 0x42545453; // "BTTS"
+    public static final int VERSION = 7;
+
+    private static final int HEADER_BYTES = 28;
+    private static final int OLD_HEADER_BYTES = 20; // before version 4
+    private static final int FIELDS_BYTES = 88; // a roster member after their name
+    private static final int GAME_BYTES = 48;
+
+    // text fields had a fixed width before version 7
+    private static final int NAME_BYTES = 64;
+    private static final int STAGE_BYTES = 32;
+    private static final int ROSTER_BYTES = NAME_BYTES + FIELDS_BYTES;
+    private static final int MATCH_BYTES = NAME_BYTES + 8;
+    private static final int PLAYOFF_MATCH_BYTES = NAME_BYTES + 8 + STAGE_BYTES;
+    private static final int OLD_LINE_BYTES = 112; // before version 5
+
+    // how much is read or written at a time; every record has to fit
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private static final byte PLAYER = 0;
+    private static final byte COACH = 1;
+
+
+    // FIELDS //
+    private final ArrayList<Roster> roster;
+    private final ArrayList<Match> matches;
+    private final ArrayList<PlayoffMatch> playoffMatches;
+    private final GameLog gameLog;
+    private final long generation;
+    private final int[] streaks;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a snapshot from the contents of a team.
+     *
+     * @param roster
+     * @param matches
+     * @param playoffMatches
+     * @param gameLog
+     * @param generation
+     * @param streaks the current, longest winning and longest losing streaks, or null if they were not saved
+     */
+    public Snapshot(ArrayList<Roster> roster, ArrayList<Match> matches, ArrayList<PlayoffMatch> playoffMatches, GameLog gameLog, long generation, int[] streaks) {
+        this.roster = roster;
+        this.matches = matches;
+        this.playoffMatches = playoffMatches;
+        this.gameLog = gameLog;
+        this.generation = generation;
+        this.streaks = streaks;
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Accesses the roster members in the snapshot.
+     *
+     * @return the roster members
+     */
+    public ArrayList<Roster> getRoster() {
+        return roster;
+    }
+
+    /**
+     * Accesses the regular season matches in the snapshot.
+     *
+     * @return the matches
+     */
+    public ArrayList<Match> getMatches() {
+        return matches;
+    }
+
+    /**
+     * Accesses the playoff matches in the snapshot.
+     *
+     * @return the playoff matches
+     */
+    public ArrayList<PlayoffMatch> getPlayoffMatches() {
+        return playoffMatches;
+    }
+
+    /**
+     * Accesses the players' per game stat lines in the snapshot.
+     *
+     * @return the game log, which is empty for a version 1 snapshot
+     */
+    public GameLog getGameLog() {
+        return gameLog;
+    }
+
+    /**
+     * Accesses the journal generation the snapshot was taken at.
+     *
+     * @return the first generation of journal records that are not in the snapshot, or 0 if the snapshot was not taken from a journal
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Accesses the team's streaks when the snapshot was saved, which the matches alone cannot tell
+     * since the regular season and playoff matches are listed apart.
+     *
+     * @return the current, longest winning and longest losing streaks, or null for a snapshot from before version 6
+     */
+    public int[] getStreaks() {
+        return streaks;
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Writes a team's roster, matches and game log to a snapshot file. The snapshot is written next to the
+     * file first and then moved over it, so a crash never leaves a half written snapshot behind.
+     *
+     * @param snapshotFilePath the snapshot file's location
+     * @param roster the roster members
+     * @param matches the regular season matches
+     * @param playoffMatches the playoff matches
+     * @param gameLog the players' per game stat lines, which must not change while they are written
+     * @param seasonRecord the team's record, whose streaks are saved
+     * @param generation the first generation of journal records that are not in the snapshot, or 0
+     * @throws IOException if the file could not be written
+     */
+    public static void write(String snapshotFilePath, List<Roster> roster, List<Match> matches, List<PlayoffMatch> playoffMatches, GameLog gameLog,
+                             SeasonRecord seasonRecord, long generation) throws IOException {
+        Path target = Paths.get(snapshotFilePath);
+        Path temporary = Paths.get(snapshotFilePath + ".tmp");
+
+        try (Output out = new Output(FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            ByteBuffer buffer = out.reserve(HEADER_BYTES);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(roster.size());
+            buffer.putInt(matches.size());
+            buffer.putInt(playoffMatches.size());
+            buffer.putLong(generation);
+
+            for (Roster r : roster) {
+                out.putText(r.getName());
+                putFields(out.reserve(FIELDS_BYTES), r);
+            }
+
+            for (Match m : matches) {
+                out.putText(m.getOpponentTeam());
+                buffer = out.reserve(8);
+                buffer.putInt(m.getYourScore());
+                buffer.putInt(m.getOpponentScore());
+            }
+
+            for (PlayoffMatch m : playoffMatches) {
+                out.putText(m.getOpponentTeam());
+                buffer = out.reserve(8);
+                buffer.putInt(m.getYourScore());
+                buffer.putInt(m.getOpponentScore());
+                out.putText(m.getBracketStage());
+            }
+
+            out.reserve(4).putInt(gameLog.getPlayers());
+            String[] player = new String[1];
+            try {
+                // every player's lines are handed out together, so their name is written once before them
+                gameLog.forEachLine((name, day, flags, line) -> {
+                    try {
+                        if(!name.equals(player[0])) {
+                            out.putText(name);
+                            out.reserve(4).putInt(gameLog.getGames(name));
+                            player[0] = name;
+                        }
+                        ByteBuffer record = out.reserve(GAME_BYTES);
+                        int start = record.position();
+                        record.putInt(day);
+                        record.put(flags);
+                        for (double stat : line) {
+                            record.putDouble(stat);
+                        }
+                        record.position(start + GAME_BYTES);
+                    } catch (IOException iox) {
+                        throw new UncheckedIOException(iox);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            for (Match m : matches) {
+                out.reserve(1).put((byte) m.getVenue().ordinal());
+            }
+            for (PlayoffMatch m : playoffMatches) {
+                out.reserve(1).put((byte) m.getVenue().ordinal());
+            }
+
+            buffer = out.reserve(12);
+            buffer.putInt(seasonRecord.getStreak());
+            buffer.putInt(seasonRecord.getLongestWinStreak());
+            buffer.putInt(seasonRecord.getLongestLosingStreak());
+
+            out.force();
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens a snapshot file, reading it a chunk at a time.
+     *
+     * @param snapshotFilePath the snapshot file's location
+     * @return the snapshot
+     * @throws IOException if the file could not be read or is not a snapshot this version understands
+     */
+    public static Snapshot read(String snapshotFilePath) throws IOException {
+        try (Input in = new Input(FileChannel.open(Paths.get(snapshotFilePath), StandardOpenOption.READ), snapshotFilePath)) {
+            if(in.size() < OLD_HEADER_BYTES) {
+                throw new IOException(snapshotFilePath + " is not a snapshot");
+            }
+            ByteBuffer buffer = in.require(OLD_HEADER_BYTES);
+
+            if(buffer.getInt() != MAGIC) {
+                throw new IOException(snapshotFilePath + " is not a snapshot");
+            }
+            int version = buffer.getInt();
+            if(version < 1 || version > VERSION) {
+                throw new IOException(snapshotFilePath + " is snapshot version " + version + ", expected " + VERSION);
+            }
+
+            int rosterCount = buffer.getInt();
+            int matchCount = buffer.getInt();
+            int playoffMatchCount = buffer.getInt();
+            long generation = version > 3 ? in.require(8).getLong() : 0;
+            // from version 7 every text field takes at least its four byte length
+            long expected = version > 6
+                    ? HEADER_BYTES + (long) rosterCount * (4 + FIELDS_BYTES) + (long) matchCount * (4 + 8) + (long) playoffMatchCount * (4 + 8 + 4)
+                    : (version > 3 ? HEADER_BYTES : OLD_HEADER_BYTES) + (long) rosterCount * ROSTER_BYTES + (long) matchCount * MATCH_BYTES + (long) playoffMatchCount * PLAYOFF_MATCH_BYTES;
+            if(rosterCount < 0 || matchCount < 0 || playoffMatchCount < 0 || in.size() < expected) {
+                throw new IOException(snapshotFilePath + " is cut short");
+            }
+
+            ArrayList<Roster> roster = new ArrayList<>(rosterCount);
+            for (int i = 0; i < rosterCount; i++) {
+                if(version > 6) {
+                    String name = in.getText();
+                    roster.add(getFields(in.require(FIELDS_BYTES), name));
+                } else {
+                    roster.add(getRoster(in.require(ROSTER_BYTES)));
+                }
+            }
+
+            // the venues come after the game log, so the matches are made once they have been read
+            String[] opponents = new String[matchCount + playoffMatchCount];
+            int[] scores = new int[opponents.length * 2];
+            String[] stages = new String[playoffMatchCount];
+            for (int i = 0; i < opponents.length; i++) {
+                if(version > 6) {
+                    opponents[i] = in.getText();
+                    buffer = in.require(8);
+                    scores[i * 2] = buffer.getInt();
+                    scores[i * 2 + 1] = buffer.getInt();
+                    if(i >= matchCount) {
+                        stages[i - matchCount] = in.getText();
+                    }
+                } else {
+                    buffer = in.require(i < matchCount ? MATCH_BYTES : PLAYOFF_MATCH_BYTES);
+                    opponents[i] = getText(buffer, NAME_BYTES);
+                    scores[i * 2] = buffer.getInt();
+                    scores[i * 2 + 1] = buffer.getInt();
+                    if(i >= matchCount) {
+                        stages[i - matchCount] = getText(buffer, STAGE_BYTES);
+                    }
+                }
+            }
+
+            GameLog gameLog = new GameLog();
+            double[] line = new double[BoxScore.STATS_PER_PLAYER];
+            if(version > 4) {
+                int playerCount = in.require(4).getInt();
+                if(playerCount < 0) {
+                    throw new IOException(snapshotFilePath + " is cut short");
+                }
+                for (int p = 0; p < playerCount; p++) {
+                    String name;
+                    int lineCount;
+                    if(version > 6) {
+                        name = in.getText();
+                        lineCount = in.require(4).getInt();
+                    } else {
+                        buffer = in.require(NAME_BYTES + 4);
+                        name = getText(buffer, NAME_BYTES);
+                        lineCount = buffer.getInt();
+                    }
+                    if(lineCount < 0 || in.size() - in.position() < (long) lineCount * GAME_BYTES) {
+                        throw new IOException(snapshotFilePath + " is cut short");
+                    }
+                    for (int i = 0; i < lineCount; i++) {
+                        buffer = in.require(GAME_BYTES);
+                        int start = buffer.position();
+                        int day = buffer.getInt();
+                        byte flags = buffer.get();
+                        for (int stat = 0; stat < line.length; stat++) {
+                            line[stat] = buffer.getDouble();
+                        }
+                        gameLog.add(name, day, flags, line);
+                        buffer.position(start + GAME_BYTES);
+                    }
+                }
+            } else if(version > 1) {
+                int lineCount = in.require(4).getInt();
+                if(lineCount < 0 || in.size() - in.position() < (long) lineCount * OLD_LINE_BYTES) {
+                    throw new IOException(snapshotFilePath + " is cut short");
+                }
+                for (int i = 0; i < lineCount; i++) {
+                    buffer = in.require(OLD_LINE_BYTES);
+                    int start = buffer.position();
+                    String name = getText(buffer, NAME_BYTES);
+                    int day = buffer.getInt();
+                    byte flags = buffer.get();
+                    for (int stat = 0; stat < line.length; stat++) {
+                        line[stat] = buffer.getDouble();
+                    }
+                    gameLog.add(name, day, flags, line);
+                    buffer.position(start + OLD_LINE_BYTES);
+                }
+            }
+
+            GameLog.Venue[] venues = new GameLog.Venue[opponents.length];
+            for (int i = 0; i < venues.length; i++) {
+                venues[i] = version > 2 ? toVenue(in.require(1).get()) : GameLog.Venue.UNKNOWN;
+            }
+
+            int[] streaks = null;
+            if(version > 5) {
+                buffer = in.require(12);
+                streaks = new int[] {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+            }
+
+            ArrayList<Match> matches = new ArrayList<>(matchCount);
+            for (int i = 0; i < matchCount; i++) {
+                matches.add(new Match(opponents[i], scores[i * 2], scores[i * 2 + 1], venues[i]));
+            }
+            ArrayList<PlayoffMatch> playoffMatches = new ArrayList<>(playoffMatchCount);
+            for (int i = matchCount; i < opponents.length; i++) {
+                playoffMatches.add(new PlayoffMatch(opponents[i], scores[i * 2], scores[i * 2 + 1], stages[i - matchCount], venues[i]));
+            }
+
+            return new Snapshot(roster, matches, playoffMatches, gameLog, generation, streaks);
+        }
+    }
+
+    /**
+     * Writes one roster member as a record: the length of their name, the name, then their fields.
+     *
+     * @param r the roster member
+     * @return the record
+     */
+    static byte[] toRecord(Roster r) {
+        byte[] name = r.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + name.length + FIELDS_BYTES);
+        buffer.putInt(name.length);
+        buffer.put(name);
+        putFields(buffer, r);
+        return buffer.array();
+    }
+
+    /**
+     * Reads one roster member written by toRecord.
+     *
+     * @param buffer the buffer to read from
+     * @return the roster member
+     */
+    static Roster getMember(ByteBuffer buffer) {
+        byte[] name = new byte[buffer.getInt()];
+        buffer.get(name);
+        return getFields(buffer, new String(name, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads one roster member in the fixed size layout used before version 7, which older journal
+     * records also hold.
+     *
+     * @param buffer the buffer to read from
+     * @return the roster member
+     */
+    static Roster getRoster(ByteBuffer buffer) {
+        return getFields(buffer, getText(buffer, NAME_BYTES));
+    }
+
+    /**
+     * Writes everything about a roster member but their name.
+     *
+     * @param buffer the buffer to write into
+     * @param r the roster member
+     */
+    private static void putFields(ByteBuffer buffer, Roster r) {
+        int start = buffer.position();
+        buffer.put(r instanceof Player ? PLAYER : COACH);
+        buffer.putInt(r.getAge());
+        buffer.putInt(r.getMatchesAttended());
+        buffer.putInt(r.getPlayoffMatchesAttended());
+
+        if(r instanceof Player) {
+            Player player = (Player) r;
+            buffer.putInt(player.getJerseyNumber());
+            for (int c = 0; c < StatTable.COLUMNS; c++) {
+                buffer.putDouble(player.getTotal(c));
+            }
+        } else {
+            Coach coach = (Coach) r;
+            buffer.putInt(0);
+            buffer.putDouble(coach.getWins());
+            buffer.putDouble(coach.getPlayoffWins());
+        }
+        buffer.position(start + FIELDS_BYTES);
+    }
+
+    /**
+     * Reads everything about a roster member written by putFields.
+     *
+     * @param buffer the buffer to read from
+     * @param name the roster member's name
+     * @return the roster member
+     */
+    private static Roster getFields(ByteBuffer buffer, String name) {
+        int start = buffer.position();
+        byte kind = buffer.get();
+        int age = buffer.getInt();
+        int matchesAttended = buffer.getInt();
+        int playoffMatchesAttended = buffer.getInt();
+        int jerseyNumber = buffer.getInt();
+        Roster r;
+
+        if(kind == PLAYER) {
+            Player player = new Player(name, age, jerseyNumber, matchesAttended, playoffMatchesAttended);
+            for (int c = 0; c < StatTable.COLUMNS; c++) {
+                player.getTable().setTotal(c, player.getRow(), buffer.getDouble());
+            }
+            r = player;
+        } else {
+            Coach coach = new Coach(name, age, matchesAttended, playoffMatchesAttended);
+            coach.setWins((int) buffer.getDouble(), (int) buffer.getDouble());
+            r = coach;
+        }
+        buffer.position(start + FIELDS_BYTES);
+        return r;
+    }
+
+    /**
+     * Turns a venue byte back into a venue.
+     *
+     * @param ordinal the byte
+     * @return the venue, or unknown if the byte is not one
+     */
+    private static GameLog.Venue toVenue(byte ordinal) {
+        return ordinal >= 0 && ordinal < GameLog.Venue.values().length ? GameLog.Venue.values()[ordinal] : GameLog.Venue.UNKNOWN;
+    }
+
+    /**
+     * Reads a fixed width text field from before version 7: a two byte length, the UTF-8 bytes,
+     * then zeros up to the field's width.
+     *
+     * @param buffer the buffer to read from
+     * @param width the width of the field in bytes
+     * @return the text
+     */
+    private static String getText(ByteBuffer buffer, int width) {
+        int start = buffer.position();
+        int length = Math.min(buffer.getShort() & 0xFFFF, width - 2);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(start + width);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * Writes a file through one reusable buffer, handing out room for one record at a time and
+     * writing the buffer out whenever a record would not fit.
+     */
+    private static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            buffer = ByteBuffer.allocate(CHUNK_BYTES);
+        }
+
+        /**
+         * Makes room for a record.
+         *
+         * @param bytes the size of the record, at most CHUNK_BYTES
+         * @return the buffer to put the record in
+         */
+        ByteBuffer reserve(int bytes) throws IOException {
+            if(buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        /**
+         * Writes a text field: its length, then its UTF-8 bytes, a chunk at a time if it is longer than one.
+         *
+         * @param text the text
+         */
+        void putText(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            reserve(4).putInt(bytes.length);
+            for (int done = 0; done < bytes.length; ) {
+                int count = Math.min(CHUNK_BYTES, bytes.length - done);
+                reserve(count).put(bytes, done, count);
+                done += count;
+            }
+        }
+
+        /**
+         * Writes out everything put so far and forces it onto the disk.
+         */
+        void force() throws IOException {
+            flush();
+            channel.force(true);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a file through one reusable buffer, refilling it whenever the next record is not all there yet.
+     */
+    private static final class Input implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final String filePath;
+        private final long size;
+        private long read;
+
+        Input(FileChannel channel, String filePath) throws IOException {
+            this.channel = channel;
+            this.filePath = filePath;
+            size = channel.size();
+            buffer = ByteBuffer.allocate(CHUNK_BYTES);
+            buffer.limit(0);
+        }
+
+        /**
+         * Access the size of the file.
+         */
+        long size() {
+            return size;
+        }
+
+        /**
+         * Access how far into the file the next record starts.
+         */
+        long position() {
+            return read - buffer.remaining();
+        }
+
+        /**
+         * Makes sure the next record is in the buffer.
+         *
+         * @param bytes the size of the record, at most CHUNK_BYTES
+         * @return the buffer, positioned at the record
+         * @throws IOException if the file ends before the record does
+         */
+        ByteBuffer require(int bytes) throws IOException {
+            if(buffer.remaining() < bytes) {
+                buffer.compact();
+                while(buffer.position() < bytes) {
+                    int count = channel.read(buffer);
+                    if(count < 0) {
+                        throw new IOException(filePath + " is cut short");
+                    }
+                    read += count;
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+
+        /**
+         * Reads a text field written by Output.putText.
+         *
+         * @return the text
+         * @throws IOException if the file ends before the text does
+         */
+        String getText() throws IOException {
+            int length = require(4).getInt();
+            if(length < 0 || size - position() < length) {
+                throw new IOException(filePath + " is cut short");
+            }
+            byte[] bytes = new byte[length];
+            for (int done = 0; done < length; ) {
+                int count = Math.min(CHUNK_BYTES, length - done);
+                require(count).get(bytes, done, count);
+                done += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
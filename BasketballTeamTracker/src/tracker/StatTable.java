@@ -0,0 +1,413 @@
+package tracker;
+
+/**
+ * The StatTable class is designed to store the statistics of many players in columns: one
+ * primitive array per stat, where every player owns one row. A Player only keeps track of
+ * the table and row it lives in, so queries over the whole table (such as the top scorers or
+ * the average of a stat) run over contiguous arrays instead of visiting every Player object.
+ * Rows are kept dense, so removing a player moves the last row into the gap.
+ *
+ * A row only changes while its player's lock is held, so the queries over the whole table read
+ * each row while holding its player's lock, and never see a total without its matches played.
+ * Rows are only added and removed while nobody is reading the table.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class StatTable {
+    // CONSTANTS //
+
+    // columns holding stat totals
+    public static final int POINTS = 0;
+    public static final int ASSISTS = 1;
+    public static final int REBOUNDS = 2;
+    public static final int PLAYOFF_POINTS = 3;
+    public static final int PLAYOFF_ASSISTS = 4;
+    public static final int PLAYOFF_REBOUNDS = 5;
+    public static final int PLAYOFF_FIELD_GOAL = 6;
+    public static final int PLAYOFF_THREE_POINT = 7;
+    public static final int COLUMNS = 8;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+
+    // FIELDS //
+    private double[][] totals;
+    private int[] games;
+    private int[] playoffGames;
+    private Player[] players;
+    private int size;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs an empty table.
+     */
+    public StatTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty table with room for a number of players.
+     *
+     * @param capacity the number of players to make room for
+     */
+    public StatTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        totals = new double[COLUMNS][capacity];
+        games = new int[capacity];
+        playoffGames = new int[capacity];
+        players = new Player[capacity];
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the number of players in the table.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Access the player who owns a row.
+     *
+     * @param row the row
+     * @return the player
+     */
+    public Player getPlayer(int row) {
+        return players[row];
+    }
+
+    /**
+     * Access a stat total of a row.
+     *
+     * @param column the stat column
+     * @param row the row
+     * @return the total
+     */
+    public double getTotal(int column, int row) {
+        return totals[column][row];
+    }
+
+    /**
+     * Access the matches played by a row.
+     *
+     * @param row the row
+     * @return the matches played
+     */
+    public int getGames(int row) {
+        return games[row];
+    }
+
+    /**
+     * Access the playoff matches played by a row.
+     *
+     * @param row the row
+     * @return the playoff matches played
+     */
+    public int getPlayoffGames(int row) {
+        return playoffGames[row];
+    }
+
+    /**
+     * Access the exact (not rounded) per game average of a stat for a row.
+     *
+     * @param column the stat column
+     * @param row the row
+     * @return the average, or 0 if no games were played
+     */
+    public double getAverage(int column, int row) {
+        int played = column < PLAYOFF_POINTS ? games[row] : playoffGames[row];
+        return played == 0 ? 0 : totals[column][row] / played;
+    }
+
+
+    // MUTATOR METHODS //
+
+    /**
+     * Adds to a stat total of a row.
+     *
+     * @param column the stat column
+     * @param row the row
+     * @param amount the amount to add
+     */
+    void addTotal(int column, int row, double amount) {
+        totals[column][row] += amount;
+    }
+
+    /**
+     * Sets a stat total of a row.
+     *
+     * @param column the stat column
+     * @param row the row
+     * @param total the new total
+     */
+    void setTotal(int column, int row, double total) {
+        totals[column][row] = total;
+    }
+
+    /**
+     * Sets the matches played by a row.
+     *
+     * @param row the row
+     * @param matches the matches played
+     * @param playoffMatches the playoff matches played
+     */
+    void setGames(int row, int matches, int playoffMatches) {
+        games[row] = matches;
+        playoffGames[row] = playoffMatches;
+    }
+
+    /**
+     * Sets every stat total of a row to zero.
+     *
+     * @param row the row
+     */
+    void clearRow(int row) {
+        for (double[] column : totals) {
+            column[row] = 0;
+        }
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Adds a row for a player, copying their stats from another row.
+     *
+     * @param player the player who owns the new row
+     * @param from the table the stats are copied from
+     * @param fromRow the row the stats are copied from
+     * @return the new row
+     */
+    int add(Player player, StatTable from, int fromRow) {
+        if(size == players.length) {
+            grow();
+        }
+
+        int row = size++;
+        for (int c = 0; c < COLUMNS; c++) {
+            totals[c][row] = from.totals[c][fromRow];
+        }
+        games[row] = from.games[fromRow];
+        playoffGames[row] = from.playoffGames[fromRow];
+        players[row] = player;
+        return row;
+    }
+
+    /**
+     * Adds an empty row for a player.
+     *
+     * @param player the player who owns the new row
+     * @return the new row
+     */
+    int add(Player player) {
+        if(size == players.length) {
+            grow();
+        }
+        players[size] = player;
+        return size++;
+    }
+
+    /**
+     * Removes a row by moving the last row into its place.
+     *
+     * @param row the row to remove
+     */
+    void remove(int row) {
+        int last = --size;
+        if(row != last) {
+            for (double[] column : totals) {
+                column[row] = column[last];
+            }
+            games[row] = games[last];
+            playoffGames[row] = playoffGames[last];
+            players[row] = players[last];
+            players[row].setRow(row);
+        }
+
+        for (double[] column : totals) {
+            column[last] = 0;
+        }
+        games[last] = 0;
+        playoffGames[last] = 0;
+        players[last] = null;
+    }
+
+    /**
+     * Finds the players with the highest per game average of a stat.
+     *
+     * @param column the stat column
+     * @param n how many players to return
+     * @return the players from highest to lowest average
+     */
+    public ArrayList<Player> top(int column, int n) {
+        n = Math.min(n, size);
+        ArrayList<Player> leaders = new ArrayList<>(n);
+        if(n <= 0) {
+            return leaders;
+        }
+
+        // keep the best n rows in a min-heap ordered by average, so each row costs at most O(log n)
+        int[] heap = new int[n];
+        double[] keys = new double[n];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            double key = lockedAverage(column, row);
+            if(count < n) {
+                heap[count] = row;
+                keys[count] = key;
+                siftUp(heap, keys, count++);
+            } else if(key > keys[0]) {
+                heap[0] = row;
+                keys[0] = key;
+                siftDown(heap, keys, count);
+            }
+        }
+
+        // empty the heap from the lowest average up, filling the list from the back
+        Player[] ordered = new Player[count];
+        for (int i = count - 1; i >= 0; i--) {
+            ordered[i] = players[heap[0]];
+            heap[0] = heap[i];
+            keys[0] = keys[i];
+            siftDown(heap, keys, i);
+        }
+        leaders.addAll(Arrays.asList(ordered));
+        return leaders;
+    }
+
+    /**
+     * Finds every player whose per game average of a stat is at least a given value.
+     *
+     * @param column the stat column
+     * @param minimum the lowest average to include
+     * @return the players in row order
+     */
+    public ArrayList<Player> atLeast(int column, double minimum) {
+        ArrayList<Player> found = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if(lockedAverage(column, row) >= minimum) {
+                found.add(players[row]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds up a stat over every player in the table.
+     *
+     * @param column the stat column
+     * @return the sum of the totals
+     */
+    public double sum(int column) {
+        double[] values = totals[column];
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            synchronized (players[row]) {
+                sum += values[row];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Works out the average per game of a stat over every game played by the players in the table.
+     *
+     * @param column the stat column
+     * @return the average, or 0 if no games were played
+     */
+    public double average(int column) {
+        double[] values = totals[column];
+        int[] played = column < PLAYOFF_POINTS ? games : playoffGames;
+        double sum = 0;
+        long gameCount = 0;
+        for (int row = 0; row < size; row++) {
+            synchronized (players[row]) {
+                sum += values[row];
+                gameCount += played[row];
+            }
+        }
+        return gameCount == 0 ? 0 : sum / gameCount;
+    }
+
+    /**
+     * Works out the per game average of a stat for a row while holding its player's lock.
+     */
+    private double lockedAverage(int column, int row) {
+        synchronized (players[row]) {
+            return getAverage(column, row);
+        }
+    }
+
+    /**
+     * Doubles the room in every column.
+     */
+    private void grow() {
+        int capacity = players.length * 2;
+        for (int c = 0; c < COLUMNS; c++) {
+            totals[c] = Arrays.copyOf(totals[c], capacity);
+        }
+        games = Arrays.copyOf(games, capacity);
+        playoffGames = Arrays.copyOf(playoffGames, capacity);
+        players = Arrays.copyOf(players, capacity);
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Moves a heap entry up until its parent is not larger.
+     */
+    private static void siftUp(int[] heap, double[] keys, int i) {
+        while(i > 0) {
+            int parent = (i - 1) / 2;
+            if(keys[parent] <= keys[i]) {
+                break;
+            }
+            swap(heap, keys, i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * Moves the top heap entry down until neither child is smaller.
+     */
+    private static void siftDown(int[] heap, double[] keys, int count) {
+        int i = 0;
+        while(true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if(left < count && keys[left] < keys[smallest]) {
+                smallest = left;
+            }
+            if(right < count && keys[right] < keys[smallest]) {
+                smallest = right;
+            }
+            if(smallest == i) {
+                return;
+            }
+            swap(heap, keys, i, smallest);
+            i = smallest;
+        }
+    }
+
+    /**
+     * Swaps two heap entries.
+     */
+    private static void swap(int[] heap, double[] keys, int a, int b) {
+        int row = heap[a];
+        heap[a] = heap[b];
+        heap[b] = row;
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+}
@@ -0,0 +1,353 @@
+package tracker;
+
+/**
+ * The StatsServer class is designed to serve a team's statistics as JSON over HTTP, straight
+ * from the team in memory, so dashboards can read them while matches are being loaded.
+ *
+ *   GET /roster            every roster member, in roster order
+ *   GET /roster/{name}     one roster member
+ *   GET /matches           the regular season and playoff matches
+ *   GET /leaders/{label}   the leaders of a category, such as /leaders/ppg?n=10
+ *
+ * Every response carries an ETag made from the time the server started and the team's version,
+ * which goes up whenever anything on the team changes; the version starts again from 0 every time
+ * the program starts, so the start time keeps an ETag from one run from matching the next. A client
+ * that sends the ETag back in If-None-Match gets an empty 304 until the team changes. The header
+ * may list several ETags separated by commas, weak ones (W/"...") included, or be "*".
+ *
+ * Requests are answered on a virtual thread each when the Java running the server has them
+ * (Java 21 and later), and otherwise on a pool of threads that grows with the number of clients.
+ *
+ * The JDK server holds small responses back waiting on the client's ACK unless the
+ * sun.net.httpserver.nodelay system property is set before the first server is made, which is left
+ * to the program starting the server. Rendered responses are kept until the team changes too, so repeated reads of
+ * the same resource are served without building the JSON again.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StatsServer {
+    // CONSTANTS //
+
+    // how many connections may wait to be accepted
+    private static final int BACKLOG = 1024;
+
+    // the most rendered responses kept before the cache is emptied
+    private static final int CACHE_LIMIT = 4096;
+
+
+    // FIELDS //
+    private final Team team;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, Response> cache;
+    private final String epoch;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a server for a team on a port. The server does not answer until it is started.
+     *
+     * @param team the team to serve
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port could not be opened
+     */
+    public StatsServer(Team team, int port) throws IOException {
+        this.team = team;
+        cache = new ConcurrentHashMap<>();
+        epoch = Long.toString(System.currentTimeMillis(), 36);
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+
+    // ACCESSOR METHODS //
+
+    /**
+     * Access the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops answering requests, giving requests already being answered a moment to finish.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @param exchange the request and its response
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if(!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                send(exchange, 405, error("only GET is supported"), null);
+                return;
+            }
+
+            // the version is read first, so a response is never older than its ETag says
+            long version = team.getVersion();
+            String etag = "\"" + epoch + "-" + version + "\"";
+            List<String> ifNoneMatch = exchange.getRequestHeaders().get("If-None-Match");
+            if(ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            String key = exchange.getRequestURI().getRawPath() + "?" + exchange.getRequestURI().getRawQuery();
+            Response cached = cache.get(key);
+            if(cached == null || cached.version != version) {
+                cached = render(exchange, version);
+                if(cache.size() >= CACHE_LIMIT) {
+                    cache.clear();
+                }
+                cache.put(key, cached);
+            }
+            send(exchange, cached.status, cached.body, etag);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Builds the response for a request.
+     *
+     * @param exchange the request
+     * @param version the team version the response is for
+     * @return the response
+     */
+    private Response render(HttpExchange exchange, long version) throws IOException {
+        String[] parts = exchange.getRequestURI().getRawPath().split("/");
+        String resource = parts.length > 1 ? parts[1] : "";
+        String argument = parts.length > 2 ? decode(parts[2]) : null;
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        RosterExporter json = new RosterExporter(body, RosterExporter.Format.JSON);
+        switch(resource) {
+            case "roster":
+                if(argument == null) {
+                    json.writeRoster(team.getRoster());
+                    break;
+                }
+                Roster r = team.getRoster(argument);
+                if(r == null) {
+                    return new Response(version, 404, error("\"" + argument + "\" does not exist"));
+                }
+                json.writeMember(r);
+                break;
+            case "matches":
+                json.writeText("{\"regular\":");
+                json.writeMatches(team.getMatches());
+                json.writeText(",\"playoff\":");
+                json.writeMatches(team.getPlayoffMatches());
+                json.writeByte('}');
+                break;
+            case "leaders":
+                Category category = argument == null ? null : Category.find(argument);
+                if(category == null) {
+                    return new Response(version, 404, error("unknown category"));
+                }
+                int n = parseCount(exchange.getRequestURI().getRawQuery());
+                if(n < 0) {
+                    return new Response(version, 400, error("n must be a number"));
+                }
+                leaders(json, category, n);
+                break;
+            default:
+                return new Response(version, 404, error("unknown resource"));
+        }
+        json.flush();
+        return new Response(version, 200, body.toByteArray());
+    }
+
+    private void leaders(RosterExporter json, Category category, int n) throws IOException {
+        List<Roster> leaders = team.getLeaders(category, n);
+        json.writeByte('[');
+        for (int i = 0; i < leaders.size(); i++) {
+            if(i > 0) {
+                json.writeByte(',');
+            }
+            json.writeText("{\"rank\":");
+            json.writeLong(i + 1);
+            json.writeText(",\"name\":");
+            json.writeString(leaders.get(i).getName());
+            json.writeText(",\"" + category.getLabel() + "\":");
+            json.writeTenths(category.score(leaders.get(i)));
+            json.writeByte('}');
+        }
+        json.writeByte(']');
+    }
+
+
+    // STATIC METHODS //
+
+    /**
+     * Makes the executor requests are answered on: one virtual thread per request where the Java
+     * running the server has them, otherwise a pool of daemon threads that grows as needed. Reads
+     * never lock the team, so a thread per waiting client is cheap to keep busy either way.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // before Java 21
+        }
+        ThreadFactory threads = runnable -> {
+            Thread thread = new Thread(runnable, "stats-server");
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threads);
+    }
+
+    /**
+     * Checks If-None-Match headers against the current ETag. Each header is a comma separated
+     * list of ETags or "*"; weak ETags match their strong form, as If-None-Match compares weakly.
+     *
+     * @param headers the values of every If-None-Match header
+     * @param etag the current ETag, in quotes
+     * @return true if any of the listed ETags is the current one, or "*" is listed
+     */
+    private static boolean matches(List<String> headers, String etag) {
+        for (String header : headers) {
+            int i = 0;
+            while(i < header.length()) {
+                char c = header.charAt(i);
+                if(c == ',' || c == ' ' || c == '\t') {
+                    i++;
+                } else if(c == '*') {
+                    return true;
+                } else {
+                    if(header.startsWith("W/", i)) {
+                        i += 2;
+                    }
+                    // a quoted ETag may itself hold commas, so it runs to its closing quote
+                    int end = header.startsWith("\"", i) ? header.indexOf('"', i + 1) + 1 : header.indexOf(',', i);
+                    if(end <= 0) {
+                        end = header.length();
+                    }
+                    if(header.substring(i, end).trim().equals(etag)) {
+                        return true;
+                    }
+                    i = end;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] error(String message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+        RosterExporter json = new RosterExporter(body, RosterExporter.Format.JSON);
+        json.writeText("{\"error\":");
+        json.writeString(message);
+        json.writeByte('}');
+        json.flush();
+        return body.toByteArray();
+    }
+
+    /**
+     * Finds n in a query such as "n=10", defaulting to 10.
+     *
+     * @return n, or -1 if it is not a number
+     */
+    private static int parseCount(String query) {
+        if(query == null) {
+            return 10;
+        }
+        for (String pair : query.split("&")) {
+            if(pair.startsWith("n=")) {
+                try {
+                    return Math.max(Integer.parseInt(pair.substring(2)), 0);
+                } catch (NumberFormatException ex) {
+                    return -1;
+                }
+            }
+        }
+        return 10;
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            return text;
+        }
+    }
+
+    /**
+     * Sends a JSON response.
+     */
+    private static void send(HttpExchange exchange, int status, byte[] body, String etag) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if(etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        boolean head = exchange.getRequestMethod().equals("HEAD");
+        exchange.sendResponseHeaders(status, head ? -1 : body.length);
+        if(!head) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * A rendered response, along with the team version it was rendered for.
+     */
+    private static final class Response {
+        final long version;
+        final int status;
+        final byte[] body;
+
+        Response(long version, int status, byte[] body) {
+            this.version = version;
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -7,24 +7,82 @@ package tracker;
  * match and the current roster, saving your current roster, sorting your
  * roster and matches, resetting your team's statistics, a variety of displaying,
  * trading players, and firing/hiring coaches.
+ *
+ * A team can be read and changed from many threads at once. Readers get read-only snapshots of
+ * the roster and matches, and the leaderboards never lock, so displaying never waits on loading.
+ * Changing one member's statistics only locks that member's stripe, so matches for different
+ * players are applied side by side. Adding or removing members, sorting, resetting and saving
+ * lock the whole team, since they move every member around.
  */
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Scanner;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class Team {
+    // CONSTANTS //
+
+    // how many files each worker may parse ahead of the match being applied
+    private static final int PARSE_AHEAD = 4;
+
+    // how many journal records to collect before they are compacted into a snapshot
+    private static final int COMPACT_EVERY = 1000;
+
+    // where loaded match files and signed free agents are moved to, unless the team is given another folder
+    static final String TRASH_FILE_PATH = "src/tracker/trash/";
+
+    // how many locks the roster members are spread over; must be a power of two
+    private static final int STRIPES = 64;
+
+
     // FIELDS //
     private String teamName;
-    private ArrayList<Roster> roster;
-    private ArrayList<Match> matches;
-    private ArrayList<PlayoffMatch> playoffMatches;
+    private final PublishedList<Roster> roster;
+    private final PublishedList<Match> matches;
+    private final PublishedList<PlayoffMatch> playoffMatches;
+    private final ConcurrentHashMap<String, PublishedList<Match>> matchesByOpponent;
+    private final ConcurrentHashMap<String, PublishedList<PlayoffMatch>> playoffMatchesByStage;
+    private final DifferentialView<Match> matchesByDifferential;
+    private final DifferentialView<PlayoffMatch> playoffMatchesByDifferential;
+    private volatile boolean matchesOrganized;
+    private final ConcurrentHashMap<String, Integer> rosterIndex;
+    private final ConcurrentHashMap<Integer, List<Player>> jerseyIndex;
+    private final StatTable stats;
+    private final EnumMap<Category, Leaderboard> leaderboards;
+    private final GameLog gameLog;
+    private final SeasonRecord seasonRecord;
+    private final Metrics metrics;
+    private final ConcurrentHashMap<String, FreeAgentPool> freeAgents;
+    private final ReentrantReadWriteLock structure;
+    private final Object[] stripes;
+    private final AtomicLong version;
+    private final AtomicLong rosterVersion;
+    private volatile Journal journal;
+    private String snapshotFilePath;
+    private volatile String trashFilePath;
 
 
     // CONSTRUCTORS //
@@ -36,9 +94,32 @@ public class Team {
      */
     public Team(String teamName) {
         this.teamName = teamName;
-        roster = new ArrayList<>();
-        matches = new ArrayList<>();
-        playoffMatches = new ArrayList<>();
+        roster = new PublishedList<>();
+        matches = new PublishedList<>();
+        playoffMatches = new PublishedList<>();
+        matchesByOpponent = new ConcurrentHashMap<>();
+        playoffMatchesByStage = new ConcurrentHashMap<>();
+        matchesByDifferential = new DifferentialView<>();
+        playoffMatchesByDifferential = new DifferentialView<>();
+        rosterIndex = new ConcurrentHashMap<>();
+        jerseyIndex = new ConcurrentHashMap<>();
+        stats = new StatTable();
+        leaderboards = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            leaderboards.put(category, new Leaderboard());
+        }
+        gameLog = new GameLog();
+        seasonRecord = new SeasonRecord();
+        metrics = new Metrics();
+        freeAgents = new ConcurrentHashMap<>();
+        structure = new ReentrantReadWriteLock();
+        version = new AtomicLong();
+        rosterVersion = new AtomicLong();
+        stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        trashFilePath = TRASH_FILE_PATH;
     }
 
 
@@ -53,6 +134,184 @@ public class Team {
         return teamName;
     }
 
+    /**
+     * Accesses the journal every change is written to.
+     *
+     * @return the journal, or null if none was opened
+     */
+    Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Accesses the roster in its current order.
+     *
+     * @return a read-only snapshot of the roster
+     */
+    public List<Roster> getRoster() {
+        return roster.snapshot();
+    }
+
+    /**
+     * Accesses the regular season matches.
+     *
+     * @return a read-only snapshot of the matches in the order they were played
+     */
+    public List<Match> getMatches() {
+        return matches.snapshot();
+    }
+
+    /**
+     * Accesses the playoff matches.
+     *
+     * @return a read-only snapshot of the playoff matches in the order they were played
+     */
+    public List<PlayoffMatch> getPlayoffMatches() {
+        return playoffMatches.snapshot();
+    }
+
+    /**
+     * Accesses every match played against one opponent, regular season and playoffs.
+     *
+     * @param opponentTeam the name of the opponent team
+     * @return a read-only snapshot of the matches in the order they were played
+     */
+    public List<Match> getMatchesAgainst(String opponentTeam) {
+        PublishedList<Match> found = matchesByOpponent.get(opponentTeam);
+        return found == null ? Collections.<Match>emptyList() : found.snapshot();
+    }
+
+    /**
+     * Accesses every playoff match played in one stage of the bracket.
+     *
+     * @param bracketStage the bracket stage, such as "NBA Finals"
+     * @return a read-only snapshot of the playoff matches in the order they were played
+     */
+    public List<PlayoffMatch> getPlayoffMatches(String bracketStage) {
+        PublishedList<PlayoffMatch> found = playoffMatchesByStage.get(bracketStage);
+        return found == null ? Collections.<PlayoffMatch>emptyList() : found.snapshot();
+    }
+
+    /**
+     * Accesses the regular season matches from the highest point differential to the lowest.
+     *
+     * @return a read-only list of the matches
+     */
+    public List<Match> getMatchesByDifferential() {
+        return matchesByDifferential.of(matches.snapshot());
+    }
+
+    /**
+     * Accesses the playoff matches from the highest point differential to the lowest.
+     *
+     * @return a read-only list of the playoff matches
+     */
+    public List<PlayoffMatch> getPlayoffMatchesByDifferential() {
+        return playoffMatchesByDifferential.of(playoffMatches.snapshot());
+    }
+
+    /**
+     * Accesses the version of the team, which goes up every time anything on the team changes.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Accesses the stat table holding the totals of every player on the roster.
+     *
+     * @return the stat table
+     */
+    public StatTable getStats() {
+        return stats;
+    }
+
+    /**
+     * Access every stat line the players have had, one per game.
+     *
+     * @return the game log
+     */
+    public GameLog getGameLog() {
+        return gameLog;
+    }
+
+    /**
+     * Access the team's record, kept up to date as every match is played.
+     *
+     * @return the season record
+     */
+    public SeasonRecord getSeasonRecord() {
+        return seasonRecord;
+    }
+
+    /**
+     * Access the counters and timings of loading and saving.
+     *
+     * @return the metrics
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Access the pool of free agents kept in memory for a folder such as extraPlayers.
+     *
+     * @param folderPath the folder
+     * @return the pool, which is made the first time the folder is asked for
+     */
+    public FreeAgentPool getFreeAgents(String folderPath) {
+        return freeAgents.computeIfAbsent(folderPath, FreeAgentPool::new);
+    }
+
+    /**
+     * Access the folder loaded match files and signed free agents are moved to.
+     *
+     * @return the trash folder
+     */
+    public String getTrashFilePath() {
+        return trashFilePath;
+    }
+
+    /**
+     * Changes the folder loaded match files and signed free agents are moved to.
+     *
+     * @param trashFilePath the trash folder, ending in a separator like the other file paths
+     */
+    public void setTrashFilePath(String trashFilePath) {
+        this.trashFilePath = trashFilePath;
+    }
+
+    /**
+     * Adds everyone in a free agent file to the roster, stopping at anyone already on it.
+     *
+     * @param filePath the folder the file is in
+     * @param fileName the name of the file
+     * @return true if the file could be read
+     */
+    private boolean signFreeAgents(String filePath, String fileName) {
+        List<Roster> signed = getFreeAgents(filePath).get(fileName);
+        if(signed == null) {
+            System.out.println("Problem reading file");
+            return false;
+        }
+        for (Roster r : signed) {
+            // check if player already exists
+            if(findRoster(r.getName()) != -1) {
+                System.out.println("This player already exists!");
+                break;
+            }
+            if(!addRoster(r)) {
+                System.out.println(r.getName() + " could not be saved, so " + fileName + " was kept");
+                return false;
+            }
+        }
+        getFreeAgents(filePath).invalidate(fileName);
+        moveToTrash(filePath, fileName);
+        return true;
+    }
+
 
     // INSTANCE METHODS //
 
@@ -73,52 +332,187 @@ public class Team {
             return false;
         }
 
-        try (Scanner scan = new Scanner(file) ){
-            String[] arr = scan.nextLine().split(",");
-            boolean isPlayoff = arr[0].equals("playoff");
-            boolean isWin = Integer.parseInt(arr[2]) - Integer.parseInt(arr[3]) > 0;
+        try {
+            if(applyBoxScore(parseMatchFile(file)) == -1) {
+                System.out.println(matchFileName + " could not be saved, so it was not loaded");
+                return false;
+            }
+        } catch (IOException iox) {
+            System.out.println(iox.getMessage());
+        }
 
-            // create new match
-            if(!isPlayoff) {
-                matches.add(new Match(arr[1], Integer.parseInt(arr[2]), Integer.parseInt(arr[3])));
-            } else {
-                playoffMatches.add(new PlayoffMatch(arr[1], Integer.parseInt(arr[2]), Integer.parseInt(arr[3]), arr[4]));
+        moveToTrash(matchFilePath, matchFileName);
+
+        return true;
+    }
+
+    /**
+     * Loads every match file in a folder in one pass, then writes the roster file once at the end.
+     * The files are parsed in parallel, but they are applied one at a time in file name order,
+     * so the statistics end up exactly the same as loading them one by one. Every loaded match
+     * is moved to the trash folder.
+     *
+     * @param matchFilePath the folder where the match files are located
+     * @param rosterFilePath the roster file's location
+     * @return true if the roster was saved after loading
+     */
+    public boolean loadAllMatchStatistics(String matchFilePath, String rosterFilePath) {
+        File[] files = new File(matchFilePath).listFiles((dir, fileName) -> fileName.endsWith(".csv"));
+
+        if(files == null) {
+            System.out.println(matchFilePath + " is not a folder!");
+            return false;
+        }
+        Arrays.sort(files);
+
+        long start = System.nanoTime();
+        int filesLoaded = 0;
+        long rowsLoaded = 0;
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int window = parallelism * PARSE_AHEAD;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<Future<BoxScore>> parsing = new ArrayDeque<>();
+
+        try {
+            int next = 0;
+            for (int i = 0; i < files.length; i++) {
+                // keep a bounded number of files parsing ahead of the one being applied
+                while(next < files.length && next < i + window) {
+                    File file = files[next++];
+                    parsing.add(pool.submit(() -> parseMatchFile(file)));
+                }
+
+                try {
+                    int rows = applyBoxScore(parsing.poll().get());
+                    if(rows == -1) {
+                        System.out.println("Skipped " + files[i].getName() + ": the match could not be saved");
+                        continue;
+                    }
+                    rowsLoaded += rows;
+                    filesLoaded++;
+                    moveToTrash(matchFilePath, files[i].getName());
+                } catch (ExecutionException ex) {
+                    System.out.println("Skipped " + files[i].getName() + ": " + ex.getCause().getMessage());
+                }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            System.out.println("Loading was interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        boolean saved = saveRosterStatistics(rosterFilePath);
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+
+        System.out.printf("Loaded %d matches (%d rows) in %.3f s: %.1f files/sec, %.1f rows/sec\n",
+                filesLoaded, rowsLoaded, seconds, filesLoaded / seconds, rowsLoaded / seconds);
+        return saved;
+    }
+
+    /**
+     * Parses a match file, counting it and timing it in the metrics.
+     *
+     * @param file the match file
+     * @return the box score
+     * @throws IOException if the file could not be read
+     */
+    BoxScore parseMatchFile(File file) throws IOException {
+        long start = metrics.start();
+        BoxScore boxScore = BoxScore.parse(file);
+        metrics.record(Metrics.Phase.PARSE, start);
+        metrics.fileLoaded(boxScore.getRows());
+        return boxScore;
+    }
+
+    /**
+     * Records the match from a box score and modifies player and coach statistics. The match is
+     * written to the journal first, so a match that could not be saved changes nothing and its
+     * file can be kept to load again.
+     *
+     * @param boxScore the parsed match file
+     * @return the number of rows in the match file, or -1 if the match could not be written to the journal
+     */
+    public int applyBoxScore(BoxScore boxScore) {
+        boolean isPlayoff = boxScore.isPlayoff();
+        boolean isWin = boxScore.isWin();
+        LocalDate date = boxScore.getDate() != null ? boxScore.getDate() : GameLog.UNKNOWN_DAY;
+
+        structure.readLock().lock();
+        try {
+            if(journal != null) {
+                long start = metrics.start();
+                boolean logged = journal.logMatch(boxScore);
+                metrics.record(Metrics.Phase.JOURNAL, start);
+                if(!logged) {
+                    return -1;
+                }
+            }
+
+            // create new match, unless it was already counted from the opponent's match file
+            if(boxScore.isCounted()) {
+                addMatch(boxScore.toMatch());
+            }
+
+            // look every player up first, so the lookups and the updates are timed apart
+            long start = metrics.start();
+            Roster[] listed = new Roster[boxScore.getPlayerCount()];
+            for (int i = 0; i < listed.length; i++) {
+                listed[i] = getRoster(boxScore.getPlayerName(i));
+            }
+            metrics.record(Metrics.Phase.FIND_ROSTER, start);
 
             // update coaches
-            for (Roster r : roster) {
-                if(r instanceof Coach) {
-                    ((Coach) r).modifyWinPercentage(isWin, isPlayoff);
-                    r.addMatch();
-                    if (isPlayoff) {
-                        r.addPlayoffMatch();
+            start = metrics.start();
+            for (Roster r : roster.snapshot()) {
+                if(r instanceof Coach && boxScore.isCounted()) {
+                    synchronized (stripe(r)) {
+                        ((Coach) r).modifyWinPercentage(isWin, isPlayoff);
+                        r.addMatch();
+                        if (isPlayoff) {
+                            r.addPlayoffMatch();
+                        }
+                        rankRoster(r);
                     }
                 }
             }
 
             // update players
-            while(scan.hasNext()) {
-                String[] playerInfo = scan.nextLine().split(",");
-                int rosterIndex = findRoster(playerInfo[0]);
-
-                if (rosterIndex != -1 && roster.get(rosterIndex) instanceof Player) {
-                    Player player = (Player) roster.get(rosterIndex);
-                    player.modifyStatistic(playerInfo, isPlayoff);
-                    player.addMatch();
-                    if (isPlayoff) {
-                        player.addPlayoffMatch();
+            for (int i = 0; i < listed.length; i++) {
+                Roster r = listed[i];
+
+                if (r instanceof Player) {
+                    Player player = (Player) r;
+                    synchronized (stripe(player)) {
+                        player.recordMatch(boxScore.getPlayerStat(i, 0), boxScore.getPlayerStat(i, 1), boxScore.getPlayerStat(i, 2),
+                                boxScore.getPlayerStat(i, 3), boxScore.getPlayerStat(i, 4), isPlayoff);
+                        boolean isLatest = gameLog.record(player.getName(), date, boxScore.getVenue(), isPlayoff, boxScore.getPlayerStat(i, 0),
+                                boxScore.getPlayerStat(i, 1), boxScore.getPlayerStat(i, 2), boxScore.getPlayerStat(i, 3), boxScore.getPlayerStat(i, 4));
+                        // form follows the game log's date order, so it comes out the same, to well within rounding, when it is worked out again after a restart
+                        if(isLatest) {
+                            player.getForm().add(boxScore.getPlayerStat(i, 0), boxScore.getPlayerStat(i, 1), boxScore.getPlayerStat(i, 2));
+                        } else {
+                            refreshForm(player);
+                        }
+                        rankRoster(player);
                     }
+                } else {
+                    metrics.unknownPlayer();
                 }
-
             }
-
-        } catch (IOException iox) {
-            System.out.println(iox.getMessage());
+            metrics.record(Metrics.Phase.UPDATE, start);
+            version.incrementAndGet();
+        } finally {
+            structure.readLock().unlock();
         }
 
-        moveToTrash(matchFilePath, matchFileName);
+        // compacting locks the whole team, so it has to wait until the read lock is let go
+        if(journal != null) {
+            compactIfNeeded();
+        }
 
-        return true;
+        return boxScore.getRows();
     }
 
 
@@ -136,37 +530,60 @@ public class Team {
             return false;
         }
 
-        try (Scanner scan = new Scanner(file)) {
-            while (scan.hasNext()) {
-                String[] arr = scan.nextLine().split(",");
-                Roster r;
+        structure.writeLock().lock();
+        try (CsvTokenizer csv = new CsvTokenizer(new FileInputStream(file))) {
+            while (csv.nextLine()) {
+                String name = csv.nextString();
 
                 // check if player already exists
-                if(findRoster(arr[0]) != -1) {
+                if(findRoster(name) != -1) {
                     System.out.println("This player already exists!");
                     break;
                 }
 
-                // save player data
-                if (arr[4].equals("player")) {
-                    r = new Player(arr[0], Integer.parseInt(arr[1]), Integer.parseInt(arr[5]), Integer.parseInt(arr[2]), Integer.parseInt(arr[3]));
-                } else if (arr[4].equals("coach")) {
-                    r = new Coach(arr[0], Integer.parseInt(arr[1]), Integer.parseInt(arr[2]), Integer.parseInt(arr[3]));
-                } else {
-                    continue;
+                Roster r = readRoster(csv, name);
+                if(r != null && !addRoster(r)) {
+                    System.out.println(name + " could not be saved, so the rest of the roster was not loaded");
+                    return false;
                 }
-                r.saveStatistics(arr);
-                roster.add(r);
-
             }
 
         } catch (IOException iox) {
             System.out.println(iox.getMessage());
+        } finally {
+            structure.writeLock().unlock();
         }
         return true;
 
     }
 
+    /**
+     * Reads the rest of a roster file line once the name has been read.
+     *
+     * @param csv the tokenizer, positioned after the name
+     * @param name the name of the roster member
+     * @return the player or coach, or null if the line is neither
+     * @throws IOException if the line could not be read
+     */
+    static Roster readRoster(CsvTokenizer csv, String name) throws IOException {
+        int age = csv.nextInt();
+        int matchesAttended = csv.nextInt();
+        int playoffMatchesAttended = csv.nextInt();
+
+        // save player data
+        if (csv.nextFieldEquals("player")) {
+            Player player = new Player(name, age, csv.nextInt(), matchesAttended, playoffMatchesAttended);
+            player.saveStatistics(csv.nextDouble(), csv.nextDouble(), csv.nextDouble(),
+                    csv.nextDouble(), csv.nextDouble(), csv.nextDouble(), csv.nextDouble(), csv.nextDouble());
+            return player;
+        } else if (csv.fieldEquals("coach")) {
+            Coach coach = new Coach(name, age, matchesAttended, playoffMatchesAttended);
+            coach.saveStatistics(csv.nextDouble(), csv.nextDouble());
+            return coach;
+        }
+        return null;
+    }
+
     /**
      * Writes all the information from the roster on the roster file.
      *
@@ -174,63 +591,337 @@ public class Team {
      * @return true if the loading was successful
      */
     public boolean saveRosterStatistics(String rosterFilePath) {
-        try (FileWriter writer = new FileWriter(rosterFilePath, false)) {
-            for (Roster r : roster) {
-                // writes roster attributes
-                writer.write(r.name + "," + r.age + "," + r.matchesAttended + "," + r.playoffMatchesAttended + ",");
+        // write next to the roster file first, so a crash never leaves it half written
+        String temporaryFilePath = rosterFilePath + ".tmp";
+        long start = metrics.start();
+        try (OutputStream out = new FileOutputStream(temporaryFilePath, false)) {
+            exportRoster(out, RosterExporter.Format.CSV);
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + rosterFilePath);
+            return false;
+        }
 
-                // differentiates between player and coach
-                if (r instanceof Player) {
-                    writer.write("player,");
-                } else if (r instanceof Coach) {
-                    writer.write("coach,");
-                }
+        try {
+            metrics.bytesWritten(Files.size(Paths.get(temporaryFilePath)));
+            Files.move(Paths.get(temporaryFilePath), Paths.get(rosterFilePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException iox) {
+            System.out.println("Problem writing " + rosterFilePath);
+            return false;
+        }
+        metrics.record(Metrics.Phase.SAVE, start);
+        return true;
+    }
 
-                // write the stats (different depending on if it's a player or a coach)
-                writer.write(r.listOutStats() + "\n");
+    /**
+     * Writes every roster member to an output stream, one field at a time, without building a
+     * String for each member. The roster is written as it was when the export started, without
+     * holding up matches or roster changes; each member is copied under their stripe, so a member
+     * in the middle of a match is written either before it or after it.
+     *
+     * @param out where to write the roster
+     * @param format the format to write in; CSV is the roster file layout
+     * @throws IOException if the roster could not be written
+     */
+    public void exportRoster(OutputStream out, RosterExporter.Format format) throws IOException {
+        RosterExporter exporter = new RosterExporter(out, format);
+        exporter.writeRoster(roster.snapshot(), this::stripe);
+        exporter.flush();
+    }
+
+    /**
+     * Writes the roster, every match and the game log onto a binary snapshot file, which opens much faster than the roster file.
+     * Saving over the journal's own snapshot compacts the journal, so its records are not replayed on top of the snapshot again.
+     *
+     * @param snapshotFilePath the snapshot file's location
+     * @return true if the saving was successful
+     */
+    public boolean saveSnapshot(String snapshotFilePath) {
+        structure.writeLock().lock();
+        try {
+            if(journal != null && snapshotFilePath.equals(this.snapshotFilePath)) {
+                return compactJournal();
             }
+            return writeSnapshot(snapshotFilePath, 0);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the snapshot file for saveSnapshot and compactJournal.
+     *
+     * @param snapshotFilePath the snapshot file's location
+     * @param generation the first generation of journal records that are not in the snapshot, or 0
+     * @return true if the saving was successful
+     */
+    private boolean writeSnapshot(String snapshotFilePath, long generation) {
+        long start = metrics.start();
+        structure.writeLock().lock();
+        try {
+            Snapshot.write(snapshotFilePath, roster.snapshot(), matches.snapshot(), playoffMatches.snapshot(), gameLog, seasonRecord, generation);
+            metrics.bytesWritten(Files.size(Paths.get(snapshotFilePath)));
         } catch (IOException iox) {
-            System.out.println("Problem writing " + rosterFilePath);
+            System.out.println("Problem writing " + snapshotFilePath + ": " + iox.getMessage());
             return false;
+        } finally {
+            structure.writeLock().unlock();
         }
+        metrics.record(Metrics.Phase.SNAPSHOT, start);
         return true;
     }
 
     /**
-     * Organizes the roster list by first sorting the coaches by highest win% then sorting players by highest points per game.
+     * Loads the roster, every match and the game log from a binary snapshot file. Nothing is
+     * loaded if anyone in the snapshot is already on the roster, or if both the team and the
+     * snapshot already have matches, so the same snapshot can never be counted twice.
+     *
+     * @param snapshotFilePath the snapshot file's location
+     * @return true if the loading was successful
      */
-    public void organizeRoster() {
-        ArrayList<Player> players = new ArrayList<>();
-        ArrayList<Coach> coaches = new ArrayList<>();
-        ArrayList<Roster> organized = new ArrayList<>();
+    public boolean loadSnapshot(String snapshotFilePath) {
+        if(!new File(snapshotFilePath).exists()) {
+            System.out.println("Problem reading file");
+            return false;
+        }
 
-        for(Roster r : roster) {
-            if(r instanceof Player) {
-                players.add((Player) r);
-            } else if(r instanceof Coach) {
-                coaches.add((Coach) r);
+        Snapshot snapshot;
+        try {
+            snapshot = Snapshot.read(snapshotFilePath);
+        } catch (IOException iox) {
+            System.out.println(iox.getMessage());
+            return false;
+        }
+        return load(snapshot, snapshotFilePath);
+    }
+
+    /**
+     * Adds everything in a snapshot to the team, unless loadSnapshot would refuse it.
+     *
+     * @param snapshot the snapshot
+     * @param snapshotFilePath where the snapshot was read from
+     * @return true if the loading was successful
+     */
+    private boolean load(Snapshot snapshot, String snapshotFilePath) {
+        structure.writeLock().lock();
+        try {
+            for (Roster r : snapshot.getRoster()) {
+                // check if player already exists
+                if(findRoster(r.getName()) != -1) {
+                    System.out.println("This player already exists! Nothing was loaded from " + snapshotFilePath);
+                    return false;
+                }
+            }
+            if((matches.size() > 0 || playoffMatches.size() > 0) && (!snapshot.getMatches().isEmpty() || !snapshot.getPlayoffMatches().isEmpty())) {
+                System.out.println("The team already has matches! Nothing was loaded from " + snapshotFilePath);
+                return false;
+            }
+
+            HashMap<String, Player> added = new HashMap<>();
+            for (Roster r : snapshot.getRoster()) {
+                if(!addRoster(r)) {
+                    System.out.println(r.getName() + " could not be saved, so the rest of " + snapshotFilePath + " was not loaded");
+                    return false;
+                }
+                if(r instanceof Player) {
+                    added.put(r.getName(), (Player) r);
+                }
+            }
+            for (Match m : snapshot.getMatches()) {
+                addMatch(m);
+            }
+            for (PlayoffMatch m : snapshot.getPlayoffMatches()) {
+                addMatch(m);
+            }
+            if(snapshot.getStreaks() != null && (!snapshot.getMatches().isEmpty() || !snapshot.getPlayoffMatches().isEmpty())) {
+                seasonRecord.restoreStreaks(snapshot.getStreaks()[0], snapshot.getStreaks()[1], snapshot.getStreaks()[2]);
+            }
+            gameLog.addAll(snapshot.getGameLog());
+
+            // form is not kept in the snapshot, so it is worked out again from the players' games
+            for (Player player : added.values()) {
+                refreshForm(player);
+                rankRoster(player);
+            }
+            version.incrementAndGet();
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Restores the team from its snapshot and journal, then keeps recording every change in the
+     * journal. Every so often the journal is compacted into a new snapshot.
+     *
+     * @param journalFilePath the journal file's location
+     * @param snapshotFilePath the snapshot file's location
+     * @return true if the journal was opened
+     */
+    public boolean openJournal(String journalFilePath, String snapshotFilePath) {
+        structure.writeLock().lock();
+        try {
+            long generation = 0;
+            if(new File(snapshotFilePath).exists()) {
+                Snapshot snapshot = Snapshot.read(snapshotFilePath);
+                if(!load(snapshot, snapshotFilePath)) {
+                    return false;
+                }
+                generation = snapshot.getGeneration();
+            }
+
+            Journal opened = new Journal(journalFilePath, metrics);
+            opened.replay(this, generation);
+            journal = opened;
+            this.snapshotFilePath = snapshotFilePath;
+        } catch (IOException iox) {
+            System.out.println("Problem reading " + journalFilePath + " or " + snapshotFilePath + ": " + iox.getMessage());
+            return false;
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Saves the whole team in a new snapshot and empties the journal, starting its next generation.
+     * The snapshot is saved with that next generation, so if the program stops before the journal is
+     * emptied, the old journal is skipped instead of replayed on top of the snapshot.
+     *
+     * @return true if the journal was compacted
+     */
+    public boolean compactJournal() {
+        // nothing may be journaled between writing the snapshot and emptying the journal
+        structure.writeLock().lock();
+        try {
+            long generation = journal == null ? 0 : journal.getGeneration() + 1;
+            if(journal == null || !writeSnapshot(snapshotFilePath, generation)) {
+                return false;
             }
+            journal.clear(generation);
+        } catch (IOException iox) {
+            System.out.println("Problem emptying the journal: " + iox.getMessage());
+            return false;
+        } finally {
+            structure.writeLock().unlock();
         }
+        return true;
+    }
+
+    /**
+     * Checks whether a match file was already loaded into the team, according to the journal.
+     *
+     * @param source the match file as given by BoxScore.sourceOf
+     * @return true if a match was read from exactly that file, false if not or if there is no journal
+     */
+    public boolean hasLoaded(String source) {
+        Journal current = journal;
+        return current != null && current.hasLoaded(source);
+    }
 
-        Collections.sort(coaches);
-        Collections.sort(players);
+    /**
+     * Makes sure every change recorded in the journal so far is on the disk.
+     *
+     * @return true if the journal was synced, or there is no journal
+     */
+    public boolean syncJournal() {
+        Journal current = journal;
+        if(current == null) {
+            return true;
+        }
+
+        try {
+            current.sync();
+        } catch (IOException iox) {
+            System.out.println("Problem syncing the journal: " + iox.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compacts the journal once it has collected enough records.
+     */
+    private void compactIfNeeded() {
+        if(journal.getRecords() >= COMPACT_EVERY) {
+            compactJournal();
+        }
+    }
+
+    /**
+     * Works a player's form out again from their latest games in the game log, in date order. Only
+     * the last Form.REPLAY games are added again, so a late game costs the same however long the
+     * player's career has been.
+     *
+     * @param player the player
+     */
+    private void refreshForm(Player player) {
+        Form form = player.getForm();
+        // refill it while holding its lock, so nobody reads it half filled
+        synchronized (form) {
+            form.clear();
+            int earlierGames = gameLog.forEachLine(player.getName(), Form.REPLAY, (name, day, flags, line) -> form.add(line[0], line[1], line[2]));
+            form.setEarlierGames(earlierGames);
+        }
+    }
 
-        organized.addAll(coaches);
-        organized.addAll(players);
+    /**
+     * Organizes the roster list by first putting the coaches in order of highest win% then the players in order of highest points per game.
+     */
+    public void organizeRoster() {
+        // the leaderboards are already in order, so nothing needs to be sorted
+        structure.writeLock().lock();
+        try {
+            ArrayList<Roster> organized = new ArrayList<>(roster.size());
+            organized.addAll(leaderboards.get(Category.WIN_PERCENTAGE).top(roster.size()));
+            organized.addAll(leaderboards.get(Category.PPG).top(roster.size()));
 
-        roster = organized;
+            roster.replaceAll(organized);
+            reindexRoster(0);
+            version.incrementAndGet();
+        } finally {
+            structure.writeLock().unlock();
+        }
 
         System.out.println("Successfully sorted coaches by their win percentage");
         System.out.println("Successfully sorted players by their points per game");
 
     }
 
+    /**
+     * Adds a match to the end of its list, the season record and the opponent and bracket stage indexes.
+     *
+     * @param m the match, which goes with the playoff matches if it is a PlayoffMatch
+     */
+    private void addMatch(Match m) {
+        if(m instanceof PlayoffMatch) {
+            synchronized (playoffMatches) {
+                playoffMatches.add((PlayoffMatch) m);
+            }
+            PublishedList<PlayoffMatch> stage = playoffMatchesByStage.computeIfAbsent(((PlayoffMatch) m).getBracketStage(), key -> new PublishedList<>());
+            synchronized (stage) {
+                stage.add((PlayoffMatch) m);
+            }
+        } else {
+            synchronized (matches) {
+                matches.add(m);
+            }
+        }
+        PublishedList<Match> opponent = matchesByOpponent.computeIfAbsent(m.getOpponentTeam(), key -> new PublishedList<>());
+        synchronized (opponent) {
+            opponent.add(m);
+        }
+        seasonRecord.add(m);
+    }
+
     /**
      * Organizes the matches and playoffMatches list by sorting by the highest point differential.
+     * The lists themselves stay in the order the matches were played; from now on they are
+     * displayed through a view sorted by point differential.
      */
     public void organizeMatches() {
-        Collections.sort(matches);
-        Collections.sort(playoffMatches);
+        getMatchesByDifferential();
+        getPlayoffMatchesByDifferential();
+        matchesOrganized = true;
 
         System.out.println("Successfully sorted regular season matches by their point differential");
         System.out.println("Successfully sorted playoff season matches by their point differential");
@@ -240,8 +931,23 @@ public class Team {
      * Resets all players and coaches on the roster statistics to 0.
      */
     public void resetStatistics() {
-        for(Roster r : roster) {
-            r.resetStatistics();
+        structure.writeLock().lock();
+        try {
+            for(Roster r : roster.snapshot()) {
+                r.resetStatistics();
+                // form is worked out from the game log, so the games have to go too
+                if(r instanceof Player) {
+                    gameLog.forget(r.getName());
+                }
+                rankRoster(r);
+            }
+            version.incrementAndGet();
+            if(journal != null) {
+                journal.logReset();
+                compactIfNeeded();
+            }
+        } finally {
+            structure.writeLock().unlock();
         }
         System.out.println("Statistics reset successfully!");
     }
@@ -253,16 +959,242 @@ public class Team {
      * @return the index number or -1 if they dont exist
      */
     public int findRoster(String name) {
-        int index = -1;
-        for (int i = 0; i < roster.size(); i++) {
-            if(name.equals(roster.get(i).getName())) {
-                index = i;
-                break;
+        Integer index = rosterIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Finds a roster member given their name.
+     *
+     * @param name name of the roster member
+     * @return the roster member or null if they dont exist
+     */
+    public Roster getRoster(String name) {
+        List<Roster> current = roster.snapshot();
+        Integer index = rosterIndex.get(name);
+        if(index == null) {
+            return null;
+        }
+        if(index < current.size() && current.get(index).getName().equals(name)) {
+            return current.get(index);
+        }
+
+        // the roster was being rearranged while the index was read
+        for (Roster r : current) {
+            if(r.getName().equals(name)) {
+                return r;
             }
         }
-        return index;
+        return null;
+    }
+
+    /**
+     * Finds a player given their jersey number.
+     *
+     * @param jerseyNumber the jersey number of the player
+     * @return the player who has worn that number the longest, or null if no one wears that number
+     */
+    public Player findPlayer(int jerseyNumber) {
+        List<Player> wearing = jerseyIndex.get(jerseyNumber);
+        return wearing == null ? null : wearing.get(0);
+    }
+
+    /**
+     * Finds every player wearing a jersey number, since two players can share one.
+     *
+     * @param jerseyNumber the jersey number
+     * @return a read-only list of the players in the order they joined, which is empty if no one wears that number
+     */
+    public List<Player> findPlayers(int jerseyNumber) {
+        List<Player> wearing = jerseyIndex.get(jerseyNumber);
+        return wearing == null ? Collections.<Player>emptyList() : wearing;
+    }
+
+    /**
+     * Adds a player to the jersey number index, next to anyone already wearing their number.
+     *
+     * @param player the player
+     */
+    private void indexJersey(Player player) {
+        jerseyIndex.compute(player.getJerseyNumber(), (number, wearing) -> {
+            ArrayList<Player> next = wearing == null ? new ArrayList<>(1) : new ArrayList<>(wearing);
+            next.add(player);
+            return Collections.unmodifiableList(next);
+        });
+    }
+
+    /**
+     * Drops a player from the jersey number index, leaving anyone else wearing their number.
+     *
+     * @param player the player
+     */
+    private void unindexJersey(Player player) {
+        jerseyIndex.computeIfPresent(player.getJerseyNumber(), (number, wearing) -> {
+            ArrayList<Player> next = new ArrayList<>(wearing);
+            next.removeIf(other -> other == player);
+            return next.isEmpty() ? null : Collections.unmodifiableList(next);
+        });
+    }
+
+    /**
+     * Adds a member to the end of the roster and indexes them. They are written to the journal
+     * first, so a member who could not be saved is not added.
+     *
+     * @param r the roster member
+     * @return true if they were added, false if they could not be written to the journal
+     */
+    boolean addRoster(Roster r) {
+        structure.writeLock().lock();
+        try {
+            if(journal != null && !journal.logAdd(r)) {
+                return false;
+            }
+            rosterIndex.put(r.getName(), roster.size());
+            if(r instanceof Player) {
+                indexJersey((Player) r);
+                ((Player) r).moveTo(stats);
+            }
+            roster.add(r);
+            rankRoster(r);
+            version.incrementAndGet();
+            rosterVersion.incrementAndGet();
+
+            if(journal != null) {
+                compactIfNeeded();
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a member from the roster and drops them from the indexes. Their leaving is written
+     * to the journal first, so a member whose leaving could not be saved stays.
+     *
+     * @param index the index of the roster member
+     * @return true if they were removed, false if their leaving could not be written to the journal
+     */
+    boolean removeRoster(int index) {
+        structure.writeLock().lock();
+        try {
+            if(journal != null && !journal.logRemove(roster.snapshot().get(index).getName())) {
+                return false;
+            }
+            Roster r = roster.remove(index);
+            rosterIndex.remove(r.getName());
+            if(r instanceof Player) {
+                unindexJersey((Player) r);
+                ((Player) r).moveTo(new StatTable(1));
+            }
+            reindexRoster(index);
+            for (Leaderboard leaderboard : leaderboards.values()) {
+                leaderboard.remove(r);
+            }
+            version.incrementAndGet();
+            rosterVersion.incrementAndGet();
+
+            if(journal != null) {
+                compactIfNeeded();
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Moves a roster member to their current place on every leaderboard they belong on.
+     *
+     * @param r the roster member
+     */
+    private void rankRoster(Roster r) {
+        for (Category category : Category.values()) {
+            if(category.ranks(r)) {
+                leaderboards.get(category).update(r, category.score(r));
+            }
+        }
+    }
+
+    /**
+     * Refreshes the name index for every roster member from a given position onwards.
+     *
+     * @param from the first index that has moved
+     */
+    private void reindexRoster(int from) {
+        List<Roster> current = roster.snapshot();
+        for (int i = from; i < current.size(); i++) {
+            rosterIndex.put(current.get(i).getName(), i);
+        }
+    }
+
+    /**
+     * Finds the lock guarding a roster member's statistics.
+     *
+     * @param r the roster member
+     * @return the lock shared by every member in the same stripe
+     */
+    private Object stripe(Roster r) {
+        int hash = r.getName().hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+
+    /**
+     * Finds the players with the highest per game average of a stat.
+     *
+     * @param column the stat column, such as StatTable.POINTS
+     * @param n how many players to return
+     * @return the players from highest to lowest average
+     */
+    public ArrayList<Player> topPlayers(int column, int n) {
+        // the table's arrays are swapped out when it grows, so wait for roster changes to finish
+        structure.readLock().lock();
+        try {
+            return stats.top(column, n);
+        } finally {
+            structure.readLock().unlock();
+        }
     }
 
+    /**
+     * Finds the roster members leading a category.
+     *
+     * @param category the category
+     * @param n how many roster members to return
+     * @return the roster members from first to last place
+     */
+    public ArrayList<Roster> getLeaders(Category category, int n) {
+        return leaderboards.get(category).top(n);
+    }
+
+    /**
+     * Finds the place of a roster member in a category.
+     *
+     * @param category the category
+     * @param name name of the roster member
+     * @return the place, starting at 1, or -1 if they dont exist or are not ranked in that category
+     */
+    public int getRank(Category category, String name) {
+        Roster r = getRoster(name);
+        return r == null ? -1 : leaderboards.get(category).rank(r);
+    }
+
+    /**
+     * Nicely displays the leaders of every category.
+     *
+     * @param n how many roster members to show per category
+     */
+    public void displayLeaders(int n) {
+        System.out.println();
+        for (Category category : Category.values()) {
+            System.out.println("Leaders in " + category.getLabel() + ":");
+            int place = 1;
+            for (Roster r : getLeaders(category, n)) {
+                System.out.printf("\t%d. %-25s %.1f\n", place++, r.getName(), leaderboards.get(category).score(r));
+            }
+        }
+    }
 
     /**
      * Nicely displays one roster member given the name.
@@ -271,23 +1203,47 @@ public class Team {
      */
     public void displayRoster(String name) {
         System.out.println();
-        int index = findRoster(name);
-        if(index != -1) {
-            roster.get(index).display();
+        Roster r = getRoster(name);
+        if(r != null) {
+            r.display();
         } else {
             System.out.println("Sorry, \"" + name + "\" does not exist!");
         }
     }
 
+    /**
+     * Nicely displays a player's splits: their last 5 and 10 games, home and away, and overall.
+     *
+     * @param name name of the player
+     */
+    public void displaySplits(String name) {
+        System.out.println();
+        if(!(getRoster(name) instanceof Player)) {
+            System.out.println("Sorry, \"" + name + "\" is not a player!");
+            return;
+        }
+        if(gameLog.getGames(name) == 0) {
+            System.out.println(name + " has not played any matches yet!");
+            return;
+        }
+        System.out.println(name + "'s splits:");
+        System.out.println("\tLast 5:  " + gameLog.getLastGames(name, 5, null));
+        System.out.println("\tLast 10: " + gameLog.getLastGames(name, 10, null));
+        System.out.println("\tHome:    " + gameLog.getGamesBetween(name, null, null, GameLog.Venue.HOME));
+        System.out.println("\tAway:    " + gameLog.getGamesBetween(name, null, null, GameLog.Venue.AWAY));
+        System.out.println("\tOverall: " + gameLog.getGamesBetween(name, null, null, null));
+    }
+
     /**
      * Nicely displays the whole roster.
      */
     public void displayWholeRoster() {
         System.out.println();
-        if(roster.isEmpty()) {
+        List<Roster> current = roster.snapshot();
+        if(current.isEmpty()) {
             System.out.println("There is no one on your roster!");
         } else {
-            for(Roster r : roster) {
+            for(Roster r : current) {
                 System.out.println(r + "\n");
             }
         }
@@ -298,18 +1254,156 @@ public class Team {
      */
     public void displayAllMatches() {
         System.out.println();
-        if(matches.isEmpty() && playoffMatches.isEmpty()) {
+        List<Match> currentMatches = matchesOrganized ? getMatchesByDifferential() : matches.snapshot();
+        List<PlayoffMatch> currentPlayoffMatches = matchesOrganized ? getPlayoffMatchesByDifferential() : playoffMatches.snapshot();
+        if(currentMatches.isEmpty() && currentPlayoffMatches.isEmpty()) {
             System.out.println("You have not played any matches yet!");
         } else {
-            for(Match m : matches) {
+            for(Match m : currentMatches) {
                 System.out.println(m + "\n");
             }
-            for(PlayoffMatch m : playoffMatches) {
+            for(PlayoffMatch m : currentPlayoffMatches) {
                 System.out.println(m + "\n");
             }
         }
     }
 
+    /**
+     * Nicely displays every match played against one opponent, in the order they were played.
+     *
+     * @param opponentTeam the name of the opponent team
+     */
+    public void displayMatchesAgainst(String opponentTeam) {
+        System.out.println();
+        List<Match> found = getMatchesAgainst(opponentTeam);
+        if(found.isEmpty()) {
+            System.out.println("You have not played the " + opponentTeam + " yet!");
+        } else {
+            for(Match m : found) {
+                System.out.println(m + "\n");
+            }
+        }
+    }
+
+    /**
+     * Nicely displays every playoff match played in one stage of the bracket, in the order they were played.
+     *
+     * @param bracketStage the bracket stage
+     */
+    public void displayPlayoffMatches(String bracketStage) {
+        System.out.println();
+        List<PlayoffMatch> found = getPlayoffMatches(bracketStage);
+        if(found.isEmpty()) {
+            System.out.println("You have not played any " + bracketStage + " matches yet!");
+        } else {
+            for(PlayoffMatch m : found) {
+                System.out.println(m + "\n");
+            }
+        }
+    }
+
+    /**
+     * Nicely displays the team's records and streaks, or its record against one opponent.
+     *
+     * @param opponentTeam the name of the opponent team, or null for the whole season
+     */
+    public void displaySeasonRecord(String opponentTeam) {
+        System.out.println();
+        if(opponentTeam == null) {
+            System.out.println("Record for the " + teamName + ":");
+            seasonRecord.display();
+        } else {
+            System.out.println("Record for the " + teamName + " against the " + opponentTeam + ": " + seasonRecord.getHeadToHead(opponentTeam));
+        }
+    }
+
+    /**
+     * Starts trying out a package of trades, hires and fires against the roster as it is now.
+     *
+     * @return the transaction, which changes nothing until it is committed
+     */
+    public RosterTransaction beginTransaction() {
+        structure.readLock().lock();
+        try {
+            return new RosterTransaction(this, roster.snapshot(), rosterVersion.get());
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Makes every change staged in a transaction at once, so readers see the roster either
+     * before all of them or after all of them. Use RosterTransaction.commit().
+     *
+     * @param tx the transaction
+     * @return true if the changes were made; false if someone joined or left the team since the transaction began
+     */
+    boolean commitTransaction(RosterTransaction tx) {
+        List<Roster> leaving = tx.getLeaving();
+        List<Roster> joining = tx.getJoining();
+        structure.writeLock().lock();
+        try {
+            if(rosterVersion.get() != tx.getRosterVersion()) {
+                System.out.println("The roster changed since the transaction began, nothing was changed");
+                return false;
+            }
+            // the whole transaction is on the disk before anyone can see it
+            if(journal != null && !journal.logTransaction(leaving, joining, tx.getFiles())) {
+                System.out.println("The transaction could not be saved, nothing was changed");
+                return false;
+            }
+
+            // everyone leaving is dropped before anyone joins, in case someone is traded for themselves
+            Set<Roster> left = Collections.newSetFromMap(new IdentityHashMap<>());
+            left.addAll(leaving);
+            for (Roster r : leaving) {
+                rosterIndex.remove(r.getName());
+                if(r instanceof Player) {
+                    unindexJersey((Player) r);
+                    ((Player) r).moveTo(new StatTable(1));
+                }
+                for (Leaderboard leaderboard : leaderboards.values()) {
+                    leaderboard.remove(r);
+                }
+            }
+            for (Roster r : joining) {
+                if(r instanceof Player) {
+                    indexJersey((Player) r);
+                    ((Player) r).moveTo(stats);
+                }
+            }
+
+            List<Roster> current = roster.snapshot();
+            ArrayList<Roster> next = new ArrayList<>(current.size() - leaving.size() + joining.size());
+            for (Roster r : current) {
+                if(!left.contains(r)) {
+                    next.add(r);
+                }
+            }
+            next.addAll(joining);
+            roster.replaceAll(next);
+            reindexRoster(0);
+            for (Roster r : joining) {
+                rankRoster(r);
+            }
+            version.incrementAndGet();
+            rosterVersion.incrementAndGet();
+
+            // the files are gone before anyone else can sign the same free agents again
+            for (String[] file : tx.getFiles()) {
+                getFreeAgents(file[0]).invalidate(file[1]);
+                moveToTrash(file[0], file[1]);
+            }
+
+            if(journal != null) {
+                compactIfNeeded();
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return true;
+    }
+
     /**
      * Trades a player on your roster for a player in the extraPlayers folder.
      * Once a player is chosen from the extraPlayers folder, it will be moved
@@ -318,17 +1412,28 @@ public class Team {
      * @param obtainPlayerPath the file path of the player you are obtaining
      * @param obtainPlayerName the name of the player you are obtaining
      * @param losePlayerName the name of the player you are losing
+     * @return true if the trade went through
      */
-    public void tradePlayer(String obtainPlayerPath, String obtainPlayerName, String losePlayerName) {
-        File file = new File(obtainPlayerPath + obtainPlayerName);
-        int index = findRoster(losePlayerName);
-        if(index != -1) {
-            loadRosterStatistics(obtainPlayerPath + obtainPlayerName); // add new player to the team
-            moveToTrash(obtainPlayerPath, obtainPlayerName);
-            roster.remove(index); // remove old player from the team
-            System.out.println("Trade successful!");
-        } else {
-            System.out.println("Player " + losePlayerName + " doesn't exist");
+    public boolean tradePlayer(String obtainPlayerPath, String obtainPlayerName, String losePlayerName) {
+        structure.writeLock().lock();
+        try {
+            int index = findRoster(losePlayerName);
+            if(index != -1) {
+                if(!signFreeAgents(obtainPlayerPath, obtainPlayerName)) { // add new player to the team
+                    return false;
+                }
+                if(!removeRoster(index)) { // remove old player from the team
+                    System.out.println(losePlayerName + " could not be saved as leaving, so they are still on the team");
+                    return false;
+                }
+                System.out.println("Trade successful!");
+                return true;
+            } else {
+                System.out.println("Player " + losePlayerName + " doesn't exist");
+                return false;
+            }
+        } finally {
+            structure.writeLock().unlock();
         }
     }
 
@@ -338,13 +1443,22 @@ public class Team {
      *
      * @param coachFilePath the file path of the coach you are hiring
      * @param coachName the name of the coach you are hiring
+     * @return true if the coach was hired
      */
-    public void hireCoach(String coachFilePath, String coachName) {
-        if(loadRosterStatistics(coachFilePath + coachName)) {
-            moveToTrash(coachFilePath, coachName);
+    public boolean hireCoach(String coachFilePath, String coachName) {
+        structure.writeLock().lock();
+        boolean hired;
+        try {
+            hired = signFreeAgents(coachFilePath, coachName);
+        } finally {
+            structure.writeLock().unlock();
+        }
+        if(hired) {
             System.out.println("Successfully hired!");
+            return true;
         } else {
             System.out.println("Error: " + coachName + "was not hired");
+            return false;
         }
     }
 
@@ -353,14 +1467,25 @@ public class Team {
      * Removes a coach from the roster.
      *
      * @param coachName the name of the coach
+     * @return true if the coach was fired
      */
-    public void fireCoach(String coachName) {
-        int index = findRoster(coachName);
-        if(index != -1) {
-            roster.remove(index);
-            System.out.println("Successfully fired!");
-        } else {
-            System.out.println("Player " + coachName + " doesn't exist");
+    public boolean fireCoach(String coachName) {
+        structure.writeLock().lock();
+        try {
+            int index = findRoster(coachName);
+            if(index != -1) {
+                if(!removeRoster(index)) {
+                    System.out.println(coachName + " could not be saved as leaving, so they were not fired");
+                    return false;
+                }
+                System.out.println("Successfully fired!");
+                return true;
+            } else {
+                System.out.println("Player " + coachName + " doesn't exist");
+                return false;
+            }
+        } finally {
+            structure.writeLock().unlock();
         }
     }
 
@@ -371,13 +1496,36 @@ public class Team {
      * @param fileName the name of your file
      */
     public void moveToTrash(String filePath, String fileName) {
+        moveToTrash(filePath, fileName, trashFilePath);
+    }
+
+    /**
+     * Moves a file at a given location to a trash folder, creating the folder if needed. If the trash
+     * already holds a file of the same name, a number is added to the name instead of the file staying put.
+     *
+     * @param filePath the current path of your file
+     * @param fileName the name of your file
+     * @param trashFilePath the trash folder
+     */
+    public void moveToTrash(String filePath, String fileName, String trashFilePath) {
+        long start = metrics.start();
         try {
             Path current = Paths.get(filePath + fileName);
-            Path destination = Paths.get("src/tracker/trash/" + fileName);
-            Files.move(current, destination);
+            Path trash = Files.createDirectories(Paths.get(trashFilePath));
+            int dot = fileName.lastIndexOf('.') > 0 ? fileName.lastIndexOf('.') : fileName.length();
+            String trashedName = fileName;
+            for (int copy = 1; ; copy++) {
+                try {
+                    Files.move(current, trash.resolve(trashedName));
+                    break;
+                } catch (FileAlreadyExistsException ex) {
+                    trashedName = fileName.substring(0, dot) + " (" + copy + ")" + fileName.substring(dot);
+                }
+            }
         } catch (IOException iox) {
             System.out.println(iox.getMessage());
         }
+        metrics.record(Metrics.Phase.TRASH, start);
 
     }
 
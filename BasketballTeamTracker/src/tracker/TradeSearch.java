@@ -0,0 +1,466 @@
+package tracker;
+
+/**
+ * The TradeSearch class is designed to find the trades that would help a team the most, instead
+ * of trying them out one at a time with tradePlayer. A trade gives away one player on the roster
+ * for everyone in one free agent file, and the search looks at every single trade and every pair
+ * of trades made together, ranking them by how much they add to the team's totals in some
+ * categories, such as points plus rebounds per game. Free agents over an age cap can be left out.
+ *
+ * Every player's score is worked out once into an array, so each trade is a subtraction. The
+ * single trades are sorted from best to worst, which gives an upper bound for every pair: a pair
+ * can never beat its best trade plus the next best one. The pairs are split over the common fork-join pool,
+ * and every part keeps only the best trades it has seen, sharing the worst of them with the other
+ * parts so each stops as soon as nothing it has left could make the list. Nothing on the team is
+ * changed; a trade that is found can be staged in a RosterTransaction.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+public class TradeSearch {
+    // CONSTANTS //
+
+    // how many trades one part of the search goes through before it stops splitting
+    private static final int LEAF_SIZE = 16;
+
+
+    // FIELDS //
+    private final Team team;
+    private final String folderPath;
+    private final int maxAge;
+    private final Category[] categories;
+
+
+    // CONSTRUCTORS //
+
+    /**
+     * Constructs a search that ranks trades by points plus rebounds per game.
+     *
+     * @param team the team
+     * @param folderPath the folder of free agents, such as extraPlayers
+     * @param maxAge the oldest a free agent can be, or Integer.MAX_VALUE for no cap
+     */
+    public TradeSearch(Team team, String folderPath, int maxAge) {
+        this(team, folderPath, maxAge, Category.PPG, Category.RPG);
+    }
+
+    /**
+     * Constructs a search that ranks trades by some categories added together.
+     *
+     * @param team the team
+     * @param folderPath the folder of free agents, such as extraPlayers
+     * @param maxAge the oldest a free agent can be, or Integer.MAX_VALUE for no cap
+     * @param categories the player categories to add up
+     */
+    public TradeSearch(Team team, String folderPath, int maxAge, Category... categories) {
+        this.team = team;
+        this.folderPath = folderPath;
+        this.maxAge = maxAge;
+        this.categories = categories.clone();
+        for (Category category : categories) {
+            if(category == Category.WIN_PERCENTAGE) {
+                throw new IllegalArgumentException(category.getLabel() + " does not rank players");
+            }
+        }
+    }
+
+
+    // INSTANCE METHODS //
+
+    /**
+     * Finds the best trades, made alone or two at a time.
+     *
+     * @param k how many trades to return
+     * @param maxTrades 1 for single trades only, or 2 to include pairs of trades
+     * @return the trades from best to worst
+     */
+    public List<Trade> search(int k, int maxTrades) {
+        if(k <= 0) {
+            return new ArrayList<>(0);
+        }
+
+        // the roster as it is now, and the score of every player on it
+        List<Roster> roster = team.getRoster();
+        HashSet<String> onRoster = new HashSet<>();
+        ArrayList<String> giveNames = new ArrayList<>();
+        double total = 0;
+        for (Roster r : roster) {
+            onRoster.add(r.getName());
+        }
+        ArrayList<Double> giveScores = new ArrayList<>();
+        for (Roster r : roster) {
+            if(r instanceof Player) {
+                double score = score(r);
+                giveNames.add(r.getName());
+                giveScores.add(score);
+                total += score;
+            }
+        }
+
+        // every free agent file under the age cap, and what everyone in it adds up to
+        FreeAgentPool pool = team.getFreeAgents(folderPath);
+        ArrayList<String> fileNames = new ArrayList<>();
+        ArrayList<String[]> fileMembers = new ArrayList<>();
+        ArrayList<Double> fileScores = new ArrayList<>();
+        for (String fileName : pool.getFileNames()) {
+            List<Roster> members = pool.get(fileName);
+            if(members == null || members.isEmpty() || !underAgeCap(members)) {
+                continue;
+            }
+            String[] names = new String[members.size()];
+            double fileScore = 0;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = members.get(i).getName();
+                if(members.get(i) instanceof Player) {
+                    fileScore += score(members.get(i));
+                }
+            }
+            fileNames.add(fileName);
+            fileMembers.add(names);
+            fileScores.add(fileScore);
+        }
+
+        // every single trade that could go through, best first
+        int count = 0;
+        int[] give = new int[giveNames.size() * fileNames.size()];
+        int[] file = new int[give.length];
+        double[] gain = new double[give.length];
+        for (int g = 0; g < giveNames.size(); g++) {
+            for (int f = 0; f < fileNames.size(); f++) {
+                if(canJoin(fileMembers.get(f), onRoster, giveNames.get(g))) {
+                    give[count] = g;
+                    file[count] = f;
+                    gain[count] = fileScores.get(f) - giveScores.get(g);
+                    count++;
+                }
+            }
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(gain[b], gain[a]));
+
+        Candidates candidates = new Candidates(count);
+        for (int i = 0; i < count; i++) {
+            candidates.give[i] = give[order[i]];
+            candidates.file[i] = file[order[i]];
+            candidates.gain[i] = gain[order[i]];
+        }
+        candidates.giveNames = giveNames.toArray(new String[0]);
+        candidates.fileNames = fileNames.toArray(new String[0]);
+        candidates.fileMembers = fileMembers.toArray(new String[0][]);
+        candidates.total = total;
+        candidates.k = k;
+        candidates.pairs = maxTrades >= 2;
+
+        PriorityQueue<Trade> best = ForkJoinPool.commonPool().invoke(new SearchTask(candidates, 0, count));
+
+        ArrayList<Trade> trades = new ArrayList<>(best);
+        trades.sort(Collections.reverseOrder());
+        return trades;
+    }
+
+    /**
+     * Adds up a player's score over the categories.
+     *
+     * @param r the player
+     * @return the exact score
+     */
+    private double score(Roster r) {
+        double score = 0;
+        for (Category category : categories) {
+            score += category.score(r);
+        }
+        return score;
+    }
+
+    /**
+     * Checks if every player in a free agent file is at or under the age cap.
+     *
+     * @param members everyone in the file
+     * @return true if nobody is too old
+     */
+    private boolean underAgeCap(List<Roster> members) {
+        for (Roster r : members) {
+            if(r instanceof Player && r.getAge() > maxAge) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that nobody in a free agent file is already on the roster, other than the player leaving.
+     *
+     * @param members the names of everyone in the file
+     * @param onRoster the names of everyone on the roster
+     * @param leaving the name of the player leaving
+     * @return true if everyone can join
+     */
+    private static boolean canJoin(String[] members, HashSet<String> onRoster, String leaving) {
+        for (String name : members) {
+            if(onRoster.contains(name) && !name.equals(leaving)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // NESTED CLASSES //
+
+    /**
+     * One trade or a pair of trades, and how much it adds to the team.
+     */
+    public static final class Trade implements Comparable<Trade> {
+        private final String[] giving;
+        private final String[] getting;
+        private final double gain;
+        private final double projected;
+        // where the trade came from in the search, so equal trades are always ranked the same way
+        private final int first;
+        private final int second;
+
+        Trade(String[] giving, String[] getting, double gain, double projected, int first, int second) {
+            this.giving = giving;
+            this.getting = getting;
+            this.gain = gain;
+            this.projected = projected;
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Access the names of the players given away.
+         *
+         * @return the names, one per trade
+         */
+        public List<String> getGiving() {
+            return Collections.unmodifiableList(Arrays.asList(giving));
+        }
+
+        /**
+         * Access the free agent files traded for.
+         *
+         * @return the file names, one per trade
+         */
+        public List<String> getGetting() {
+            return Collections.unmodifiableList(Arrays.asList(getting));
+        }
+
+        /**
+         * Access how much the trade adds to the team's total, which is negative if it takes away.
+         *
+         * @return the unrounded gain
+         */
+        public double getGain() {
+            return gain;
+        }
+
+        /**
+         * Access the team's total after the trade.
+         *
+         * @return the unrounded total
+         */
+        public double getProjected() {
+            return projected;
+        }
+
+        /**
+         * Stages the trade, so it can be looked at further or committed.
+         *
+         * @param tx the transaction
+         * @param folderPath the folder of free agents the search looked in
+         * @return true if every trade was staged
+         */
+        public boolean stage(RosterTransaction tx, String folderPath) {
+            for (int i = 0; i < giving.length; i++) {
+                if(!tx.trade(folderPath, getting[i], giving[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int compareTo(Trade other) {
+            if(gain != other.gain) {
+                return Double.compare(gain, other.gain);
+            }
+            // the trade found first in the search is ranked higher
+            if(first != other.first) {
+                return Integer.compare(other.first, first);
+            }
+            return Integer.compare(other.second, second);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < giving.length; i++) {
+                if(i > 0) {
+                    text.append(" and ");
+                }
+                text.append(getting[i].replace(".csv", "")).append(" for ").append(giving[i]);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Every single trade that could go through, best first, in parallel arrays.
+     */
+    private static final class Candidates {
+        final int[] give;
+        final int[] file;
+        final double[] gain;
+        String[] giveNames;
+        String[] fileNames;
+        String[][] fileMembers;
+        double total;
+        int k;
+        boolean pairs;
+        // the worst trade on the list of any part of the search that has a full list
+        final DoubleAccumulator floor = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+        Candidates(int count) {
+            give = new int[count];
+            file = new int[count];
+            gain = new double[count];
+        }
+
+        /**
+         * Checks that two trades can be made together: different players leave, different files
+         * are traded for, and nobody is in both files.
+         */
+        boolean compatible(int a, int b) {
+            if(give[a] == give[b] || file[a] == file[b]) {
+                return false;
+            }
+            for (String name : fileMembers[file[a]]) {
+                for (String other : fileMembers[file[b]]) {
+                    if(name.equals(other)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Finds the best trades whose best single trade is in a range of the candidates.
+     */
+    private static final class SearchTask extends RecursiveTask<PriorityQueue<Trade>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Candidates c;
+        private final int from;
+        private final int to;
+
+        SearchTask(Candidates c, int from, int to) {
+            this.c = c;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PriorityQueue<Trade> compute() {
+            if(to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                SearchTask left = new SearchTask(c, from, middle);
+                left.fork();
+                PriorityQueue<Trade> best = new SearchTask(c, middle, to).compute();
+                for (Trade trade : left.join()) {
+                    offer(best, trade);
+                }
+                return best;
+            }
+
+            // a min-heap, so the worst trade on the list is always on top
+            PriorityQueue<Trade> best = new PriorityQueue<>(c.k + 1);
+            double[] gain = c.gain;
+            for (int a = from; a < to; a++) {
+                // the candidates are sorted, so nothing from here on can beat this bound
+                double bound = gain[a];
+                if(c.pairs && a + 1 < gain.length) {
+                    bound = Math.max(bound, gain[a] + gain[a + 1]);
+                }
+                if(bound < floor(best)) {
+                    break;
+                }
+
+                if(gain[a] >= floor(best)) {
+                    add(best, gain[a], a, -1);
+                }
+                if(!c.pairs) {
+                    continue;
+                }
+                double limit = floor(best);
+                for (int b = a + 1; b < gain.length; b++) {
+                    double pair = gain[a] + gain[b];
+                    if(pair < limit) {
+                        break;
+                    }
+                    if(c.compatible(a, b)) {
+                        add(best, pair, a, b);
+                        limit = floor(best);
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Finds the gain a trade has to reach to make the list.
+         */
+        private double floor(PriorityQueue<Trade> best) {
+            double floor = c.floor.get();
+            if(best.size() == c.k) {
+                floor = Math.max(floor, best.peek().getGain());
+            }
+            return floor;
+        }
+
+        /**
+         * Puts a trade on the list if it is good enough.
+         */
+        private void add(PriorityQueue<Trade> best, double gain, int a, int b) {
+            if(best.size() == c.k && gain < best.peek().getGain()) {
+                return;
+            }
+            String[] giving;
+            String[] getting;
+            if(b == -1) {
+                giving = new String[] {c.giveNames[c.give[a]]};
+                getting = new String[] {c.fileNames[c.file[a]]};
+            } else {
+                giving = new String[] {c.giveNames[c.give[a]], c.giveNames[c.give[b]]};
+                getting = new String[] {c.fileNames[c.file[a]], c.fileNames[c.file[b]]};
+            }
+            offer(best, new Trade(giving, getting, gain, c.total + gain, a, b));
+        }
+
+        /**
+         * Puts a trade on a list, dropping the worst trade if the list is too long.
+         */
+        private void offer(PriorityQueue<Trade> best, Trade trade) {
+            best.add(trade);
+            if(best.size() > c.k) {
+                best.poll();
+            }
+            if(best.size() == c.k) {
+                c.floor.accumulate(best.peek().getGain());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package tracker;
+
+/**
+ * Tests that the CsvTokenizer reads numbers exactly like Integer.parseInt and Double.parseDouble,
+ * both on the fast paths that read the buffer directly and on the paths that fall back to them.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CsvTokenizerTest {
+
+    @Test
+    public void plainDecimalsMatchParseDouble() throws IOException {
+        Random random = new Random(4);
+        StringBuilder csv = new StringBuilder();
+        String[] fields = new String[20_000];
+        for (int i = 0; i < fields.length; i++) {
+            // up to 15 digits, with the point anywhere in them
+            String digits = Long.toString(Math.abs(random.nextLong()) % 1_000_000_000_000_000L);
+            int point = random.nextInt(digits.length() + 1);
+            String field = digits.substring(0, point) + "." + digits.substring(point);
+            fields[i] = (random.nextBoolean() ? "-" : "") + field;
+            csv.append(fields[i]).append(i % 10 == 9 ? "\n" : ",");
+        }
+
+        CsvTokenizer tokenizer = tokenizer(csv.toString());
+        int read = 0;
+        while(tokenizer.nextLine()) {
+            while(tokenizer.hasNextField()) {
+                String field = fields[read++];
+                assertEquals(field, Double.doubleToLongBits(Double.parseDouble(field)), Double.doubleToLongBits(tokenizer.nextDouble()));
+            }
+        }
+        assertEquals(fields.length, read);
+    }
+
+    @Test
+    public void unusualDecimalsFallBackToParseDouble() throws IOException {
+        String[] fields = {"007.50", "+3.25", "76.7", "0.1", "-0", "5.", ".5", "1e3", "-2.5E-3", "12345678901234567.5",
+                "0.0000000000000001", "9007199254740993", "NaN", "Infinity"};
+        CsvTokenizer tokenizer = tokenizer(String.join(",", fields) + "\n");
+        assertTrue(tokenizer.nextLine());
+        for (String field : fields) {
+            assertEquals(field, Double.doubleToLongBits(Double.parseDouble(field)), Double.doubleToLongBits(tokenizer.nextDouble()));
+        }
+    }
+
+    @Test
+    public void intsAtTheLimitsAreRead() throws IOException {
+        CsvTokenizer tokenizer = tokenizer("2147483647,-2147483648,+42,0,-0,0000012\n");
+        assertTrue(tokenizer.nextLine());
+        assertEquals(Integer.MAX_VALUE, tokenizer.nextInt());
+        assertEquals(Integer.MIN_VALUE, tokenizer.nextInt());
+        assertEquals(42, tokenizer.nextInt());
+        assertEquals(0, tokenizer.nextInt());
+        assertEquals(0, tokenizer.nextInt());
+        assertEquals(12, tokenizer.nextInt());
+        assertFalse(tokenizer.hasNextField());
+    }
+
+    @Test
+    public void intsThatOverflowAreRejected() throws IOException {
+        String[] fields = {"2147483648", "-2147483649", "99999999999999999999", "9223372036854775808", "", "-", "12a", "1.5"};
+        CsvTokenizer tokenizer = tokenizer(String.join(",", fields) + "\n");
+        assertTrue(tokenizer.nextLine());
+        for (String field : fields) {
+            try {
+                tokenizer.nextInt();
+                fail("\"" + field + "\" should not be read as an int");
+            } catch (NumberFormatException expected) {
+                // every field is read even when it is rejected, so the next one lines up
+            }
+        }
+        assertFalse(tokenizer.hasNextField());
+    }
+
+    @Test
+    public void fieldsSpanningBufferRefillsAreWhole() throws IOException {
+        // long enough that some fields are cut in two by the 64 KiB buffer
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) {
+            csv.append("Player_").append(i).append(',').append(i).append(",12.5\r\n");
+        }
+        CsvTokenizer tokenizer = tokenizer(csv.toString());
+        int lines = 0;
+        while(tokenizer.nextLine()) {
+            assertEquals("Player_" + lines, tokenizer.nextString());
+            assertEquals(lines, tokenizer.nextInt());
+            assertEquals(12.5, tokenizer.nextDouble(), 0);
+            lines++;
+        }
+        assertEquals(30_000, lines);
+    }
+
+    private static CsvTokenizer tokenizer(String csv) {
+        return new CsvTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
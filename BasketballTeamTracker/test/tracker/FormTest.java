@@ -0,0 +1,105 @@
+package tracker;
+
+/**
+ * Tests that the running sums in a Form's ring always match the last 5 and last 10 games summed
+ * again from scratch, however many times the ring has wrapped around, and that a form worked out
+ * again from a player's latest games in the game log matches one that saw every game.
+ */
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FormTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void windowsMatchTheLastGames() {
+        Random random = new Random(10);
+        Form form = new Form();
+        List<double[]> games = new ArrayList<>();
+        double[] weighted = new double[Form.STATS];
+
+        for (int game = 0; game < 57; game++) {
+            double[] line = {random.nextInt(40), random.nextInt(12), random.nextInt(15)};
+            form.add(line[0], line[1], line[2]);
+            games.add(line);
+            for (int stat = 0; stat < Form.STATS; stat++) {
+                weighted[stat] = game == 0 ? line[stat] : weighted[stat] + Form.WEIGHT * (line[stat] - weighted[stat]);
+            }
+
+            assertEquals(games.size(), form.getGames());
+            for (int stat = 0; stat < Form.STATS; stat++) {
+                assertEquals(average(games, Form.SHORT_WINDOW, stat), form.getLastFive(stat), DELTA);
+                assertEquals(average(games, Form.LONG_WINDOW, stat), form.getLastTen(stat), DELTA);
+                assertEquals(weighted[stat], form.getWeighted(stat), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void clearStartsOver() {
+        Form form = new Form();
+        for (int game = 0; game < 13; game++) {
+            form.add(100, 100, 100);
+        }
+        form.clear();
+        assertEquals(0, form.getGames());
+        assertEquals(0, form.getLastFive(0), 0);
+        assertEquals(0, form.getLastTen(1), 0);
+        assertEquals(0, form.getWeighted(2), 0);
+
+        form.add(10, 4, 6);
+        form.add(20, 6, 8);
+        assertEquals(15, form.getLastFive(0), DELTA);
+        assertEquals(5, form.getLastTen(1), DELTA);
+        assertEquals(6 + Form.WEIGHT * 2, form.getWeighted(2), DELTA);
+    }
+
+    @Test
+    public void theLatestGamesMatchTheWholeCareer() {
+        Random random = new Random(11);
+        GameLog gameLog = new GameLog();
+        Form whole = new Form();
+        LocalDate day = LocalDate.of(2019, 10, 1);
+        // over three seasons, so the replay starts part way into an older season
+        for (int game = 0; game < 250; game++) {
+            double[] line = {random.nextInt(40), random.nextInt(12), random.nextInt(15)};
+            gameLog.record("P1", day, GameLog.Venue.HOME, false, line[0], line[1], line[2], 0, 0);
+            whole.add(line[0], line[1], line[2]);
+            day = day.plusDays(game % 82 == 81 ? 200 : 2);
+        }
+
+        Form replayed = new Form();
+        List<Integer> days = new ArrayList<>();
+        int earlierGames = gameLog.forEachLine("P1", Form.REPLAY, (name, at, flags, line) -> {
+            days.add(at);
+            replayed.add(line[0], line[1], line[2]);
+        });
+        replayed.setEarlierGames(earlierGames);
+
+        assertEquals(250 - Form.REPLAY, earlierGames);
+        assertEquals(Form.REPLAY, days.size());
+        assertEquals((int) day.toEpochDay(), days.get(days.size() - 1) + 2);
+        assertEquals(whole.getGames(), replayed.getGames());
+        for (int stat = 0; stat < Form.STATS; stat++) {
+            assertEquals(whole.getLastFive(stat), replayed.getLastFive(stat), DELTA);
+            assertEquals(whole.getLastTen(stat), replayed.getLastTen(stat), DELTA);
+            assertEquals(whole.getWeighted(stat), replayed.getWeighted(stat), 1e-6);
+        }
+    }
+
+    private static double average(List<double[]> games, int window, int stat) {
+        int from = Math.max(0, games.size() - window);
+        double sum = 0;
+        for (int i = from; i < games.size(); i++) {
+            sum += games.get(i)[stat];
+        }
+        return sum / (games.size() - from);
+    }
+}
@@ -0,0 +1,107 @@
+package tracker;
+
+/**
+ * Tests the FreeAgentPool: repeated lookups are served from memory as new roster members, an
+ * invalidated file is read again, a full pool lets go of the file used longest ago and a pool
+ * made without a capacity grows to fit its folder.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FreeAgentPoolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void lookupsAreServedFromMemory() throws IOException {
+        write("Kobe_Bryant.csv", "Kobe_Bryant,41,0,0,player,8,0,0,0,0,0,0,0,0");
+        FreeAgentPool pool = new FreeAgentPool(folderPath());
+
+        List<Roster> first = pool.get("Kobe_Bryant.csv");
+        List<Roster> second = pool.get("Kobe_Bryant.csv");
+
+        assertEquals(1, first.size());
+        assertEquals("Kobe_Bryant", first.get(0).getName());
+        assertEquals(41, second.get(0).getAge());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(2, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        assertNull(pool.get("Nobody.csv"));
+    }
+
+    @Test
+    public void anInvalidatedFileIsReadAgain() throws IOException {
+        write("Kobe_Bryant.csv", "Kobe_Bryant,41,0,0,player,8,0,0,0,0,0,0,0,0");
+        FreeAgentPool pool = new FreeAgentPool(folderPath());
+        assertEquals(41, pool.get("Kobe_Bryant.csv").get(0).getAge());
+
+        // the same length and modification time as before, so only invalidating it shows the change
+        File file = new File(folder.getRoot(), "Kobe_Bryant.csv");
+        long modified = file.lastModified();
+        write("Kobe_Bryant.csv", "Kobe_Bryant,42,0,0,player,9,0,0,0,0,0,0,0,0");
+        assertTrue(file.setLastModified(modified));
+        assertEquals(41, pool.get("Kobe_Bryant.csv").get(0).getAge());
+        pool.invalidate("Kobe_Bryant.csv");
+        assertEquals(42, pool.get("Kobe_Bryant.csv").get(0).getAge());
+        assertEquals(1, pool.getMisses());
+
+        Files.delete(file.toPath());
+        pool.invalidate("Kobe_Bryant.csv");
+        assertNull(pool.get("Kobe_Bryant.csv"));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void aFullPoolLetsGoOfTheFileUsedLongestAgo() throws IOException {
+        write("A.csv", "A,20,0,0,player,1,0,0,0,0,0,0,0,0");
+        write("B.csv", "B,21,0,0,player,2,0,0,0,0,0,0,0,0");
+        write("C.csv", "C,22,0,0,player,3,0,0,0,0,0,0,0,0");
+        FreeAgentPool pool = new FreeAgentPool(folderPath(), 2);
+
+        pool.get("A.csv");
+        pool.get("B.csv");
+        pool.get("A.csv");
+        pool.get("C.csv");
+        assertEquals(2, pool.size());
+        long misses = pool.getMisses();
+        pool.get("A.csv");
+        assertEquals(misses, pool.getMisses());
+        pool.get("B.csv");
+        assertEquals(misses + 1, pool.getMisses());
+    }
+
+    @Test
+    public void aPoolWithoutACapacityFitsItsFolder() throws IOException {
+        for (int i = 0; i < FreeAgentPool.DEFAULT_CAPACITY + 5; i++) {
+            write("P" + i + ".csv", "P" + i + ",20,0,0,player," + i + ",0,0,0,0,0,0,0,0");
+        }
+        FreeAgentPool pool = new FreeAgentPool(folderPath());
+
+        assertEquals(FreeAgentPool.DEFAULT_CAPACITY + 5, pool.getFileNames().size());
+        assertEquals(FreeAgentPool.DEFAULT_CAPACITY + 5, pool.getCapacity());
+        pool.get("P0.csv");
+        assertEquals(FreeAgentPool.DEFAULT_CAPACITY + 5, pool.size());
+        assertEquals(0, pool.getMisses());
+    }
+
+    private String folderPath() {
+        return folder.getRoot().getPath() + File.separator;
+    }
+
+    private void write(String fileName, String line) throws IOException {
+        Files.write(new File(folder.getRoot(), fileName).toPath(), (line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
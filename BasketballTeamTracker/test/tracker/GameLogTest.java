@@ -0,0 +1,96 @@
+package tracker;
+
+/**
+ * Tests the GameLog: games that arrive late are slid into date order, splits over the last games
+ * and between two days match the lines summed by hand, shooting is averaged over playoff games
+ * only and seasons turn over in July.
+ */
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameLogTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void lateGamesAreSlidIntoPlace() {
+        GameLog gameLog = new GameLog();
+        assertTrue(record(gameLog, LocalDate.of(2024, 1, 10), GameLog.Venue.HOME, 10));
+        assertTrue(record(gameLog, LocalDate.of(2024, 1, 20), GameLog.Venue.AWAY, 30));
+        assertFalse(record(gameLog, LocalDate.of(2024, 1, 15), GameLog.Venue.HOME, 20));
+        // a game from the season before arrives after the newer season started
+        assertFalse(record(gameLog, LocalDate.of(2023, 4, 1), GameLog.Venue.AWAY, 5));
+
+        List<Integer> days = new ArrayList<>();
+        List<Double> points = new ArrayList<>();
+        gameLog.forEachLine("P1", (name, day, flags, line) -> {
+            days.add(day);
+            points.add(line[0]);
+        });
+        assertEquals(4, gameLog.getGames("P1"));
+        assertEquals((int) LocalDate.of(2023, 4, 1).toEpochDay(), (int) days.get(0));
+        assertEquals(5, points.get(0), DELTA);
+        assertEquals(10, points.get(1), DELTA);
+        assertEquals(20, points.get(2), DELTA);
+        assertEquals(30, points.get(3), DELTA);
+    }
+
+    @Test
+    public void splitsMatchTheLines() {
+        GameLog gameLog = new GameLog();
+        LocalDate day = LocalDate.of(2023, 10, 25);
+        for (int game = 0; game < 40; game++) {
+            record(gameLog, day.plusDays(2 * game), game % 2 == 0 ? GameLog.Venue.HOME : GameLog.Venue.AWAY, game);
+        }
+
+        // the last 5 games are 35 to 39, and the last 5 at home are every other game from 30 to 38
+        assertEquals(37, gameLog.getLastGames("P1", 5, null).getAverage(0), DELTA);
+        GameLog.Split home = gameLog.getLastGames("P1", 5, GameLog.Venue.HOME);
+        assertEquals(5, home.getGames());
+        assertEquals(34, home.getAverage(0), DELTA);
+
+        GameLog.Split between = gameLog.getGamesBetween("P1", day.plusDays(20), day.plusDays(29), null);
+        assertEquals(5, between.getGames());
+        assertEquals(12, between.getAverage(0), DELTA);
+        assertEquals(40, gameLog.getGamesBetween("P1", null, null, null).getGames());
+        assertEquals(0, gameLog.getGamesBetween("P1", day.plusDays(29), day.plusDays(20), null).getGames());
+        assertEquals(0, gameLog.getLastGames("Nobody", 5, null).getGames());
+    }
+
+    @Test
+    public void shootingIsAveragedOverPlayoffGames() {
+        GameLog gameLog = new GameLog();
+        gameLog.record("P1", LocalDate.of(2024, 3, 1), GameLog.Venue.HOME, false, 20, 5, 5, 99, 99);
+        gameLog.record("P1", LocalDate.of(2024, 4, 25), GameLog.Venue.HOME, true, 30, 5, 5, 50, 40);
+        gameLog.record("P1", LocalDate.of(2024, 4, 27), GameLog.Venue.AWAY, true, 10, 5, 5, 40, 20);
+
+        GameLog.Split split = gameLog.getLastGames("P1", 3, null);
+        assertEquals(3, split.getGames());
+        assertEquals(2, split.getPlayoffGames());
+        assertEquals(20, split.getAverage(0), DELTA);
+        assertEquals(45, split.getAverage(3), DELTA);
+        assertEquals(30, split.getAverage(4), DELTA);
+
+        gameLog.forget("P1");
+        assertEquals(0, gameLog.getGames("P1"));
+        assertEquals(0, gameLog.getPlayers());
+    }
+
+    @Test
+    public void seasonsTurnOverInJuly() {
+        assertEquals(2023, GameLog.seasonOf((int) LocalDate.of(2024, 6, 30).toEpochDay()));
+        assertEquals(2024, GameLog.seasonOf((int) LocalDate.of(2024, 7, 1).toEpochDay()));
+        assertEquals(1969, GameLog.seasonOf((int) GameLog.UNKNOWN_DAY.toEpochDay()));
+    }
+
+    private static boolean record(GameLog gameLog, LocalDate date, GameLog.Venue venue, double points) {
+        return gameLog.record("P1", date, venue, false, points, 1, 1, 0, 0);
+    }
+}
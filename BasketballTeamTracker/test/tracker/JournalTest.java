@@ -0,0 +1,135 @@
+package tracker;
+
+/**
+ * Tests replaying the journal: every record that was written comes back, and a record at the end
+ * that fails its checksum or was only partly written is cut off instead of applied.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void everyRecordIsReplayed() throws IOException {
+        String journal = writeJournal(3);
+
+        Team team = open(journal);
+        assertEquals(3, team.getRoster().size());
+        assertEquals(22.5, ((Player) team.getRoster().get(2)).getStatistic(0), 0);
+    }
+
+    @Test
+    public void aRecordFailingItsChecksumIsCutOff() throws IOException {
+        String journal = writeJournal(3);
+        long size = length(journal);
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            // the last byte is part of the last record's checksum
+            file.seek(size - 1);
+            int last = file.read();
+            file.seek(size - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        Team team = open(journal);
+        assertEquals(2, team.getRoster().size());
+        assertEquals(-1, team.findRoster("P2"));
+        assertTrue(length(journal) < size);
+
+        // the journal is usable again once the bad record is gone
+        team.addRoster(player(9));
+        assertEquals(3, open(journal).getRoster().size());
+    }
+
+    @Test
+    public void aPartlyWrittenRecordIsCutOff() throws IOException {
+        String journal = writeJournal(2);
+        long size = length(journal);
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.seek(size);
+            file.writeInt(5_000);
+            file.write(new byte[] {2, 1, 2, 3});
+        }
+
+        assertEquals(2, open(journal).getRoster().size());
+        assertEquals(size, length(journal));
+    }
+
+    @Test
+    public void aLongNameIsReplayedAndCompacted() throws IOException {
+        String journal = folder.getRoot().toPath().resolve("Roster.journal").toString();
+        StringBuilder name = new StringBuilder();
+        while(name.length() < 100) {
+            name.append("Long_Name_");
+        }
+        Team team = open(journal);
+        team.addRoster(player(0));
+        team.addRoster(new Player(name.toString(), 25, 7, 0, 0));
+
+        assertEquals(7, ((Player) open(journal).getRoster().get(1)).getJerseyNumber());
+        assertTrue(team.compactJournal());
+        Team reopened = open(journal);
+        assertEquals(2, reopened.getRoster().size());
+        assertEquals(name.toString(), reopened.getRoster().get(1).getName());
+    }
+
+    @Test
+    public void nothingChangesWhenTheJournalCannotBeWritten() throws IOException {
+        String journal = writeJournal(2);
+        Team team = open(journal);
+        team.setTrashFilePath(folder.newFolder("trash").getPath() + File.separator);
+        Path matches = folder.newFolder("matches").toPath();
+        Files.write(matches.resolve("Match.csv"), "regular,Celtics,110,100\nP0,30,5,9,0,0".getBytes(StandardCharsets.UTF_8));
+        team.getJournal().close();
+
+        assertFalse(team.loadMatchStatistics(matches.toString() + File.separator, "Match.csv"));
+        assertTrue(Files.exists(matches.resolve("Match.csv")));
+        assertEquals(0, team.getMatches().size());
+        assertEquals(2, team.getRoster().get(0).getMatchesAttended());
+        assertFalse(team.addRoster(player(5)));
+        assertFalse(team.removeRoster(0));
+        assertEquals(2, team.getRoster().size());
+        assertEquals(-1, team.findRoster("P5"));
+    }
+
+    private String writeJournal(int players) throws IOException {
+        String journal = folder.getRoot().toPath().resolve("Roster.journal").toString();
+        Team team = open(journal);
+        for (int i = 0; i < players; i++) {
+            team.addRoster(player(i));
+        }
+        return journal;
+    }
+
+    private Team open(String journal) {
+        Team team = new Team("Test");
+        assertTrue(team.openJournal(journal, folder.getRoot().toPath().resolve("Roster.snapshot").toString()));
+        return team;
+    }
+
+    private static Player player(int i) {
+        Player player = new Player("P" + i, 25, i, 2, 0);
+        player.saveStatistics(20 + i * 1.25, 4, 6, 0, 0, 0, 0, 0);
+        return player;
+    }
+
+    private static long length(String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+            return file.length();
+        }
+    }
+}
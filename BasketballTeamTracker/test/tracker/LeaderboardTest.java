@@ -0,0 +1,86 @@
+package tracker;
+
+/**
+ * Tests the treap behind the Leaderboard against a list sorted from scratch after every change:
+ * highest score first, and members with equal scores in the order they first joined.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LeaderboardTest {
+
+    @Test
+    public void matchesASortedList() {
+        Random random = new Random(7);
+        Leaderboard leaderboard = new Leaderboard();
+        Player[] players = new Player[200];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("P" + i, 25, i, 0, 0);
+        }
+        HashMap<Roster, double[]> model = new HashMap<>(); // score and joining order
+        long order = 0;
+
+        for (int step = 0; step < 5_000; step++) {
+            Player p = players[random.nextInt(players.length)];
+            if(random.nextInt(5) == 0) {
+                leaderboard.remove(p);
+                model.remove(p);
+            } else {
+                // few distinct scores, so plenty of ties
+                double score = random.nextInt(20);
+                double[] entry = model.get(p);
+                if(entry == null) {
+                    model.put(p, new double[] {score, order++});
+                } else {
+                    entry[0] = score;
+                }
+                leaderboard.update(p, score);
+            }
+
+            if(step % 50 == 0) {
+                List<Roster> expected = sorted(model);
+                assertEquals(expected.size(), leaderboard.size());
+                assertEquals(expected, leaderboard.top(expected.size() + 5));
+                assertEquals(expected.subList(0, Math.min(10, expected.size())), leaderboard.top(10));
+                for (int rank = 0; rank < expected.size(); rank++) {
+                    assertEquals(rank + 1, leaderboard.rank(expected.get(rank)));
+                    assertEquals(model.get(expected.get(rank))[0], leaderboard.score(expected.get(rank)), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readersKeepTheTreeTheyStartedWith() {
+        Leaderboard leaderboard = new Leaderboard();
+        Player a = new Player("A", 25, 1, 0, 0);
+        Player b = new Player("B", 25, 2, 0, 0);
+        leaderboard.update(a, 10);
+        leaderboard.update(b, 5);
+        ArrayList<Roster> before = leaderboard.top(2);
+
+        leaderboard.update(b, 20);
+        leaderboard.remove(a);
+
+        assertEquals(a, before.get(0));
+        assertEquals(b, before.get(1));
+        assertEquals(1, leaderboard.size());
+        assertEquals(-1, leaderboard.rank(a));
+        assertTrue(Double.isNaN(leaderboard.score(a)));
+    }
+
+    private static List<Roster> sorted(HashMap<Roster, double[]> model) {
+        ArrayList<Roster> members = new ArrayList<>(model.keySet());
+        members.sort(Comparator.<Roster>comparingDouble(r -> -model.get(r)[0]).thenComparingDouble(r -> model.get(r)[1]));
+        return members;
+    }
+}
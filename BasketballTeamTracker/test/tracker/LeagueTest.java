@@ -0,0 +1,82 @@
+package tracker;
+
+/**
+ * Tests that a match between two teams in a league is counted once for each team whichever of
+ * their files arrives first, even when the files have no day and were written days apart.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LeagueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void undatedFilesFromDifferentDaysAreOneMatch() throws IOException {
+        League league = league();
+        File raptors = write("Raptors.csv", "regular,Celtics,110,100\nSiakam,30,5,9,0,0", 3);
+        File celtics = write("Celtics.csv", "regular,Raptors,100,110\nTatum,25,4,8,0,0", 0);
+
+        league.applyBoxScore("Raptors", BoxScore.parse(raptors));
+        league.applyBoxScore("Celtics", BoxScore.parse(celtics));
+
+        assertEquals(1, league.getTeam("Raptors").getMatches().size());
+        assertEquals(1, league.getTeam("Celtics").getMatches().size());
+        assertEquals(1, league.getTeam("Celtics").getRoster().get(0).getMatchesAttended());
+        assertEquals(1, league.getTeam("Raptors").getRoster().get(0).getMatchesAttended());
+
+        List<League.Standing> standings = league.getStandings();
+        assertEquals("Raptors", standings.get(0).getTeamName());
+        assertEquals(1, standings.get(0).getWins());
+        assertEquals(1, standings.get(1).getLosses());
+    }
+
+    @Test
+    public void aMatchLoadedTwiceForATeamIsSkipped() throws IOException {
+        League league = league();
+        File raptors = write("Raptors.csv", "regular,Celtics,110,100,2024-01-31\nSiakam,30,5,9,0,0", 0);
+
+        league.applyBoxScore("Raptors", BoxScore.parse(raptors));
+        league.applyBoxScore("Raptors", BoxScore.parse(raptors));
+
+        assertEquals(1, league.getTeam("Raptors").getMatches().size());
+        assertEquals(1, league.getTeam("Raptors").getRoster().get(0).getMatchesAttended());
+        assertEquals(1, league.getTeam("Celtics").getMatches().size());
+    }
+
+    @Test
+    public void differentDaysAreDifferentMatches() throws IOException {
+        League league = league();
+        league.applyBoxScore("Raptors", BoxScore.parse(write("First.csv", "regular,Celtics,110,100,2024-01-30\nSiakam,30,5,9,0,0", 0)));
+        league.applyBoxScore("Celtics", BoxScore.parse(write("Second.csv", "regular,Raptors,100,110,2024-01-31\nTatum,25,4,8,0,0", 0)));
+
+        assertEquals(2, league.getTeam("Raptors").getMatches().size());
+        assertEquals(2, league.getTeam("Celtics").getMatches().size());
+    }
+
+    private static League league() {
+        League league = new League("Test");
+        league.addTeam("Raptors").addRoster(new Player("Siakam", 29, 43, 0, 0));
+        league.addTeam("Celtics").addRoster(new Player("Tatum", 26, 0, 0, 0));
+        return league;
+    }
+
+    private File write(String fileName, String text, int daysAgo) throws IOException {
+        File file = new File(folder.getRoot(), fileName);
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)));
+        return file;
+    }
+}
@@ -0,0 +1,88 @@
+package tracker;
+
+/**
+ * Tests that the MatchWatcher keeps running when a match file cannot be read: the bad file is set
+ * aside and the files dropped in after it are still loaded.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MatchWatcherTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void aMalformedFileIsSetAside() throws IOException, InterruptedException {
+        Path matches = folder.newFolder("matches").toPath();
+        Team team = new Team("Test");
+        team.setTrashFilePath(folder.newFolder("trash").getPath() + File.separator);
+        Player player = new Player("P1", 25, 1, 0, 0);
+        team.addRoster(player);
+
+        try (MatchWatcher watcher = new MatchWatcher(team, matches.toString(), folder.getRoot().toPath().resolve("checkpoint").toString(), 10, 16)) {
+            watcher.start();
+            write(matches.resolve("Bad.csv"), "regular,Celtics,abc,10\nP1,30,5,9,0,0");
+            waitFor(() -> watcher.getFilesRejected() == 1);
+            write(matches.resolve("Good.csv"), "regular,Celtics,110,100\nP1,30,5,9,0,0");
+            waitFor(() -> watcher.getFilesLoaded() == 1);
+
+            assertTrue(watcher.isRunning());
+            assertTrue(Files.exists(matches.resolve("Bad.csv.rejected")));
+            assertFalse(Files.exists(matches.resolve("Bad.csv")));
+            assertFalse(Files.exists(matches.resolve("Good.csv")));
+            assertEquals(1, player.getMatchesAttended());
+            assertEquals(30, player.getStatistic(0), 0);
+        }
+    }
+
+    @Test
+    public void aFileDeletedBeforeItIsLoadedIsForgotten() throws IOException, InterruptedException {
+        Path matches = folder.newFolder("matches").toPath();
+        Team team = new Team("Test");
+        team.setTrashFilePath(folder.newFolder("trash").getPath() + File.separator);
+        team.addRoster(new Player("P1", 25, 1, 0, 0));
+
+        // a long quiet period, so the first file is gone before it could be loaded
+        try (MatchWatcher watcher = new MatchWatcher(team, matches.toString(), folder.getRoot().toPath().resolve("checkpoint").toString(), 300, 16)) {
+            watcher.start();
+            write(matches.resolve("Gone.csv"), "regular,Celtics,110,100\nP1,30,5,9,0,0");
+            Thread.sleep(100);
+            Files.delete(matches.resolve("Gone.csv"));
+            write(matches.resolve("Good.csv"), "regular,Celtics,110,100\nP1,30,5,9,0,0");
+            waitFor(() -> watcher.getFilesLoaded() == 1);
+
+            assertTrue(watcher.isRunning());
+            assertEquals(0, watcher.getFilesRejected());
+        }
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while(!condition.holds()) {
+            assertTrue("timed out waiting for the watcher", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+}
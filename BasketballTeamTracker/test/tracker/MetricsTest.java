@@ -0,0 +1,79 @@
+package tracker;
+
+/**
+ * Tests the bucket math of the Metrics histogram: a percentile is the top of the bucket the value
+ * fell in, which is never below the value and never more than a quarter above it.
+ */
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+    private static final long FAR_ABOVE = 1L << 62;
+
+    @Test
+    public void smallValuesHaveABucketEach() {
+        for (long value = 0; value < 4; value++) {
+            assertEquals(value, median(value));
+        }
+    }
+
+    @Test
+    public void bucketsAreAtMostAQuarterWide() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            long value = 4 + (random.nextLong() >>> (4 + random.nextInt(58)));
+            long top = median(value);
+            assertTrue(value + " went into a bucket ending at " + top, top >= value && top - value <= value / 4);
+            // one past the top of the bucket is the bottom of the next one
+            assertTrue(median(top + 1) > top);
+            assertEquals(top, median(top));
+        }
+    }
+
+    @Test
+    public void bucketEdgesFallOnQuarterPowersOfTwo() {
+        assertEquals(4, median(4));
+        assertEquals(5, median(5));
+        assertEquals(7, median(7));
+        assertEquals(9, median(8));
+        assertEquals(11, median(10));
+        assertEquals(1279, median(1024));
+        assertEquals(1279, median(1279));
+        assertEquals(1535, median(1280));
+    }
+
+    @Test
+    public void percentilesCountEveryValue() {
+        Metrics.Histogram histogram = new Metrics.Histogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(5050, histogram.getTotal());
+        assertEquals(100, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(0));
+        assertTrue(histogram.getPercentile(0.5) >= 50 && histogram.getPercentile(0.5) <= 50 + 50 / 4);
+        assertEquals(100, histogram.getPercentile(1.0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    /**
+     * Records a value next to a much larger one, so the median is the top of the value's own bucket.
+     */
+    private static long median(long value) {
+        Metrics.Histogram histogram = new Metrics.Histogram();
+        histogram.record(value);
+        histogram.record(FAR_ABOVE);
+        return histogram.getPercentile(0.5);
+    }
+}
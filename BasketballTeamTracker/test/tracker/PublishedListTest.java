@@ -0,0 +1,73 @@
+package tracker;
+
+/**
+ * Tests that every snapshot handed out by a PublishedList stays exactly as it was, whatever is
+ * added, removed or replaced afterwards.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PublishedListTest {
+
+    @Test
+    public void snapshotsNeverChange() {
+        PublishedList<Integer> list = new PublishedList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> expected = new ArrayList<>();
+        List<Integer> model = new ArrayList<>();
+
+        // past the first few array sizes, so adding has to grow the array under older snapshots
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+            model.add(i);
+            if(i % 7 == 0) {
+                int middle = model.size() / 2;
+                list.remove(middle);
+                model.remove(middle);
+            }
+            if(i == 60) {
+                list.replaceAll(Arrays.asList(-1, -2, -3));
+                model.clear();
+                model.addAll(Arrays.asList(-1, -2, -3));
+            }
+            snapshots.add(list.snapshot());
+            expected.add(new ArrayList<>(model));
+        }
+
+        assertEquals(model.size(), list.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expected.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    public void addingAfterASnapshotIsNotSeenThroughIt() {
+        PublishedList<String> list = new PublishedList<>();
+        list.add("a");
+        List<String> before = list.snapshot();
+        list.add("b");
+
+        assertEquals(1, before.size());
+        try {
+            before.get(1);
+            fail("the snapshot should end where it was taken");
+        } catch (IndexOutOfBoundsException expected) {
+            // the slot holds "b" now, but this snapshot cannot reach it
+        }
+        assertEquals(Arrays.asList("a", "b"), list.snapshot());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotsAreReadOnly() {
+        PublishedList<String> list = new PublishedList<>();
+        list.add("a");
+        list.snapshot().set(0, "b");
+    }
+}
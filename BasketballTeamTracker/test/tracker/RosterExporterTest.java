@@ -0,0 +1,125 @@
+package tracker;
+
+/**
+ * Tests the roster exports: CSV lines match the roster file layout the tracker always wrote,
+ * saved rosters load back the same, and the JSON and binary forms hold every field.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RosterExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void csvMatchesTheRosterFileLayout() throws IOException {
+        Team team = team(new Random(3), 200);
+        StringBuilder expected = new StringBuilder();
+        for (Roster r : team.getRoster()) {
+            String kind = r instanceof Player ? "player" : "coach";
+            expected.append(r.getName()).append(',').append(r.getAge()).append(',').append(r.getMatchesAttended()).append(',')
+                    .append(r.getPlayoffMatchesAttended()).append(',').append(kind).append(',').append(r.listOutStats()).append('\n');
+        }
+
+        assertEquals(expected.toString(), export(team, RosterExporter.Format.CSV));
+    }
+
+    @Test
+    public void aSavedRosterLoadsBackTheSame() throws IOException {
+        Team team = team(new Random(4), 50);
+        String rosterFilePath = folder.getRoot().toPath().resolve("Roster.csv").toString();
+        assertTrue(team.saveRosterStatistics(rosterFilePath));
+
+        Team loaded = new Team("Loaded");
+        assertTrue(loaded.loadRosterStatistics(rosterFilePath));
+        assertEquals(export(team, RosterExporter.Format.CSV), export(loaded, RosterExporter.Format.CSV));
+    }
+
+    @Test
+    public void jsonHoldsEveryField() throws IOException {
+        Team team = new Team("Test");
+        Player player = new Player("O\"Neal", 30, 34, 2, 1);
+        player.saveStatistics(28.5, 3.25, 12, 30, 2, 14, 58.1, 0);
+        team.addRoster(player);
+        Coach coach = new Coach("Phil", 60, 4, 0);
+        coach.setWins(3, 0);
+        team.addRoster(coach);
+
+        assertEquals("[{\"name\":\"O\\\"Neal\",\"age\":30,\"matches\":2,\"playoffMatches\":1,\"type\":\"player\",\"jersey\":34,"
+                        + "\"ppg\":28.5,\"apg\":3.3,\"rpg\":12.0,\"playoffPpg\":30.0,\"playoffApg\":2.0,\"playoffRpg\":14.0,"
+                        + "\"fieldGoal\":58.1,\"threePoint\":0.0},"
+                        + "{\"name\":\"Phil\",\"age\":60,\"matches\":4,\"playoffMatches\":0,\"type\":\"coach\",\"winPercentage\":75.0,"
+                        + "\"playoffWinPercentage\":0.0}]",
+                export(team, RosterExporter.Format.JSON));
+    }
+
+    @Test
+    public void binaryHoldsEveryField() throws IOException {
+        Team team = team(new Random(5), 20);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        team.exportRoster(out, RosterExporter.Format.BINARY);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(RosterExporter.MAGIC, in.readInt());
+        assertEquals(RosterExporter.VERSION, in.readInt());
+        for (Roster r : team.getRoster()) {
+            assertEquals(r instanceof Player ? 1 : 2, in.readByte());
+            assertEquals(r.getName(), in.readUTF());
+            assertEquals(r.getAge(), in.readInt());
+            assertEquals(r.getMatchesAttended(), in.readInt());
+            assertEquals(r.getPlayoffMatchesAttended(), in.readInt());
+            if(r instanceof Player) {
+                Player player = (Player) r;
+                assertEquals(player.getJerseyNumber(), in.readInt());
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(Math.round(player.getStatistic(i) * 10), in.readInt());
+                }
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(Math.round(player.getPlayoffStatistic(i) * 10), in.readInt());
+                }
+            } else {
+                assertEquals(Math.round(((Coach) r).getWinPercentage() * 10), in.readInt());
+                assertEquals(Math.round(((Coach) r).getPlayoffWinPercentage() * 10), in.readInt());
+            }
+        }
+        assertEquals(-1, in.read());
+    }
+
+    private static String export(Team team, RosterExporter.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        team.exportRoster(out, format);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Team team(Random random, int members) {
+        Team team = new Team("Test");
+        for (int i = 0; i < members; i++) {
+            int matches = random.nextInt(82);
+            int playoffMatches = random.nextInt(20);
+            if(i % 10 == 9) {
+                Coach coach = new Coach("Coach_" + i, 40 + random.nextInt(30), matches, playoffMatches);
+                coach.setWins(random.nextInt(matches + 1), random.nextInt(playoffMatches + 1));
+                team.addRoster(coach);
+            } else {
+                Player player = new Player("Player_" + i + "_é", 19 + random.nextInt(20), i, matches, playoffMatches);
+                player.saveStatistics(random.nextInt(400) / 10.0, random.nextInt(150) / 10.0, random.nextInt(200) / 10.0,
+                        random.nextInt(400) / 10.0, random.nextInt(150) / 10.0, random.nextInt(200) / 10.0,
+                        random.nextInt(1000) / 10.0, random.nextInt(1000) / 10.0);
+                team.addRoster(player);
+            }
+        }
+        return team;
+    }
+}
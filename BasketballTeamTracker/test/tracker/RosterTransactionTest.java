@@ -0,0 +1,136 @@
+package tracker;
+
+/**
+ * Tests the RosterTransaction: staged trades, hires and fires move the projected totals and undo
+ * takes them back exactly, committing makes every change at once and trashes the signed free
+ * agents' files, and a transaction begun before the roster changed commits nothing.
+ */
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RosterTransactionTest {
+    private static final double DELTA = 1e-9;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Team team;
+    private String freeAgentsPath;
+    private File trash;
+
+    @Before
+    public void createTeam() throws IOException {
+        team = new Team("Test");
+        trash = folder.newFolder("trash");
+        team.setTrashFilePath(trash.getPath() + File.separator);
+        Player siakam = new Player("Siakam", 29, 43, 10, 0);
+        siakam.saveStatistics(22.5, 4.5, 7.5, 0, 0, 0, 0, 0);
+        team.addRoster(siakam);
+        Player trent = new Player("Trent", 25, 33, 10, 0);
+        trent.saveStatistics(15.0, 2.0, 3.0, 0, 0, 0, 0, 0);
+        team.addRoster(trent);
+        Coach coach = new Coach("Nurse", 56, 10, 0);
+        coach.setWins(6, 0);
+        team.addRoster(coach);
+
+        File freeAgents = folder.newFolder("freeAgents");
+        freeAgentsPath = freeAgents.getPath() + File.separator;
+        write(freeAgents, "LeBron_James.csv", "LeBron_James,39,10,0,player,6,25.0,8.0,7.5,0,0,0,0,0");
+        write(freeAgents, "Phil_Jackson.csv", "Phil_Jackson,78,10,0,coach,80.0,0");
+    }
+
+    @Test
+    public void undoTakesBackEachChange() {
+        RosterTransaction tx = team.beginTransaction();
+        RosterTransaction.Projection before = tx.getProjection();
+        assertEquals(37.5, before.getPoints(), DELTA);
+        assertEquals(60, before.getWinPercentage(), DELTA);
+
+        assertTrue(tx.trade(freeAgentsPath, "LeBron_James.csv", "Trent"));
+        assertEquals(47.5, tx.getProjection().getPoints(), DELTA);
+        assertEquals(12.5, tx.getProjection().getAssists(), DELTA);
+        assertTrue(tx.isOnRoster("LeBron_James"));
+        assertFalse(tx.isOnRoster("Trent"));
+
+        assertTrue(tx.hire(freeAgentsPath, "Phil_Jackson.csv"));
+        assertTrue(tx.fire("Nurse"));
+        assertEquals(80, tx.getProjection().getWinPercentage(), DELTA);
+        assertEquals(1, tx.getProjection().getCoaches());
+        assertEquals(3, tx.getChanges());
+        // staging the same file twice is refused
+        assertFalse(tx.hire(freeAgentsPath, "Phil_Jackson.csv"));
+
+        assertTrue(tx.undo());
+        assertTrue(tx.undo());
+        assertTrue(tx.undo());
+        assertFalse(tx.undo());
+        RosterTransaction.Projection after = tx.getProjection();
+        assertEquals(before.getPoints(), after.getPoints(), DELTA);
+        assertEquals(before.getAssists(), after.getAssists(), DELTA);
+        assertEquals(before.getRebounds(), after.getRebounds(), DELTA);
+        assertEquals(before.getWinPercentage(), after.getWinPercentage(), DELTA);
+        assertEquals(before.getPlayers(), after.getPlayers());
+        assertEquals(before.getCoaches(), after.getCoaches());
+        assertTrue(tx.isOnRoster("Trent"));
+        assertFalse(tx.isOnRoster("LeBron_James"));
+        tx.discard();
+    }
+
+    @Test
+    public void commitMakesEveryChange() {
+        RosterTransaction tx = team.beginTransaction();
+        assertTrue(tx.trade(freeAgentsPath, "LeBron_James.csv", "Trent"));
+        assertTrue(tx.hire(freeAgentsPath, "Phil_Jackson.csv"));
+        assertTrue(tx.fire("Nurse"));
+        // nothing changes until the commit
+        assertNotNull(team.getRoster("Trent"));
+        assertNull(team.getRoster("LeBron_James"));
+
+        assertTrue(tx.commit());
+        assertNull(team.getRoster("Trent"));
+        assertNull(team.getRoster("Nurse"));
+        assertNotNull(team.getRoster("LeBron_James"));
+        assertNotNull(team.getRoster("Phil_Jackson"));
+        assertEquals(3, team.getRoster().size());
+        assertFalse(new File(freeAgentsPath + "LeBron_James.csv").exists());
+        assertTrue(new File(trash, "LeBron_James.csv").exists());
+        assertTrue(new File(trash, "Phil_Jackson.csv").exists());
+    }
+
+    @Test
+    public void aChangedRosterCommitsNothing() {
+        RosterTransaction tx = team.beginTransaction();
+        assertTrue(tx.trade(freeAgentsPath, "LeBron_James.csv", "Trent"));
+        team.addRoster(new Player("VanVleet", 30, 23, 0, 0));
+
+        assertFalse(tx.commit());
+        assertNotNull(team.getRoster("Trent"));
+        assertNull(team.getRoster("LeBron_James"));
+        assertTrue(new File(freeAgentsPath + "LeBron_James.csv").exists());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aFinishedTransactionCannotBeUsed() {
+        RosterTransaction tx = team.beginTransaction();
+        tx.discard();
+        tx.fire("Nurse");
+    }
+
+    private static void write(File folder, String fileName, String line) throws IOException {
+        Files.write(new File(folder, fileName).toPath(), (line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
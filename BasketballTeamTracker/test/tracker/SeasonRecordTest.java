@@ -0,0 +1,79 @@
+package tracker;
+
+/**
+ * Tests that the SeasonRecord's running totals match the matches they were made from: the
+ * regular season split by venue, the playoffs, the record against each opponent and the streaks.
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeasonRecordTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void totalsMatchTheMatches() {
+        SeasonRecord record = new SeasonRecord();
+        record.add(new Match("Celtics", 110, 100, GameLog.Venue.HOME));
+        record.add(new Match("Celtics", 95, 101, GameLog.Venue.AWAY));
+        record.add(new Match("Knicks", 120, 90, GameLog.Venue.AWAY));
+        record.add(new Match("Knicks", 100, 99));
+        record.add(new PlayoffMatch("Celtics", 105, 108, "first", GameLog.Venue.HOME));
+
+        SeasonRecord.Record regular = record.getRegularSeason();
+        assertEquals(3, regular.getWins());
+        assertEquals(1, regular.getLosses());
+        assertEquals(425, regular.getPointsFor());
+        assertEquals(390, regular.getPointsAgainst());
+        assertEquals(75, regular.getWinPercentage(), DELTA);
+        assertEquals(8.75, regular.getAverageMargin(), DELTA);
+
+        // the game with no venue only counts for the whole regular season
+        assertEquals(1, record.getHome().getGames());
+        assertEquals(2, record.getAway().getGames());
+        assertEquals(1, record.getAway().getLosses());
+        assertEquals(1, record.getPlayoffs().getLosses());
+        assertEquals(0, record.getPlayoffs().getWins());
+
+        SeasonRecord.Record celtics = record.getHeadToHead("Celtics");
+        assertEquals(1, celtics.getWins());
+        assertEquals(2, celtics.getLosses());
+        assertEquals(0, record.getHeadToHead("Raptors").getGames());
+        assertEquals(Arrays.asList("Celtics", "Knicks"), record.getOpponents());
+    }
+
+    @Test
+    public void streaksFollowTheOrderPlayed() {
+        SeasonRecord record = new SeasonRecord();
+        assertEquals(0, record.getStreak());
+        int[][] scores = {{100, 90}, {100, 90}, {100, 90}, {90, 100}, {90, 100}, {100, 90}};
+        for (int[] score : scores) {
+            record.add(new Match("Celtics", score[0], score[1]));
+        }
+        assertEquals(1, record.getStreak());
+        assertEquals(3, record.getLongestWinStreak());
+        assertEquals(2, record.getLongestLosingStreak());
+
+        record.add(new PlayoffMatch("Celtics", 90, 100, "first"));
+        assertEquals(-1, record.getStreak());
+    }
+
+    @Test
+    public void copiesStayPutAndClearForgetsEverything() {
+        SeasonRecord record = new SeasonRecord();
+        record.add(new Match("Celtics", 110, 100));
+        SeasonRecord.Record copy = record.getRegularSeason();
+        record.add(new Match("Celtics", 110, 100));
+        assertEquals(1, copy.getWins());
+        assertEquals(2, record.getRegularSeason().getWins());
+
+        record.clear();
+        assertEquals(0, record.getRegularSeason().getGames());
+        assertEquals(0, record.getStreak());
+        assertEquals(0, record.getLongestWinStreak());
+        assertEquals(0, record.getOpponents().size());
+    }
+}
@@ -0,0 +1,292 @@
+package tracker;
+
+/**
+ * Tests that a snapshot of every version still opens: the older versions are written byte by byte
+ * in their old layouts, and the current version is written by Snapshot.write and read back.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SnapshotTest {
+    private static final int NAME_BYTES = 64;
+    private static final int STAGE_BYTES = 32;
+    private static final int ROSTER_BYTES = 152;
+    private static final int OLD_LINE_BYTES = 112;
+    private static final int GAME_BYTES = 48;
+    private static final long GENERATION = 41;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void currentVersionRoundTrips() throws IOException {
+        SeasonRecord seasonRecord = new SeasonRecord();
+        seasonRecord.restoreStreaks(-2, 5, 3);
+        Path path = folder.getRoot().toPath().resolve("Roster.snapshot");
+        Snapshot.write(path.toString(), roster(), matches(), playoffMatches(), gameLog(), seasonRecord, GENERATION);
+
+        Snapshot snapshot = Snapshot.read(path.toString());
+        assertContents(snapshot, Snapshot.VERSION);
+        assertArrayEquals(new int[] {-2, 5, 3}, snapshot.getStreaks());
+
+        // writing what was read gives the same bytes back
+        Path again = folder.getRoot().toPath().resolve("Again.snapshot");
+        Snapshot.write(again.toString(), snapshot.getRoster(), snapshot.getMatches(), snapshot.getPlayoffMatches(), snapshot.getGameLog(),
+                seasonRecord, snapshot.getGeneration());
+        assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(again));
+    }
+
+    @Test
+    public void longNamesRoundTrip() throws IOException {
+        // longer than the old 64 byte fields, and one longer than the 64 KiB chunks the file is read in
+        String longName = repeat("Ä", 40);
+        String hugeName = repeat("x", 100_000);
+        Player player = new Player(longName, 25, 1, 1, 0);
+        player.saveStatistics(10, 2, 3, 0, 0, 0, 0, 0);
+        GameLog gameLog = new GameLog();
+        gameLog.add(longName, 18_000, (byte) 1, new double[] {10, 2, 3, 0, 0});
+        Path path = folder.getRoot().toPath().resolve("Long.snapshot");
+        Snapshot.write(path.toString(), Arrays.asList(player, new Coach(hugeName, 50, 1, 0)),
+                new ArrayList<>(Arrays.asList(new Match(hugeName, 100, 90, GameLog.Venue.HOME))),
+                new ArrayList<>(Arrays.asList(new PlayoffMatch(longName, 100, 90, longName, GameLog.Venue.AWAY))), gameLog, new SeasonRecord(), GENERATION);
+
+        Snapshot snapshot = Snapshot.read(path.toString());
+        assertEquals(longName, snapshot.getRoster().get(0).getName());
+        assertEquals(10, ((Player) snapshot.getRoster().get(0)).getStatistic(0), 0);
+        assertEquals(hugeName, snapshot.getRoster().get(1).getName());
+        assertEquals(hugeName, snapshot.getMatches().get(0).getOpponentTeam());
+        assertEquals(90, snapshot.getMatches().get(0).getOpponentScore());
+        assertEquals(longName, snapshot.getPlayoffMatches().get(0).getOpponentTeam());
+        assertEquals(longName, snapshot.getPlayoffMatches().get(0).getBracketStage());
+        assertEquals(GameLog.Venue.AWAY, snapshot.getPlayoffMatches().get(0).getVenue());
+        assertEquals(lines(gameLog), lines(snapshot.getGameLog()));
+    }
+
+    @Test
+    public void everyOlderVersionOpens() throws IOException {
+        for (int version = 1; version < Snapshot.VERSION; version++) {
+            Path path = folder.getRoot().toPath().resolve("v" + version + ".snapshot");
+            Files.write(path, writeOld(version));
+
+            Snapshot snapshot = Snapshot.read(path.toString());
+            assertContents(snapshot, version);
+            if(version > 5) {
+                assertArrayEquals(new int[] {-2, 5, 3}, snapshot.getStreaks());
+            } else {
+                assertNull(snapshot.getStreaks());
+            }
+        }
+    }
+
+    @Test
+    public void aCutShortSnapshotIsRejected() throws IOException {
+        byte[] bytes = writeOld(Snapshot.VERSION - 1);
+        Path path = folder.getRoot().toPath().resolve("Cut.snapshot");
+        Files.write(path, Arrays.copyOf(bytes, 300));
+        try {
+            Snapshot.read(path.toString());
+            fail("a snapshot missing its records should not open");
+        } catch (IOException expected) {
+            // the header promises more records than the file holds
+        }
+    }
+
+    /**
+     * Checks a snapshot holds what the old layout of its version could hold.
+     */
+    private static void assertContents(Snapshot snapshot, int version) {
+        String label = "version " + version;
+        assertEquals(label, 2, snapshot.getRoster().size());
+        Player player = (Player) snapshot.getRoster().get(0);
+        assertEquals(label, "Pascal_Siakam", player.getName());
+        assertEquals(label, 43, player.getJerseyNumber());
+        assertEquals(label, 10, player.getMatchesAttended());
+        assertEquals(label, 22.4, player.getStatistic(0), 0);
+        assertEquals(label, 48.5, player.getPlayoffStatistic(3), 0);
+        Coach coach = (Coach) snapshot.getRoster().get(1);
+        assertEquals(label, "Nick_Nurse", coach.getName());
+        assertEquals(label, 7, coach.getWins());
+
+        List<Match> matches = snapshot.getMatches();
+        assertEquals(label, 2, matches.size());
+        assertEquals(label, "Bucks", matches.get(1).getOpponentTeam());
+        assertEquals(label, 99, matches.get(1).getYourScore());
+        assertEquals(label, 101, matches.get(1).getOpponentScore());
+        PlayoffMatch playoffMatch = snapshot.getPlayoffMatches().get(0);
+        assertEquals(label, "Finals", playoffMatch.getBracketStage());
+        assertEquals(label, version > 2 ? GameLog.Venue.AWAY : GameLog.Venue.UNKNOWN, matches.get(1).getVenue());
+        assertEquals(label, version > 2 ? GameLog.Venue.HOME : GameLog.Venue.UNKNOWN, playoffMatch.getVenue());
+
+        assertEquals(label, version > 1 ? lines(gameLog()) : new TreeSet<String>(), lines(snapshot.getGameLog()));
+        assertEquals(label, version > 3 ? GENERATION : 0, snapshot.getGeneration());
+    }
+
+    /**
+     * Writes the test team in the layout of an older version.
+     */
+    private static byte[] writeOld(int version) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        List<Roster> roster = roster();
+        List<Match> matches = matches();
+        List<PlayoffMatch> playoffMatches = playoffMatches();
+        buffer.putInt(Snapshot.MAGIC);
+        buffer.putInt(version);
+        buffer.putInt(roster.size());
+        buffer.putInt(matches.size());
+        buffer.putInt(playoffMatches.size());
+        if(version > 3) {
+            buffer.putLong(GENERATION);
+        }
+
+        for (Roster r : roster) {
+            putRoster(buffer, r);
+        }
+        for (Match m : matches) {
+            putText(buffer, m.getOpponentTeam(), NAME_BYTES);
+            buffer.putInt(m.getYourScore());
+            buffer.putInt(m.getOpponentScore());
+        }
+        for (PlayoffMatch m : playoffMatches) {
+            putText(buffer, m.getOpponentTeam(), NAME_BYTES);
+            buffer.putInt(m.getYourScore());
+            buffer.putInt(m.getOpponentScore());
+            putText(buffer, m.getBracketStage(), STAGE_BYTES);
+        }
+
+        GameLog gameLog = gameLog();
+        if(version > 4) {
+            buffer.putInt(gameLog.getPlayers());
+            for (String name : new String[] {"Pascal_Siakam", "Fred_VanVleet"}) {
+                putText(buffer, name, NAME_BYTES);
+                buffer.putInt(gameLog.getGames(name));
+                gameLog.forEachLine(name, (player, day, flags, line) -> {
+                    int start = buffer.position();
+                    putLine(buffer, day, flags, line);
+                    buffer.position(start + GAME_BYTES);
+                });
+            }
+        } else if(version > 1) {
+            buffer.putInt((int) gameLog.getLines());
+            gameLog.forEachLine((name, day, flags, line) -> {
+                int start = buffer.position();
+                putText(buffer, name, NAME_BYTES);
+                putLine(buffer, day, flags, line);
+                buffer.position(start + OLD_LINE_BYTES);
+            });
+        }
+
+        if(version > 2) {
+            for (Match m : matches) {
+                buffer.put((byte) m.getVenue().ordinal());
+            }
+            for (PlayoffMatch m : playoffMatches) {
+                buffer.put((byte) m.getVenue().ordinal());
+            }
+        }
+        if(version > 5) {
+            buffer.putInt(-2);
+            buffer.putInt(5);
+            buffer.putInt(3);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Writes a roster member in the fixed 152 byte layout used before version 7.
+     */
+    private static void putRoster(ByteBuffer buffer, Roster r) {
+        int start = buffer.position();
+        putText(buffer, r.getName(), NAME_BYTES);
+        buffer.put((byte) (r instanceof Player ? 0 : 1));
+        buffer.putInt(r.getAge());
+        buffer.putInt(r.getMatchesAttended());
+        buffer.putInt(r.getPlayoffMatchesAttended());
+        if(r instanceof Player) {
+            Player player = (Player) r;
+            buffer.putInt(player.getJerseyNumber());
+            for (int c = 0; c < StatTable.COLUMNS; c++) {
+                buffer.putDouble(player.getTotal(c));
+            }
+        } else {
+            Coach coach = (Coach) r;
+            buffer.putInt(0);
+            buffer.putDouble(coach.getWins());
+            buffer.putDouble(coach.getPlayoffWins());
+        }
+        buffer.position(start + ROSTER_BYTES);
+    }
+
+    /**
+     * Writes a text field in the fixed width layout used before version 7.
+     */
+    private static void putText(ByteBuffer buffer, String text, int width) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int start = buffer.position();
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+        buffer.position(start + width);
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    private static void putLine(ByteBuffer buffer, int day, byte flags, double[] line) {
+        buffer.putInt(day);
+        buffer.put(flags);
+        for (double stat : line) {
+            buffer.putDouble(stat);
+        }
+    }
+
+    private static List<Roster> roster() {
+        Player player = new Player("Pascal_Siakam", 29, 43, 10, 4);
+        player.saveStatistics(22.4, 5.1, 7.3, 25.0, 6.0, 8.5, 48.5, 35.0);
+        Coach coach = new Coach("Nick_Nurse", 55, 12, 4);
+        coach.setWins(7, 3);
+        return Arrays.asList(player, coach);
+    }
+
+    private static ArrayList<Match> matches() {
+        return new ArrayList<>(Arrays.asList(new Match("Celtics", 110, 104, GameLog.Venue.HOME), new Match("Bucks", 99, 101, GameLog.Venue.AWAY)));
+    }
+
+    private static ArrayList<PlayoffMatch> playoffMatches() {
+        return new ArrayList<>(Arrays.asList(new PlayoffMatch("Warriors", 114, 110, "Finals", GameLog.Venue.HOME)));
+    }
+
+    private static GameLog gameLog() {
+        GameLog gameLog = new GameLog();
+        gameLog.add("Pascal_Siakam", 18_000, (byte) 1, new double[] {30, 5, 9, 0, 0});
+        gameLog.add("Pascal_Siakam", 18_002, (byte) 6, new double[] {26, 4, 10, 52.5, 40});
+        gameLog.add("Fred_VanVleet", 18_000, (byte) 1, new double[] {17, 8, 3, 0, 0});
+        return gameLog;
+    }
+
+    private static TreeSet<String> lines(GameLog gameLog) {
+        TreeSet<String> lines = new TreeSet<>();
+        gameLog.forEachLine((name, day, flags, line) -> lines.add(name + " " + day + " " + flags + " " + Arrays.toString(line)));
+        return lines;
+    }
+}
@@ -0,0 +1,85 @@
+package tracker;
+
+/**
+ * Tests the StatsServer's ETags: a client sending back the current ETag, on its own, in a list,
+ * as a weak ETag or as "*", gets an empty 304 until the team changes.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatsServerTest {
+    private Team team;
+    private StatsServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        team = new Team("Test");
+        team.addRoster(new Player("Siakam", 29, 43, 0, 0));
+        server = new StatsServer(team, 0);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void theCurrentETagGetsA304() throws IOException {
+        HttpURLConnection first = get("/roster", null);
+        assertEquals(200, first.getResponseCode());
+        String etag = first.getHeaderField("ETag");
+        assertNotNull(etag);
+        assertTrue(read(first).contains("\"Siakam\""));
+
+        assertEquals(304, get("/roster", etag).getResponseCode());
+        assertEquals(304, get("/roster", "\"stale-1\", " + etag).getResponseCode());
+        assertEquals(304, get("/roster", "W/" + etag + ",\"stale-2\"").getResponseCode());
+        assertEquals(304, get("/roster", "*").getResponseCode());
+        assertEquals(200, get("/roster", "\"stale-1\", W/\"stale-2\"").getResponseCode());
+    }
+
+    @Test
+    public void aChangedTeamGetsANewETag() throws IOException {
+        String etag = get("/roster", null).getHeaderField("ETag");
+        team.addRoster(new Player("VanVleet", 30, 23, 0, 0));
+
+        HttpURLConnection changed = get("/roster", etag);
+        assertEquals(200, changed.getResponseCode());
+        assertNotEquals(etag, changed.getHeaderField("ETag"));
+        assertTrue(read(changed).contains("\"VanVleet\""));
+    }
+
+    private HttpURLConnection get(String path, String ifNoneMatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        if(ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            for (int count = in.read(buffer); count != -1; count = in.read(buffer)) {
+                body.write(buffer, 0, count);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package tracker;
+
+/**
+ * Tests that the pruning in TradeSearch never drops a trade that belongs in the results: the best
+ * trades it finds are checked against every single trade and every pair of trades worked out by
+ * brute force.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TradeSearchTest {
+    private static final double DELTA = 1e-9;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pairsMatchBruteForce() throws IOException {
+        for (int seed = 0; seed < 8; seed++) {
+            check(seed, 2);
+        }
+    }
+
+    @Test
+    public void singlesMatchBruteForce() throws IOException {
+        for (int seed = 0; seed < 4; seed++) {
+            check(seed, 1);
+        }
+    }
+
+    @Test
+    public void nothingIsReturnedForNoTrades() throws IOException {
+        Team team = new Team("Test");
+        team.addRoster(new Player("P0", 25, 0, 10, 0));
+        assertTrue(new TradeSearch(team, folder.newFolder().getPath() + File.separator, Integer.MAX_VALUE).search(5, 2).isEmpty());
+        assertTrue(new TradeSearch(team, folder.newFolder().getPath() + File.separator, Integer.MAX_VALUE).search(0, 2).isEmpty());
+    }
+
+    private void check(int seed, int maxTrades) throws IOException {
+        Random random = new Random(seed);
+        File freeAgents = folder.newFolder();
+        int files = 40 + random.nextInt(60);
+        for (int i = 0; i < files; i++) {
+            try (PrintWriter writer = new PrintWriter(new File(freeAgents, "FA" + i + ".csv"))) {
+                writer.print("FA" + i + "," + (20 + random.nextInt(20)) + ",10,0,player," + i + "," + random.nextInt(30) + ".0,1.0,"
+                        + random.nextInt(15) + ".0,0,0,0,0,0");
+            }
+        }
+        Team team = new Team("Test");
+        for (int i = 0; i < 12; i++) {
+            Player player = new Player("P" + i, 25, i, 10, 0);
+            player.saveStatistics(random.nextInt(30), 1, random.nextInt(15), 0, 0, 0, 0, 0);
+            team.addRoster(player);
+        }
+        int ageCap = 25 + random.nextInt(15);
+        int k = 1 + random.nextInt(20);
+        String folderPath = freeAgents.getPath() + File.separator;
+
+        List<TradeSearch.Trade> found = new TradeSearch(team, folderPath, ageCap).search(k, maxTrades);
+
+        // every single trade: who leaves, which file joins and what it adds
+        List<Roster> roster = team.getRoster();
+        FreeAgentPool pool = team.getFreeAgents(folderPath);
+        List<double[]> singles = new ArrayList<>();
+        for (int give = 0; give < roster.size(); give++) {
+            for (String fileName : pool.getFileNames()) {
+                Roster freeAgent = pool.get(fileName).get(0);
+                if(freeAgent.getAge() <= ageCap) {
+                    singles.add(new double[] {give, Integer.parseInt(fileName.replaceAll("\\D", "")), score(freeAgent) - score(roster.get(give))});
+                }
+            }
+        }
+        List<Double> gains = new ArrayList<>();
+        for (int i = 0; i < singles.size(); i++) {
+            gains.add(singles.get(i)[2]);
+            for (int j = i + 1; maxTrades == 2 && j < singles.size(); j++) {
+                double[] a = singles.get(i);
+                double[] b = singles.get(j);
+                if(a[0] != b[0] && a[1] != b[1]) {
+                    gains.add(a[2] + b[2]);
+                }
+            }
+        }
+        gains.sort(Collections.reverseOrder());
+
+        assertEquals("seed " + seed, Math.min(k, gains.size()), found.size());
+        for (int i = 0; i < found.size(); i++) {
+            assertEquals("seed " + seed + ", trade " + i, gains.get(i), found.get(i).getGain(), DELTA);
+        }
+    }
+
+    private static double score(Roster r) {
+        return Category.PPG.score(r) + Category.RPG.score(r);
+    }
+}